@@ -1,4 +1,5 @@
 import axios from 'axios';
+import AsyncStorage from '@react-native-async-storage/async-storage';
 
 const BASE_URL = 'http://192.168.90.100:8484'; 
 // const BASE_URL = 'http://10.9.35.213:8484'; 
@@ -11,6 +12,16 @@ const instance = axios.create({
   },
 });
 
+// ✅ Gắn access token nhận được lúc login, server kiểm tra token thay vì mật khẩu
+instance.interceptors.request.use(async (config) => {
+  const user = await AsyncStorage.getItem('user');
+  const accessToken = user ? JSON.parse(user).accessToken : null;
+  if (accessToken && !config.headers.Authorization) {
+    config.headers.Authorization = `Bearer ${accessToken}`;
+  }
+  return config;
+});
+
 // ✅ Xử lý lỗi chung
 const handleError = (error, errorCallback) => {
   const message = error?.response?.data || error.message || 'Unknown Error';
@@ -22,6 +33,9 @@ const handleError = (error, errorCallback) => {
 };
 
 
+// ✅ Cache theo ETag: gửi If-None-Match, server trả 304 thì dùng lại dữ liệu cũ
+const etagCache = new Map();
+
 export const getRequest = async (
   url = '',
   params = {},
@@ -30,9 +44,25 @@ export const getRequest = async (
   config = {}
 ) => {
   try {
-    const res = await instance.get(url, { params, ...config });
-    if (successCallback) successCallback(res.data);
-    return res.data;
+    const cacheKey = instance.getUri({ url, params });
+    const cached = etagCache.get(cacheKey);
+    const res = await instance.get(url, {
+      params,
+      ...config,
+      headers: {
+        ...(cached ? { 'If-None-Match': cached.etag } : {}),
+        ...config.headers,
+      },
+      validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+    });
+    let data = res.data;
+    if (res.status === 304 && cached) {
+      data = cached.data;
+    } else if (res.headers?.etag) {
+      etagCache.set(cacheKey, { etag: res.headers.etag, data });
+    }
+    if (successCallback) successCallback(data);
+    return data;
   } catch (error) {
     handleError(error, errorCallback);
     throw error;
@@ -73,6 +103,23 @@ export const putRequest = async (
   }
 };
 
+export const patchRequest = async (
+  url = '',
+  data = {},
+  successCallback,
+  errorCallback,
+  config = {}
+) => {
+  try {
+    const res = await instance.patch(url, data, config);
+    if (successCallback) successCallback(res.data);
+    return res.data;
+  } catch (error) {
+    handleError(error, errorCallback);
+    throw error;
+  }
+};
+
 export const deleteRequest = async (
   url = '',
   params = {},
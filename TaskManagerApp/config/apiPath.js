@@ -9,8 +9,14 @@ export const apiPath={
     //taskAPI
     getTask:API_PATH+"/task",
     getTaskByDate:API_PATH+"/task/by-date",
+    getTaskByRange:API_PATH+"/task/range",
+    searchTask:API_PATH+"/task/search",
+    getTaskDensity:API_PATH+"/task/density",
     createTask:API_PATH+"/task/create",
     
+    //dashboard API (category + thống kê + task trong ngày)
+    getDashboard:API_PATH+"/dashboard",
+    
     //statistics API
     getTaskStatsByCategory:API_PATH+"/task/statistics",
     getTaskStatsByStatus:API_PATH+"/task/statistics"
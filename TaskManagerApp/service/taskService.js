@@ -1,4 +1,4 @@
-import { getRequest, postRequest, putRequest } from "../config/apiCaller";
+import { deleteRequest, getRequest, patchRequest, postRequest, putRequest } from "../config/apiCaller";
 import { apiPath } from "../config/apiPath";
 
 export const taskService = {
@@ -24,6 +24,51 @@ export const taskService = {
         );
     },
     
+    getTaskByRange: (userId, from, to, successCallback, errorCallback) => {
+        console.log("Fetching tasks for user:", userId, "from:", from, "to:", to);
+        
+        return getRequest(
+            `${apiPath.getTaskByRange}?userId=${userId}&from=${from}&to=${to}`,
+            {},
+            successCallback,
+            errorCallback
+        );
+    },
+    
+    // groupBy: "none" | "status" | "priority"; counts[i][d] = số task của keys[i] vào ngày from + d
+    getTaskDensity: (userId, from, to, groupBy, successCallback, errorCallback) => {
+        console.log("Fetching task density for user:", userId, "from:", from, "to:", to);
+        
+        return getRequest(
+            `${apiPath.getTaskDensity}?userId=${userId}&from=${from}&to=${to}&groupBy=${groupBy || "none"}`,
+            {},
+            successCallback,
+            errorCallback
+        );
+    },
+    
+    searchTask: (userId, query, successCallback, errorCallback) => {
+        console.log("Searching tasks for user:", userId, "query:", query);
+        
+        return getRequest(
+            `${apiPath.searchTask}?userId=${userId}&q=${encodeURIComponent(query)}`,
+            {},
+            successCallback,
+            errorCallback
+        );
+    },
+    
+    getDashboard: (userId, date, successCallback, errorCallback) => {
+        console.log("Fetching dashboard for user:", userId, "on date:", date);
+        
+        return getRequest(
+            `${apiPath.getDashboard}?userId=${userId}&date=${date}`,
+            {},
+            successCallback,
+            errorCallback
+        );
+    },
+    
     addTask: (taskData, successCallback, errorCallback) => {
         console.log("Adding new task:", taskData);
         
@@ -44,5 +89,28 @@ export const taskService = {
             successCallback,
             errorCallback
         );
+    },
+
+    // Sửa một lần lặp của task lặp (status và/hoặc startTime); occurrenceStart lấy từ task trả về khi đọc
+    updateOccurrence: (taskId, occurrenceStart, changes, successCallback, errorCallback) => {
+        console.log("Updating occurrence:", taskId, occurrenceStart, changes);
+
+        return patchRequest(
+            `${apiPath.getTask}/${taskId}/occurrence?start=${occurrenceStart}`,
+            changes,
+            successCallback,
+            errorCallback
+        );
+    },
+
+    cancelOccurrence: (taskId, occurrenceStart, successCallback, errorCallback) => {
+        console.log("Cancelling occurrence:", taskId, occurrenceStart);
+
+        return deleteRequest(
+            `${apiPath.getTask}/${taskId}/occurrence`,
+            { start: occurrenceStart },
+            successCallback,
+            errorCallback
+        );
     }
 }
\ No newline at end of file
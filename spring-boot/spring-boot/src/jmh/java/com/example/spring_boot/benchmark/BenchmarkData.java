@@ -0,0 +1,72 @@
+package com.example.spring_boot.benchmark;
+
+import com.example.spring_boot.dto.CategoryStatusCountDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.UserEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Dữ liệu giả cho benchmark: một user, vài category, task trải đều status/priority
+final class BenchmarkData {
+    static final int CATEGORY_COUNT = 8;
+
+    private BenchmarkData() {
+    }
+
+    static List<CategoryEntity> categories(int count) {
+        UserEntity user = new UserEntity();
+        user.setUserId(1);
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CategoryEntity category = new CategoryEntity();
+            category.setCategoryId(i + 1);
+            category.setName("Category " + i);
+            category.setUser(user);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<TaskEntity> tasks(int count) {
+        List<CategoryEntity> categories = categories(CATEGORY_COUNT);
+        Status[] statuses = Status.values();
+        Priority[] priorities = Priority.values();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        List<TaskEntity> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskEntity task = new TaskEntity();
+            task.setTaskId(i + 1);
+            task.setTitle("Task " + i);
+            task.setDescription("Description " + i);
+            task.setStatus(statuses[i % statuses.length]);
+            task.setPriority(priorities[i % priorities.length]);
+            task.setStartTime(start.plusMinutes(i));
+            task.setCreatedAt(start);
+            task.setVersion(0L);
+            task.setCategory(categories.get(i % categories.size()));
+            task.setUser(categories.get(0).getUser());
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    // Các dòng (category, status, count) như câu đếm trả về; mỗi category có một dòng status null (LEFT JOIN rỗng)
+    static List<CategoryStatusCountDto> statusCountRows(int count) {
+        Status[] statuses = Status.values();
+        int rowsPerCategory = statuses.length + 1;
+        List<CategoryStatusCountDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int categoryId = i / rowsPerCategory + 1;
+            int slot = i % rowsPerCategory;
+            Status status = slot < statuses.length ? statuses[slot] : null;
+            rows.add(new CategoryStatusCountDto(categoryId, "Category " + categoryId, status,
+                    status == null ? null : (long) (i % 500)));
+        }
+        return rows;
+    }
+}
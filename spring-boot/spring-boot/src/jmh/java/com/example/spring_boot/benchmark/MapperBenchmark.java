@@ -0,0 +1,68 @@
+package com.example.spring_boot.benchmark;
+
+import com.example.spring_boot.dto.CategoryDto;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.mapper.CategoryMapper;
+import com.example.spring_boot.mapper.TaskMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Map danh sách TaskEntity/CategoryEntity sang DTO như các API đọc.
+ * perTask: gọi toDto từng task (mỗi task một CategoryDto mới); shared: TaskMapper.toDtos dùng chung CategoryDto
+ * cho các task cùng category. Chạy với -prof gc để xem số byte cấp phát mỗi lần.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final TaskMapper taskMapper = new TaskMapper();
+    private final CategoryMapper categoryMapper = new CategoryMapper();
+    private List<TaskEntity> tasks;
+    private List<CategoryEntity> categories;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkData.tasks(size);
+        categories = BenchmarkData.categories(size);
+    }
+
+    @Benchmark
+    public List<TaskDto> taskToDtoPerTask() {
+        List<TaskDto> result = new ArrayList<>();
+        for (TaskEntity task : tasks) {
+            result.add(taskMapper.toDto(task));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<TaskDto> taskToDtosShared() {
+        return taskMapper.toDtos(tasks);
+    }
+
+    @Benchmark
+    public List<CategoryDto> categoryToDto() {
+        List<CategoryDto> result = new ArrayList<>(categories.size());
+        for (CategoryEntity category : categories) {
+            result.add(categoryMapper.toDto(category));
+        }
+        return result;
+    }
+}
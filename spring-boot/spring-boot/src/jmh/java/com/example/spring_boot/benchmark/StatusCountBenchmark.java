@@ -0,0 +1,108 @@
+package com.example.spring_boot.benchmark;
+
+import com.example.spring_boot.dto.CategoryStatusCountDto;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.mapper.CategoryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gộp các dòng (category, status, count) thành {category: {status: count}} cho /task/count, /task/statistics
+ * và /dashboard. So sánh cách cũ (HashMap lồng nhau với key String) với EnumMap và mảng int theo ordinal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatusCountBenchmark {
+
+    private static final Status[] STATUSES = Status.values();
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final CategoryMapper categoryMapper = new CategoryMapper();
+    private List<CategoryStatusCountDto> rows;
+
+    @Setup
+    public void setUp() {
+        rows = BenchmarkData.statusCountRows(size);
+    }
+
+    // Cách làm trước đây: HashMap<String, Integer> khởi tạo từ status.name(), cộng dồn bằng merge (boxing)
+    @Benchmark
+    public Map<String, Map<String, Integer>> nestedStringHashMap() {
+        Map<String, Map<String, Integer>> result = new HashMap<>();
+        for (CategoryStatusCountDto row : rows) {
+            Map<String, Integer> statusMap = result.computeIfAbsent(row.getName(), name -> {
+                Map<String, Integer> counts = new HashMap<>();
+                for (Status status : STATUSES) {
+                    counts.put(status.name(), 0);
+                }
+                return counts;
+            });
+            if (row.getStatus() != null) {
+                statusMap.merge(row.getStatus().name(), row.getTaskCount().intValue(), Integer::sum);
+            }
+        }
+        return result;
+    }
+
+    // EnumMap<Status, Integer> cộng dồn trực tiếp
+    @Benchmark
+    public Map<String, Map<Status, Integer>> enumMapCounters() {
+        Map<String, Map<Status, Integer>> result = new HashMap<>();
+        for (CategoryStatusCountDto row : rows) {
+            Map<Status, Integer> statusMap = result.computeIfAbsent(row.getName(), name -> {
+                Map<Status, Integer> counts = new EnumMap<>(Status.class);
+                for (Status status : STATUSES) {
+                    counts.put(status, 0);
+                }
+                return counts;
+            });
+            if (row.getStatus() != null) {
+                statusMap.merge(row.getStatus(), row.getTaskCount().intValue(), Integer::sum);
+            }
+        }
+        return result;
+    }
+
+    // Cộng dồn vào int[] theo ordinal (không boxing), chỉ tạo EnumMap một lần cho mỗi category ở cuối
+    @Benchmark
+    public Map<String, Map<Status, Integer>> intArrayCounters() {
+        Map<String, int[]> counters = new LinkedHashMap<>();
+        for (CategoryStatusCountDto row : rows) {
+            int[] counts = counters.computeIfAbsent(row.getName(), name -> new int[STATUSES.length]);
+            if (row.getStatus() != null) {
+                counts[row.getStatus().ordinal()] += row.getTaskCount().intValue();
+            }
+        }
+        Map<String, Map<Status, Integer>> result = new LinkedHashMap<>();
+        counters.forEach((name, counts) -> {
+            Map<Status, Integer> statusMap = new EnumMap<>(Status.class);
+            for (Status status : STATUSES) {
+                statusMap.put(status, counts[status.ordinal()]);
+            }
+            result.put(name, statusMap);
+        });
+        return result;
+    }
+
+    // Bản đang dùng trong CategoryMapper
+    @Benchmark
+    public Map<String, Map<Status, Integer>> current() {
+        return categoryMapper.toStatusCountMap(rows);
+    }
+}
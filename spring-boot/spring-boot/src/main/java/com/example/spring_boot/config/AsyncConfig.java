@@ -0,0 +1,39 @@
+package com.example.spring_boot.config;
+
+import com.example.spring_boot.metrics.RequestStatistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Pool riêng cho các phần độc lập của /dashboard; khi đầy thì chạy luôn trên thread gọi
+    @Bean(name = "dashboardExecutor")
+    public ThreadPoolTaskExecutor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("dashboard-");
+        // Câu SQL chạy trên pool này vẫn được tính vào request gọi nó và vẫn đọc primary nếu user vừa ghi
+        executor.setTaskDecorator(task -> ReadYourWrites.wrap(RequestStatistics.wrap(task)));
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Thread ghi event SSE; chỉ dùng khi có event cần gửi, không giữ thread cho kết nối rảnh
+    @Bean(name = "eventSenderExecutor")
+    public ThreadPoolTaskExecutor eventSenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("sse-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.spring_boot.config;
+
+import com.example.spring_boot.shard.ShardRouter;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Trên MySQL, Hibernate giả lập sequence bằng bảng (vd. task_seq.next_val).
+ * Với database cũ dùng AUTO_INCREMENT, bảng này bắt đầu từ 1 và sẽ trùng id đã có,
+ * nên khi khởi động ta đẩy next_val lên trên MAX(id) hiện tại.
+ * Chạy sau khi mọi singleton đã tạo xong, trước khi web server nhận request và trước các job
+ * (ApplicationRunner thì chạy sau khi web server đã mở cổng). Không chạy trước EntityManagerFactory được
+ * vì bảng sequence do ddl-auto tạo trong lúc dựng nó; Hibernate chỉ đọc sequence ở lần insert đầu tiên.
+ * Khi sharding thì ShardInitializer làm việc này theo khoảng id của từng shard.
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+    // {bảng sequence, bảng dữ liệu, cột id}
+    private static final String[][] SEQUENCES = {
+            {"task_seq", "task", "task_id"},
+            {"category_seq", "category", "category_id"}
+    };
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired(required = false)
+    ShardRouter shardRouter;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (shardRouter != null) {
+            return;
+        }
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+        for (String[] sequence : SEQUENCES) {
+            jdbcTemplate.update("UPDATE " + sequence[0] + " SET next_val = GREATEST(next_val, " +
+                    "(SELECT COALESCE(MAX(" + sequence[2] + "), 0) + " + (ALLOCATION_SIZE + 1) +
+                    " FROM " + sequence[1] + "))");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.spring_boot.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đọc lại được dữ liệu vừa ghi khi có replica: sau khi một transaction ghi của user được commit,
+ * mọi lần đọc của user đó đi vào primary trong một khoảng window (nên lớn hơn độ trễ replication).
+ * Theo userId chứ không theo session nên mọi thiết bị của user cùng thấy thay đổi, khớp với ETag theo user.
+ * User của request hiện tại gắn vào thread qua ThreadLocal (ReadYourWritesFilter); task chạy trên pool
+ * khác (vd. /dashboard) mang theo nhờ wrap(). Cùng với user, request giữ nguồn đọc (primary hay replica) đã chọn
+ * ở lần đọc đầu tiên, để revision cho ETag và dữ liệu trả về luôn đọc từ cùng một database.
+ */
+public class ReadYourWrites {
+    private static final ThreadLocal<Integer> CURRENT_USER = new ThreadLocal<>();
+    private static final ThreadLocal<Route> REQUEST_ROUTE = new ThreadLocal<>();
+    // Quá số này thì dọn các user đã hết hạn; user ghi rồi không đọc lại sẽ không bị xóa ở isPinned
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<Integer, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    // Bắt đầu một request: user của request và nguồn đọc chưa chọn
+    public static void setCurrentUser(Integer userId) {
+        CURRENT_USER.set(userId);
+        REQUEST_ROUTE.set(new Route());
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+        REQUEST_ROUTE.remove();
+    }
+
+    // Nguồn đọc đã chọn trong request hiện tại: true = primary, false = replica, null = chưa chọn hoặc ngoài request
+    static Boolean requestRoute() {
+        Route route = REQUEST_ROUTE.get();
+        return route == null ? null : route.primary;
+    }
+
+    // Ngoài request (job, scheduler) thì không ghi nhớ gì: mỗi lần đọc tự chọn
+    static void chooseRoute(boolean primary) {
+        Route route = REQUEST_ROUTE.get();
+        if (route != null) {
+            route.primary = primary;
+        }
+    }
+
+    // Chuyển user và nguồn đọc của request hiện tại sang thread chạy task
+    public static Runnable wrap(Runnable task) {
+        Integer userId = CURRENT_USER.get();
+        Route route = REQUEST_ROUTE.get();
+        if (userId == null && route == null) {
+            return task;
+        }
+        return () -> {
+            Integer previousUser = CURRENT_USER.get();
+            Route previousRoute = REQUEST_ROUTE.get();
+            CURRENT_USER.set(userId);
+            REQUEST_ROUTE.set(route);
+            try {
+                task.run();
+            } finally {
+                restore(CURRENT_USER, previousUser);
+                restore(REQUEST_ROUTE, previousRoute);
+            }
+        };
+    }
+
+    private static <T> void restore(ThreadLocal<T> local, T previous) {
+        if (previous == null) {
+            local.remove();
+        } else {
+            local.set(previous);
+        }
+    }
+
+    // Gọi trong transaction ghi; window tính từ lúc commit vì trước đó replica chưa thể có thay đổi
+    public void written(int userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pin(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pin(userId);
+            }
+        });
+    }
+
+    public boolean isPinned(int userId) {
+        Long until = pinnedUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        pinnedUntil.remove(userId, until);
+        return false;
+    }
+
+    public boolean isCurrentUserPinned() {
+        Integer userId = CURRENT_USER.get();
+        return userId != null && isPinned(userId);
+    }
+
+    private void pin(int userId) {
+        long now = System.nanoTime();
+        pinnedUntil.put(userId, now + windowNanos);
+        if (pinnedUntil.size() > PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(until -> now - until >= 0);
+        }
+    }
+
+    // Các task song song của một request dùng chung, nên volatile
+    private static final class Route {
+        volatile Boolean primary;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.spring_boot.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gắn user của request (tham số userId của các endpoint đọc) vào thread để ReplicaDataSource biết
+ * có phải đọc từ primary hay không. Request không có userId luôn đọc replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.setCurrentUser(parseUserId(request.getParameter("userId")));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clearCurrentUser();
+        }
+    }
+
+    private static Integer parseUserId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.spring_boot.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource cho connection chỉ đọc: lấy từ replica, trừ khi user hiện tại vừa ghi (ReadYourWrites)
+ * hoặc replica đang lỗi. Khi không lấy được connection từ replica thì dùng primary và bỏ qua replica
+ * trong retryAfter, để các request sau không phải đợi hết connection timeout của pool replica.
+ * Trong một request, lần đọc đầu tiên chọn nguồn và các lần sau dùng lại (ReadYourWrites): window hết hạn
+ * giữa chừng cũng không làm ETag đọc từ primary còn dữ liệu đọc từ replica đang trễ.
+ */
+public class ReplicaDataSource extends DelegatingDataSource {
+    private final DataSource primary;
+    private final ReadYourWrites readYourWrites;
+    private final long retryAfterNanos;
+    private final AtomicLong fallbacks = new AtomicLong();
+    private volatile boolean down;
+    private volatile long downUntil;
+
+    public ReplicaDataSource(DataSource replica, DataSource primary, ReadYourWrites readYourWrites, Duration retryAfter) {
+        super(replica);
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.retryAfterNanos = retryAfter.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Boolean chosen = ReadYourWrites.requestRoute();
+        boolean usePrimary = chosen != null ? chosen : readYourWrites.isCurrentUserPinned() || isDown();
+        if (!usePrimary) {
+            try {
+                Connection connection = super.getConnection();
+                ReadYourWrites.chooseRoute(false);
+                return connection;
+            } catch (SQLException ex) {
+                downUntil = System.nanoTime() + retryAfterNanos;
+                down = true;
+                fallbacks.incrementAndGet();
+            }
+        }
+        ReadYourWrites.chooseRoute(true);
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    // Số lần phải chuyển sang primary vì replica lỗi
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    private boolean isDown() {
+        if (down && System.nanoTime() - downUntil >= 0) {
+            down = false;
+        }
+        return down;
+    }
+}
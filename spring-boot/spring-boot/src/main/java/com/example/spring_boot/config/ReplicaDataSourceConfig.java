@@ -0,0 +1,81 @@
+package com.example.spring_boot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Chế độ tùy chọn: đặt datasource.replica.url để các transaction @Transactional(readOnly = true) đọc từ replica,
+ * kể cả revision cho ETag; còn lại (ghi, câu ngoài transaction, Hibernate tạo schema) đi vào primary.
+ * LazyConnectionDataSourceProxy chỉ lấy connection thật ở câu SQL đầu tiên, lúc đó transaction đã đánh dấu
+ * connection là read-only, nên chọn được pool cần dùng.
+ * <pre>
+ * datasource.replica.url=jdbc:mysql://replica:3306/task_manager
+ * datasource.replica.username / password      (mặc định như spring.datasource)
+ * datasource.replica.hikari.*                 (cấu hình pool của replica)
+ * datasource.replica.read-your-writes=PT5S    (user vừa ghi đọc từ primary trong khoảng này)
+ * datasource.replica.retry-after=PT30S        (replica lỗi thì dùng primary trong khoảng này)
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        // Replica chết thì không để mỗi lần đọc đợi 30 giây mặc định trước khi chuyển sang primary
+        replica.setConnectionTimeout(1000);
+        replica.setPoolName("replica");
+        return replica;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${datasource.replica.read-your-writes:PT5S}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaRoutingDataSource(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Qualifier("primaryDataSource") DataSource primary,
+            ReadYourWrites readYourWrites,
+            @Value("${datasource.replica.retry-after:PT30S}") Duration retryAfter) {
+        return new ReplicaDataSource(replica, primary, readYourWrites, retryAfter);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaDataSource replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replica);
+        return dataSource;
+    }
+}
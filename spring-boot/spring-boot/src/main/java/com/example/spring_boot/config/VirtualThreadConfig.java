@@ -0,0 +1,40 @@
+package com.example.spring_boot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chế độ tùy chọn: spring.threads.virtual.enabled=true (cần Java 21+) cho Tomcat chạy mỗi request trên một
+ * virtual thread. Khi đó DataSource được bọc bởi ConnectionLimitingDataSource theo đúng kích thước pool Hikari.
+ * <p>
+ * Kiểm tra pinning (virtual thread bị ghim vào carrier khi block trong synchronized trên Java 21):
+ * <ul>
+ *   <li>khóa của chính app trên đường request (EventSubscriber, ReminderScheduler, TaskSearchIndex) dùng ReentrantLock;</li>
+ *   <li>ReminderQueue còn synchronized nhưng chỉ giữ monitor cho thao tác trong bộ nhớ, không có I/O bên trong;</li>
+ *   <li>mysql-connector-j 9.x và HikariCP 6.x đã bỏ synchronized quanh I/O socket;</li>
+ *   <li>BCrypt (PasswordVerifier) vẫn chạy trên pool platform thread riêng vì là việc tốn CPU.</li>
+ * </ul>
+ * Chạy lại bằng -Djdk.tracePinnedThreads=full với VirtualThreadBenchmarkTests (Java 21+) khi đổi driver hay thêm khóa.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(),
+                            hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
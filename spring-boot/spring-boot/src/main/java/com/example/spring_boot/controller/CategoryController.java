@@ -3,16 +3,18 @@ package com.example.spring_boot.controller;
 import com.example.spring_boot.dto.CategoryDto;
 import com.example.spring_boot.dto.UserDto;
 import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.projection.CategoryField;
+import com.example.spring_boot.projection.Fields;
+import com.example.spring_boot.security.OwnershipGuard;
 import com.example.spring_boot.service.CategoryService;
-import com.example.spring_boot.service.TaskService;
+import com.example.spring_boot.service.UserRevisionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/schedule-manager/category")
@@ -20,9 +22,12 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
     @Autowired
-    private TaskService taskService;
+    private UserRevisionService userRevisionService;
+    @Autowired
+    private OwnershipGuard ownershipGuard;
     @PostMapping("/create")
     public ResponseEntity<?> create(@RequestBody CategoryDto categoryDto) {
+        ownershipGuard.checkUser(categoryDto.getUserId());
         try {
             CategoryDto savedCategory= categoryService.createCategory(categoryDto);
             return ResponseEntity.ok(savedCategory);
@@ -31,18 +36,22 @@ public class CategoryController {
         }
     }
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getCategories(@RequestParam int userId) {
-        List<CategoryDto> categories = categoryService.getCategory(userId);
-        Map<String, Map<String, Integer>> countTask = taskService.getTaskCountByCategoryAndStatus(userId);
-
-        for (CategoryDto category : categories) {
-            String categoryName = category.getName();
-            Map<String, Integer> statusMap = countTask.getOrDefault(categoryName, new HashMap<>());
-
-            category.setPendingCount(statusMap.getOrDefault("pending", 0));
-            category.setDoneCount(statusMap.getOrDefault("done", 0));
-            category.setInprogressCount(statusMap.getOrDefault("in_progress", 0));
+    public ResponseEntity<?> getCategories(
+            @RequestParam int userId,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        // Không đổi gì kể từ lần trước thì trả 304, không đọc category nào
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        if (fields != null) {
+            try {
+                return ResponseEntity.ok(categoryService.getCategoryFields(userId, Fields.parse(fields, CategoryField.class)));
+            } catch (RuntimeException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            }
         }
+        List<CategoryDto> categories = categoryService.getCategory(userId);
         return ResponseEntity.ok(categories);
     }
 
@@ -0,0 +1,31 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.dto.DashboardDto;
+import com.example.spring_boot.service.DashboardService;
+import com.example.spring_boot.service.UserRevisionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/schedule-manager/dashboard")
+public class DashboardController {
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private UserRevisionService userRevisionService;
+
+    @GetMapping
+    public ResponseEntity<?> getDashboard(@RequestParam int userId, @RequestParam String date, WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        try {
+            DashboardDto dashboard = dashboardService.getDashboard(userId, date);
+            return ResponseEntity.ok(dashboard);
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+}
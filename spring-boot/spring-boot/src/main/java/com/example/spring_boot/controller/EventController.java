@@ -0,0 +1,19 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.event.ChangeEventBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/schedule-manager/events")
+public class EventController {
+    @Autowired
+    private ChangeEventBroadcaster changeEventBroadcaster;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam int userId) {
+        return changeEventBroadcaster.subscribe(userId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.dto.SyncDto;
+import com.example.spring_boot.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/schedule-manager/sync")
+public class SyncController {
+    @Autowired
+    private SyncService syncService;
+
+    // Tối đa SyncService.PAGE_SIZE dòng mỗi lần; hasMore thì gọi lại với cùng since và cursor trong kết quả
+    @GetMapping
+    public ResponseEntity<?> sync(@RequestParam int userId, @RequestParam(required = false) Long since,
+                                  @RequestParam(required = false) String cursor) {
+        try {
+            SyncDto changes = syncService.getChangesSince(userId, since, cursor);
+            return ResponseEntity.ok(changes);
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+}
@@ -2,23 +2,62 @@ package com.example.spring_boot.controller;
 
 import com.example.spring_boot.dto.CategoryDto;
 import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskOccurrenceDto;
+import com.example.spring_boot.dto.TaskPageDto;
+import com.example.spring_boot.dto.TaskPatchDto;
+import com.example.spring_boot.dto.TaskRowsDto;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.mapper.TaskRowMapper;
+import com.example.spring_boot.projection.Fields;
+import com.example.spring_boot.projection.TaskField;
+import com.example.spring_boot.security.OwnershipGuard;
 import com.example.spring_boot.service.CategoryService;
+import com.example.spring_boot.service.RecurrenceService;
 import com.example.spring_boot.service.TaskService;
+import com.example.spring_boot.service.TaskTransferService;
+import com.example.spring_boot.service.UserRevisionService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/schedule-manager/task")
 public class TaskController {
     @Autowired
     private TaskService taskService;
+    @Autowired
+    private UserRevisionService userRevisionService;
+    @Autowired
+    private TaskTransferService taskTransferService;
+    @Autowired
+    private RecurrenceService recurrenceService;
+    @Autowired
+    private TaskRowMapper taskRowMapper;
+    @Autowired
+    private OwnershipGuard ownershipGuard;
     @PostMapping("/create")
     public ResponseEntity<?> create(@RequestBody TaskDto taskDto) {
+        ownershipGuard.checkUser(taskDto.getUserId());
+        ownershipGuard.checkCategory(taskDto.getCategoryId());
         try {
             TaskDto savedTask= taskService.createTask(taskDto);
             return ResponseEntity.ok(savedTask);
@@ -26,37 +65,315 @@ public class TaskController {
             return ResponseEntity.badRequest().body(ex.getMessage());
         }
     }
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestParam int userId, @RequestBody List<TaskDto> taskDtos) {
+        try {
+            List<TaskDto> savedTasks = taskService.createTasks(userId, taskDtos);
+            return ResponseEntity.ok(savedTasks);
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam int userId,
+            @RequestParam(defaultValue = TaskTransferService.NDJSON) String format) {
+        if (!TaskTransferService.NDJSON.equals(format) && !TaskTransferService.CSV.equals(format)) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write("format must be ndjson or csv".getBytes(StandardCharsets.UTF_8)));
+        }
+        Runnable release;
+        try {
+            release = taskTransferService.reserveExport();
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(ex.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+        // Ghi ra response trên thread async trong lúc đọc từ database, không gom cả danh sách vào heap
+        StreamingResponseBody body = out -> {
+            try {
+                taskTransferService.exportTasks(userId, format, out);
+            } finally {
+                release.run();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(TaskTransferService.CSV.equals(format)
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks-" + userId + "." + format + "\"")
+                .body(body);
+    }
+    @PostMapping("/import")
+    public ResponseEntity<?> importTasks(
+            @RequestParam int userId,
+            @RequestParam(defaultValue = TaskTransferService.NDJSON) String format,
+            HttpServletRequest request) {
+        if (!TaskTransferService.NDJSON.equals(format) && !TaskTransferService.CSV.equals(format)) {
+            return ResponseEntity.badRequest().body("format must be ndjson or csv");
+        }
+        try {
+            int imported = taskTransferService.importTasks(userId, format, request.getInputStream());
+            return ResponseEntity.ok(Map.of("imported", imported));
+        } catch (IOException | RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getTask(@RequestParam int userId) {
-        List<TaskDto> taskDtos = taskService.getTasksByUserId(userId);
-        return ResponseEntity.ok(taskDtos);
+    public ResponseEntity<?> getTask(
+            @RequestParam int userId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        try {
+            if (fields != null || format != null) {
+                boolean compact = isCompact(format);
+                List<TaskField> selected = selectFields(fields, compact);
+                boolean unpaged = limit == null && cursor == null;
+                int pageSize = unpaged ? TaskService.MAX_UNPAGED_TASKS
+                        : Math.min(limit == null ? TaskService.DEFAULT_PAGE_SIZE : limit, TaskService.MAX_PAGE_SIZE);
+                TaskRowsDto rows = taskService.getTaskRowPage(userId, pageSize, cursor, selected);
+                if (compact) {
+                    return ResponseEntity.ok(taskRowMapper.toCompact(rows));
+                }
+                if (unpaged) {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (rows.getNextCursor() != null) {
+                        response.header("X-Next-Cursor", rows.getNextCursor());
+                    }
+                    return response.body(taskRowMapper.toMaps(rows));
+                }
+                Map<String, Object> page = new LinkedHashMap<>();
+                page.put("items", taskRowMapper.toMaps(rows));
+                page.put("nextCursor", rows.getNextCursor());
+                return ResponseEntity.ok(page);
+            }
+            if (limit == null && cursor == null) {
+                // Lời gọi cũ: trả về List như trước nhưng bị giới hạn, còn dữ liệu thì báo qua header
+                TaskPageDto page = taskService.getTaskPage(userId, TaskService.MAX_UNPAGED_TASKS, null);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (page.getNextCursor() != null) {
+                    response.header("X-Next-Cursor", page.getNextCursor());
+                }
+                return response.body(page.getItems());
+            }
+            int pageSize = Math.min(limit == null ? TaskService.DEFAULT_PAGE_SIZE : limit, TaskService.MAX_PAGE_SIZE);
+            return ResponseEntity.ok(taskService.getTaskPage(userId, pageSize, cursor));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
     
     @GetMapping("/by-date")
-    public ResponseEntity<List<TaskDto>> getTasksByDate(
+    public ResponseEntity<?> getTasksByDate(
+            @RequestParam int userId,
+            @RequestParam String date,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        if (fields != null || format != null) {
+            try {
+                boolean compact = isCompact(format);
+                return rowsResponse(taskService.getTaskRowsByDate(userId, date, selectFields(fields, compact)), compact);
+            } catch (RuntimeException ex) {
+                return ResponseEntity.badRequest().body(ex.getMessage());
+            }
+        }
+        try {
+            List<TaskDto> taskDtos = taskService.getTasksByUserIdAndDate(userId, date);
+            return ResponseEntity.ok(taskDtos);
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    @GetMapping("/range")
+    public ResponseEntity<?> getTasksByRange(
+            @RequestParam int userId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String format,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        try {
+            if (fields != null || format != null) {
+                boolean compact = isCompact(format);
+                return rowsResponse(taskService.getTaskRowsByRange(userId, from, to, selectFields(fields, compact)), compact);
+            }
+            List<TaskDto> taskDtos = taskService.getTasksByUserIdAndRange(userId, from, to);
+            return ResponseEntity.ok(taskDtos);
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    @GetMapping("/density")
+    public ResponseEntity<?> getTaskDensity(
+            @RequestParam int userId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(taskService.getTaskDensity(userId, from, to, groupBy));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTasks(
             @RequestParam int userId,
-            @RequestParam String date) {
-        List<TaskDto> taskDtos = taskService.getTasksByUserIdAndDate(userId, date);
-        return ResponseEntity.ok(taskDtos);
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        try {
+            int size = Math.min(limit == null ? TaskService.DEFAULT_SEARCH_LIMIT : limit, TaskService.MAX_SEARCH_LIMIT);
+            return ResponseEntity.ok(taskService.searchTasks(userId, q, size));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Map<String, Integer>>> getCountTask(@RequestParam int userId) {
-        Map<String,Map<String,Integer>> getTaskCount=taskService.getTaskCountByCategoryAndStatus(userId);
+    public ResponseEntity<Map<String, Map<Status, Integer>>> getCountTask(@RequestParam int userId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        Map<String,Map<Status,Integer>> getTaskCount=taskService.getTaskCountByCategoryAndStatus(userId);
         return ResponseEntity.ok(getTaskCount);
     }
     
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Map<String, Integer>>> getTaskStatistics(@RequestParam int userId) {
-        Map<String,Map<String,Integer>> statistics = taskService.getTaskStatisticsForCharts(userId);
-        return ResponseEntity.ok(statistics);
+    public ResponseEntity<?> getTaskStatistics(
+            @RequestParam int userId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(userRevisionService.etag(userId))) {
+            return null;
+        }
+        if (from == null && to == null) {
+            Map<String,Map<Status,Integer>> statistics = taskService.getTaskStatisticsForCharts(userId);
+            return ResponseEntity.ok(statistics);
+        }
+        // Có khoảng thời gian thì các task lặp được tính theo số lần lặp trong khoảng
+        try {
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("'from' and 'to' must be given together");
+            }
+            return ResponseEntity.ok(taskService.getTaskStatisticsForCharts(userId, from, to));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
     @PutMapping("/{taskId}")
-    public ResponseEntity<TaskDto> updateTask(
+    public ResponseEntity<?> updateTask(
             @PathVariable int taskId,
             @RequestBody TaskDto dto
     ) {
-        TaskDto updatedTask = taskService.updateTask(taskId, dto);
-        return ResponseEntity.ok(updatedTask);
+        ownershipGuard.checkTask(taskId);
+        ownershipGuard.checkUser(dto.getUserId());
+        ownershipGuard.checkCategory(dto.getCategoryId());
+        try {
+            TaskDto updatedTask = taskService.updateTask(taskId, dto);
+            return ResponseEntity.ok(updatedTask);
+        } catch (OptimisticLockingFailureException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+    @PatchMapping("/{taskId}")
+    public ResponseEntity<?> patchTask(
+            @PathVariable int taskId,
+            @RequestBody TaskPatchDto patch
+    ) {
+        ownershipGuard.checkTask(taskId);
+        try {
+            long version = taskService.patchTask(taskId, patch);
+            return ResponseEntity.ok(Map.of("taskId", taskId, "version", version));
+        } catch (OptimisticLockingFailureException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        } catch (EntityNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    // start = thời điểm gốc (occurrenceStart) của lần lặp cần sửa
+    @PatchMapping("/{taskId}/occurrence")
+    public ResponseEntity<?> updateOccurrence(
+            @PathVariable int taskId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestBody TaskOccurrenceDto dto
+    ) {
+        ownershipGuard.checkTask(taskId);
+        try {
+            return ResponseEntity.ok(recurrenceService.updateOccurrence(taskId, start, dto));
+        } catch (EntityNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    @DeleteMapping("/{taskId}/occurrence")
+    public ResponseEntity<?> cancelOccurrence(@PathVariable int taskId, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start) {
+        ownershipGuard.checkTask(taskId);
+        try {
+            recurrenceService.cancelOccurrence(taskId, start);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+    @DeleteMapping("/{taskId}")
+    public ResponseEntity<?> deleteTask(@PathVariable int taskId) {
+        ownershipGuard.checkTask(taskId);
+        try {
+            taskService.deleteTask(taskId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+
+    // format=json (mặc định): mảng object chỉ có các trường được chọn; format=compact: xem CompactTaskListDto
+    private static boolean isCompact(String format) {
+        if (format == null || "json".equals(format)) {
+            return false;
+        }
+        if ("compact".equals(format)) {
+            return true;
+        }
+        throw new IllegalArgumentException("format must be json or compact");
+    }
+
+    private static List<TaskField> selectFields(String fields, boolean compact) {
+        if (fields == null) {
+            return compact ? TaskField.COMPACT_DEFAULT : List.of(TaskField.values());
+        }
+        return Fields.parse(fields, TaskField.class);
     }
 
+    private ResponseEntity<?> rowsResponse(TaskRowsDto rows, boolean compact) {
+        return ResponseEntity.ok(compact ? taskRowMapper.toCompact(rows) : taskRowMapper.toMaps(rows));
+    }
 }
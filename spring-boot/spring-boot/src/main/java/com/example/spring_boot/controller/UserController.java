@@ -4,6 +4,7 @@ import com.example.spring_boot.dto.UserDto;
 import com.example.spring_boot.entity.UserEntity;
 import com.example.spring_boot.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -13,6 +14,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/schedule-manager/auth")
@@ -31,17 +35,26 @@ public class UserController {
     }
 
 
+    // Trả về CompletableFuture để thread Tomcat được giải phóng trong lúc BCrypt chạy trên pool riêng
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> request) {
+        String userName = request.get("userName");
+        String password = request.get("password");
         try {
-            String userName = request.get("userName");
-            String password = request.get("password");
-
-            UserDto  userDto = userService.login(userName, password);
-            return ResponseEntity.ok(userDto);
+            return userService.login(userName, password)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(ex -> unauthorized(ex instanceof CompletionException ? ex.getCause() : ex));
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many login attempts, please retry"));
         } catch (RuntimeException ex) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex.getMessage());
+            return CompletableFuture.completedFuture(unauthorized(ex));
         }
     }
 
+    private ResponseEntity<?> unauthorized(Throwable ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex.getMessage());
+    }
+
 }
@@ -0,0 +1,14 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Category gọn cho fields=category và định dạng compact: chỉ id và tên
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryNameDto {
+    private Integer categoryId;
+    private String name;
+}
@@ -0,0 +1,17 @@
+package com.example.spring_boot.dto;
+
+import com.example.spring_boot.entity.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Một dòng kết quả GROUP BY (category, status); status = null khi category chưa có task
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryStatusCountDto {
+    private Integer categoryId;
+    private String name;
+    private Status status;
+    private Long taskCount;
+}
@@ -0,0 +1,19 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// format=compact: tên trường gửi một lần, mỗi task là một mảng giá trị theo thứ tự fields.
+// Trường category được thay bằng categoryId, các category được dùng gửi một lần trong categories
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompactTaskListDto {
+    private List<String> fields;
+    private List<CategoryNameDto> categories;
+    private List<Object[]> tasks;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.example.spring_boot.dto;
+
+import com.example.spring_boot.entity.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardDto {
+    private List<CategoryDto> categories;
+    private Map<String, Map<Status, Integer>> statistics;
+    private List<TaskDto> tasks;
+}
@@ -0,0 +1,21 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecurrenceDto {
+    // daily | weekly | monthly
+    private String frequency;
+    private Integer interval;
+    // Cho weekly: thứ trong tuần theo ISO, 1 = thứ Hai ... 7 = Chủ nhật
+    private List<Integer> weekdays;
+    private LocalDate until;
+    private Integer count;
+}
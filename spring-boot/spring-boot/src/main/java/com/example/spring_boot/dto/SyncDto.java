@@ -0,0 +1,24 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Thay đổi kể từ revision client đang có; client lưu lại revision để gửi ở lần sync sau.
+// hasMore: còn trang sau, gọi lại với cùng since và cursor này; chỉ lưu revision khi hasMore = false.
+// fullResyncRequired: tombstone sau since đã bị xóa vì quá hạn giữ, client bỏ dữ liệu cục bộ và sync lại từ đầu
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncDto {
+    private long revision;
+    private List<TaskDto> tasks;
+    private List<CategoryDto> categories;
+    private List<Integer> deletedTaskIds;
+    private List<Integer> deletedCategoryIds;
+    private boolean hasMore;
+    private String cursor;
+    private boolean fullResyncRequired;
+}
@@ -0,0 +1,32 @@
+package com.example.spring_boot.dto;
+
+import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.Status;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Một dòng kết quả GROUP BY (ngày của start_time[, status | priority]); group = null khi không tách nhóm
+@Data
+@NoArgsConstructor
+public class TaskDayCountDto {
+    private LocalDate day;
+    private String group;
+    private Long taskCount;
+
+    public TaskDayCountDto(LocalDate day, Long taskCount) {
+        this.day = day;
+        this.taskCount = taskCount;
+    }
+
+    public TaskDayCountDto(LocalDate day, Status status, Long taskCount) {
+        this(day, taskCount);
+        this.group = status.name();
+    }
+
+    public TaskDayCountDto(LocalDate day, Priority priority, Long taskCount) {
+        this(day, taskCount);
+        this.group = priority.name();
+    }
+}
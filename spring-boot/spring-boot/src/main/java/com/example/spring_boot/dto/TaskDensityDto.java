@@ -0,0 +1,23 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mật độ task theo ngày trong [from, to). counts[i][d] là số task của keys[i] vào ngày from + d,
+ * nên cả năm chỉ là vài mảng số thay vì map lồng nhau theo từng ngày.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskDensityDto {
+    private LocalDate from;
+    private LocalDate to;
+    private String groupBy;
+    private List<String> keys;
+    private int[][] counts;
+}
@@ -22,4 +22,10 @@ public class TaskDto {
     private LocalDateTime createdTime;
 
     private int userId;
+    private Long version;
+
+    // null với task không lặp
+    private RecurrenceDto recurrence;
+    // Với một lần lặp được sinh ra: thời điểm gốc theo quy tắc, dùng làm khóa khi sửa lần lặp đó
+    private LocalDateTime occurrenceStart;
 }
@@ -0,0 +1,37 @@
+package com.example.spring_boot.dto;
+
+import com.example.spring_boot.entity.Frequency;
+import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.recurrence.RecurrenceExpander;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Một dòng export/import (NDJSON hoặc CSV). Category đi theo tên vì id khác nhau giữa các tài khoản
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskExportDto {
+    private Integer taskId;
+    private String category;
+    private String title;
+    private String description;
+    private Priority priority;
+    private Status status;
+    private LocalDateTime startTime;
+    private LocalDateTime createdAt;
+    // null với task không lặp; các ngoại lệ của từng lần lặp không nằm trong bản export
+    private RecurrenceDto recurrence;
+
+    // Dùng trong query export: các cột của quy tắc lặp được đọc phẳng
+    public TaskExportDto(Integer taskId, String category, String title, String description, Priority priority,
+                         Status status, LocalDateTime startTime, LocalDateTime createdAt, Frequency frequency,
+                         Integer interval, Integer weekdays, LocalDate until, Integer count) {
+        this(taskId, category, title, description, priority, status, startTime, createdAt, frequency == null ? null
+                : new RecurrenceDto(frequency.name(), interval, RecurrenceExpander.toWeekdayList(weekdays), until, count));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Sửa một lần lặp: đổi status và/hoặc dời giờ; trường null giữ nguyên
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskOccurrenceDto {
+    private String status;
+    private LocalDateTime startTime;
+}
@@ -0,0 +1,16 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskPageDto {
+    private List<TaskDto> items;
+    // null khi đã tới trang cuối
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Các trường được phép PATCH; null = giữ nguyên. version = version client đang có (tùy chọn)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskPatchDto {
+    private String status;
+    private String priority;
+    private LocalDateTime startTime;
+    private Long version;
+}
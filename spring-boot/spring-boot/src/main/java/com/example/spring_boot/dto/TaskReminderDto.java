@@ -0,0 +1,17 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Những cột ReminderScheduler cần để nạp một cửa sổ task sắp bắt đầu
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskReminderDto {
+    private Integer taskId;
+    private Integer userId;
+    private LocalDateTime startTime;
+}
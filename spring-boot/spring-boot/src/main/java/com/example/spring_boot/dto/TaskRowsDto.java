@@ -0,0 +1,19 @@
+package com.example.spring_boot.dto;
+
+import com.example.spring_boot.projection.TaskField;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Kết quả của các truy vấn theo fields=: mỗi dòng là giá trị của các trường theo đúng thứ tự fields
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskRowsDto {
+    private List<TaskField> fields;
+    private List<Object[]> rows;
+    // null khi đã tới trang cuối hoặc truy vấn không phân trang
+    private String nextCursor;
+}
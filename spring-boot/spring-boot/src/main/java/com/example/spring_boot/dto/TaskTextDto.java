@@ -0,0 +1,16 @@
+package com.example.spring_boot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Phần text của task dùng để dựng chỉ mục tìm kiếm, không cần load entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskTextDto {
+    private Integer taskId;
+    private Integer userId;
+    private String title;
+    private String description;
+}
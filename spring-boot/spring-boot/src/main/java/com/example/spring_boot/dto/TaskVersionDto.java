@@ -0,0 +1,21 @@
+package com.example.spring_boot.dto;
+
+import com.example.spring_boot.entity.Frequency;
+import com.example.spring_boot.entity.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Trạng thái tối thiểu của một task để PATCH: revision vừa tăng của user, cập nhật bộ đếm và version trả về
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskVersionDto {
+    private Integer categoryId;
+    private Integer userId;
+    private Status status;
+    private Long version;
+    private Frequency frequency;
+    // Revision của user sở hữu task
+    private Long revision;
+}
@@ -12,4 +12,5 @@ public class UserDto {
     private  String userName;
     private String password;
     private String email;
+    private String accessToken;
 }
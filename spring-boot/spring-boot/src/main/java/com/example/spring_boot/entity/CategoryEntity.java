@@ -10,13 +10,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "category")
+@Table(name = "category", indexes = {
+        @Index(name = "idx_category_user_revision", columnList = "user_id, revision")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CategoryEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // SEQUENCE (pooled) thay cho IDENTITY để Hibernate gom các INSERT category thành batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
     private Integer categoryId;
 
     @Column(nullable = false, length = 50)
@@ -26,6 +30,10 @@ public class CategoryEntity {
     private UserEntity user;
 
     private LocalDateTime createdAt;
+
+    // Revision của user tại lần ghi cuối, dùng cho /sync
+    @Column(name = "revision", nullable = false, columnDefinition = "bigint default 0")
+    private Long revision = 0L;
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<TaskEntity> taskEntities = new ArrayList<>();
 
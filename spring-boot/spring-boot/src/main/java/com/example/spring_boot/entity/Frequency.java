@@ -0,0 +1,7 @@
+package com.example.spring_boot.entity;
+
+public enum Frequency {
+    daily,
+    weekly,
+    monthly
+}
@@ -0,0 +1,49 @@
+package com.example.spring_boot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Thông báo chờ gửi. Scheduler chỉ ghi vào đây; việc gửi (push, email) đọc các dòng sent_at = null
+@Entity
+// Một lần nhắc là một dòng: unique key chặn hai instance cùng ghi một lần nhắc, và là index cho câu SELECT của lô
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_outbox_sent", columnList = "sent_at, outbox_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_outbox_type_task_start", columnNames = {"type", "task_id", "start_time"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxEntity {
+    public static final String REMINDER = "reminder";
+
+    // SEQUENCE để các dòng của một lô được INSERT thành JDBC batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Column(name = "type", nullable = false, length = 20)
+    private String type;
+
+    @Column(name = "task_id", nullable = false)
+    private Integer taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    // startTime của task lúc nhắc, cùng task_id dùng để không nhắc hai lần
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
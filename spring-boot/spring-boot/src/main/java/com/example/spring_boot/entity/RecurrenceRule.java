@@ -0,0 +1,38 @@
+package com.example.spring_boot.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Quy tắc lặp của một task; task thường có tất cả các cột này null
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurrenceRule {
+    @Enumerated(EnumType.STRING)
+    @Column(name = "repeat_frequency", length = 10)
+    private Frequency frequency;
+
+    // Lặp mỗi N ngày/tuần/tháng
+    @Column(name = "repeat_interval")
+    private Integer interval;
+
+    // Chỉ dùng cho weekly: bit 0 = thứ Hai ... bit 6 = Chủ nhật
+    @Column(name = "repeat_weekdays")
+    private Integer weekdays;
+
+    // Ngày cuối cùng (tính cả ngày này) có thể có lần lặp
+    @Column(name = "repeat_until")
+    private LocalDate until;
+
+    // Tổng số lần lặp, tính cả lần đầu
+    @Column(name = "repeat_count")
+    private Integer count;
+}
@@ -0,0 +1,27 @@
+package com.example.spring_boot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Số task của mỗi (category, status), cập nhật cùng transaction với bảng task
+@Entity
+@Table(name = "task_count")
+@IdClass(TaskCounterId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCounterEntity {
+    @Id
+    @Column(name = "category_id")
+    private Integer categoryId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private Status status;
+
+    @Column(name = "task_count", nullable = false)
+    private Long taskCount;
+}
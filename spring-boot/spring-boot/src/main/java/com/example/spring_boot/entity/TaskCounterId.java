@@ -0,0 +1,15 @@
+package com.example.spring_boot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCounterId implements Serializable {
+    private Integer categoryId;
+    private Status status;
+}
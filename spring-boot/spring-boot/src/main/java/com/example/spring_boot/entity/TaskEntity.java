@@ -9,13 +9,24 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "task")
+@Table(name = "task", indexes = {
+        @Index(name = "idx_task_user_start", columnList = "user_id, start_time"),
+        @Index(name = "idx_task_user_revision", columnList = "user_id, revision"),
+        @Index(name = "idx_task_user_frequency", columnList = "user_id, repeat_frequency"),
+        // Nạp cửa sổ nhắc việc của mọi user theo khoảng start_time
+        @Index(name = "idx_task_start", columnList = "start_time")
+}, uniqueConstraints = {
+        // Import chạy lại cùng một file không tạo bản sao của task đã import
+        @UniqueConstraint(name = "uk_task_user_import_source", columnNames = {"user_id", "import_source_id"})
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 public class TaskEntity {
+    // SEQUENCE (pooled) thay cho IDENTITY để Hibernate có thể gom INSERT thành JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     @Column(name = "task_id")
     private Integer taskId;
 
@@ -46,4 +57,25 @@ public class TaskEntity {
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    // Optimistic locking; default 0 để các dòng cũ có version khi cột được thêm vào
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // null với task thường; task lặp chỉ lưu một dòng, startTime là lần đầu tiên
+    @Embedded
+    private RecurrenceRule recurrence;
+
+    // Lần lặp cuối (theo until/count), để lọc chuỗi theo khoảng thời gian; null = lặp không giới hạn
+    @Column(name = "recurrence_end")
+    private LocalDateTime recurrenceEnd;
+
+    // Revision của user tại lần ghi cuối, dùng cho /sync
+    @Column(name = "revision", nullable = false, columnDefinition = "bigint default 0")
+    private Long revision = 0L;
+
+    // taskId trong file import mà task được tạo từ đó; null với task không đến từ import
+    @Column(name = "import_source_id")
+    private Integer importSourceId;
 }
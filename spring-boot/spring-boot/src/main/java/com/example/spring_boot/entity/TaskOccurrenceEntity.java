@@ -0,0 +1,45 @@
+package com.example.spring_boot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Ngoại lệ của một lần lặp (đã làm xong, dời giờ hoặc bị hủy). Các lần lặp khác không được lưu,
+// chúng được sinh ra từ quy tắc lặp khi đọc
+@Entity
+@Table(name = "task_occurrence", indexes = {
+        @Index(name = "idx_occurrence_user_original", columnList = "user_id, occurrence_start"),
+        @Index(name = "idx_occurrence_user_start", columnList = "user_id, start_time")
+})
+@IdClass(TaskOccurrenceId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskOccurrenceEntity {
+    @Id
+    @Column(name = "task_id")
+    private Integer taskId;
+
+    // Thời điểm gốc theo quy tắc lặp, là khóa của lần lặp
+    @Id
+    @Column(name = "occurrence_start")
+    private LocalDateTime occurrenceStart;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    // Thời điểm thực tế sau khi dời; bằng occurrenceStart nếu không dời
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    // null = theo status của chuỗi
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private Status status;
+
+    @Column(name = "cancelled", nullable = false)
+    private boolean cancelled;
+}
@@ -0,0 +1,16 @@
+package com.example.spring_boot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskOccurrenceId implements Serializable {
+    private Integer taskId;
+    private LocalDateTime occurrenceStart;
+}
@@ -0,0 +1,40 @@
+package com.example.spring_boot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Dấu vết của task/category đã xóa để /sync báo cho client
+@Entity
+@Table(name = "tombstone", indexes = {
+        @Index(name = "idx_tombstone_user_revision", columnList = "user_id, revision")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TombstoneEntity {
+    public static final String TASK = "task";
+    public static final String CATEGORY = "category";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long tombstoneId;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "revision", nullable = false)
+    private Long revision;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
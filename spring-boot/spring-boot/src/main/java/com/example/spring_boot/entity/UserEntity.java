@@ -10,8 +10,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "user", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "user_name"),
-        @UniqueConstraint(columnNames = "email")
+        @UniqueConstraint(name = "uk_user_user_name", columnNames = "user_name"),
+        @UniqueConstraint(name = "uk_user_email", columnNames = "email")
 })
 @Data
 @NoArgsConstructor
@@ -34,6 +34,13 @@ public class UserEntity {
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    // Tăng mỗi khi task/category của user thay đổi; dùng làm ETag cho các API đọc
+    @Column(name = "revision", nullable = false, columnDefinition = "bigint default 0")
+    private Long revision = 0L;
+    // Tombstone có revision <= giá trị này đã bị xóa vì quá hạn giữ; /sync từ revision nhỏ hơn phải tải lại toàn bộ
+    @Column(name = "tombstone_purged_revision", nullable = false, columnDefinition = "bigint default 0")
+    private Long tombstonePurgedRevision = 0L;
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CategoryEntity> categories = new ArrayList<>();
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
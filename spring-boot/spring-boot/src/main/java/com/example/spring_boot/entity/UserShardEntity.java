@@ -0,0 +1,31 @@
+package com.example.spring_boot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Directory của sharding: user nằm ở shard nào. Chỉ dùng bảng trên shard 0; đọc/ghi bằng JdbcTemplate (ShardRouter).
+// Unique trên user_name/email để tên và email không trùng giữa các shard
+@Entity
+@Table(name = "user_shard", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_shard_user_name", columnNames = "user_name"),
+        @UniqueConstraint(name = "uk_user_shard_email", columnNames = "email")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserShardEntity {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(name = "user_name", nullable = false, length = 50)
+    private String userName;
+
+    @Column(name = "email", nullable = false, length = 255)
+    private String email;
+
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+}
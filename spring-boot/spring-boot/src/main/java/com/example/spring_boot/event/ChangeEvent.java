@@ -0,0 +1,21 @@
+package com.example.spring_boot.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Một thay đổi task/category, được đẩy tới client sau khi transaction commit
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeEvent {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private String entityType;
+    private String action;
+    private Integer entityId;
+    private Integer userId;
+    private long revision;
+}
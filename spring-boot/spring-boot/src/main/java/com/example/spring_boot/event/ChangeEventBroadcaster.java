@@ -0,0 +1,140 @@
+package com.example.spring_boot.event;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Giữ các kết nối SSE theo user và đẩy ChangeEvent tới chúng sau khi transaction ghi đã commit.
+ * SseEmitter chạy trên async servlet nên kết nối rảnh không chiếm thread của Tomcat.
+ */
+@Component
+public class ChangeEventBroadcaster implements SmartLifecycle {
+    private final Map<Integer, Set<EventSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Executor sender;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final int heartbeatBatches;
+    private volatile boolean running;
+
+    public ChangeEventBroadcaster(@Qualifier("eventSenderExecutor") Executor sender,
+                                  @Value("${events.buffer-size:64}") int bufferSize,
+                                  @Value("${events.timeout-ms:1800000}") long timeoutMillis,
+                                  @Value("${events.heartbeat-batches:4}") int heartbeatBatches) {
+        this.sender = sender;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatBatches = Math.max(1, heartbeatBatches);
+    }
+
+    public SseEmitter subscribe(int userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        EventSubscriber subscriber = new EventSubscriber(userId, emitter, bufferSize, sender);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(Map.of("userId", userId)));
+        } catch (IOException ex) {
+            remove(subscriber);
+            emitter.completeWithError(ex);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onChange(ChangeEvent event) {
+        publish(event);
+    }
+
+    public void publish(ChangeEvent event) {
+        Set<EventSubscriber> userSubscribers = subscribers.get(event.getUserId());
+        if (userSubscribers == null) {
+            return;
+        }
+        for (EventSubscriber subscriber : userSubscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    // Chia các kết nối thành heartbeatBatches lô (mặc định bằng số thread của sender), mỗi lô là một task
+    // ping lần lượt từng kết nối. Một task cho mỗi kết nối sẽ lấp hàng đợi của sender bằng hàng nghìn ping
+    // và làm event thật phải chờ phía sau
+    @Scheduled(fixedRateString = "${events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        List<List<EventSubscriber>> batches = new ArrayList<>(heartbeatBatches);
+        for (int i = 0; i < heartbeatBatches; i++) {
+            batches.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (Set<EventSubscriber> userSubscribers : subscribers.values()) {
+            for (EventSubscriber subscriber : userSubscribers) {
+                batches.get(next++ % heartbeatBatches).add(subscriber);
+            }
+        }
+        for (List<EventSubscriber> batch : batches) {
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                sender.execute(() -> batch.forEach(EventSubscriber::heartbeat));
+            } catch (RejectedExecutionException ex) {
+                // Sender quá tải: bỏ lượt ping này của lô, lượt sau gửi lại. Đóng cả lô sẽ làm
+                // hàng nghìn client kết nối lại cùng lúc
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        int count = 0;
+        for (Set<EventSubscriber> userSubscribers : subscribers.values()) {
+            count += userSubscribers.size();
+        }
+        return count;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Chạy trước graceful shutdown của web server (phase cao hơn dừng trước):
+    // đóng các stream đang mở để Tomcat không phải chờ chúng tới hết timeout
+    @Override
+    public void stop() {
+        running = false;
+        for (Set<EventSubscriber> userSubscribers : subscribers.values()) {
+            for (EventSubscriber subscriber : userSubscribers) {
+                subscriber.close();
+            }
+        }
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void remove(EventSubscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.getUserId(), (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.spring_boot.event;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Một kết nối SSE với hàng đợi giới hạn. Client chậm làm đầy hàng đợi thì các event đang chờ
+ * được gộp thành một event "resync" mang revision mới nhất, client gọi /sync để bắt kịp.
+ * Kết nối rảnh không giữ thread nào; chỉ khi có event mới mượn một thread của sender để ghi.
+ */
+class EventSubscriber {
+    private final int userId;
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Executor sender;
+    // ReentrantLock thay cho synchronized để không ghim (pin) virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<ChangeEvent> queue = new ArrayDeque<>();
+    private long resyncRevision = -1;
+    private boolean draining;
+    private volatile boolean closed;
+
+    EventSubscriber(int userId, SseEmitter emitter, int capacity, Executor sender) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.sender = sender;
+    }
+
+    int getUserId() {
+        return userId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void offer(ChangeEvent event) {
+        if (closed) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (resyncRevision >= 0 || queue.size() >= capacity) {
+                // Quá tải: bỏ các event đang chờ, chỉ giữ lại revision mới nhất
+                queue.clear();
+                resyncRevision = Math.max(resyncRevision, event.getRevision());
+            } else {
+                queue.add(event);
+            }
+            if (draining) {
+                return;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            sender.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            // Sender quá tải: đóng kết nối, client sẽ kết nối lại và gọi /sync
+            close();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            ChangeEvent event;
+            long resync;
+            lock.lock();
+            try {
+                event = queue.poll();
+                resync = resyncRevision;
+                if (event == null && resync < 0) {
+                    draining = false;
+                    return;
+                }
+                if (event == null) {
+                    resyncRevision = -1;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (event != null) {
+                    emitter.send(SseEmitter.event().name("change").data(event));
+                } else {
+                    emitter.send(SseEmitter.event().name("resync").data(Map.of("revision", resync)));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                close();
+                lock.lock();
+                try {
+                    draining = false;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    // Giữ kết nối sống qua proxy; cũng là cách phát hiện client đã ngắt
+    void heartbeat() {
+        try {
+            emitter.send(SseEmitter.event().comment("ping"));
+        } catch (IOException | IllegalStateException ex) {
+            close();
+        }
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            emitter.complete();
+        }
+    }
+
+    // Số event đang chờ gửi, dùng cho test
+    int pending() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
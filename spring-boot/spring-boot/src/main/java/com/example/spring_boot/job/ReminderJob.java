@@ -0,0 +1,31 @@
+package com.example.spring_boot.job;
+
+import com.example.spring_boot.reminder.ReminderScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hàng đợi nhắc việc nằm trong bộ nhớ: nạp lại cửa sổ khi khởi động, sau đó mỗi tick ghi các lần nhắc đến hạn.
+ */
+@Component
+@ConditionalOnProperty(name = "reminder.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderJob {
+    @Autowired
+    ReminderScheduler reminderScheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadOnStartup() {
+        reminderScheduler.reload(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${reminder.tick-interval-ms:1000}")
+    public void tick() {
+        reminderScheduler.tick(LocalDateTime.now());
+    }
+}
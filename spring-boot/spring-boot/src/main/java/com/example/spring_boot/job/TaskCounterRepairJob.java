@@ -0,0 +1,76 @@
+package com.example.spring_boot.job;
+
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskCounterRepository;
+import com.example.spring_boot.service.TaskCounterService;
+import com.example.spring_boot.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Dựng lại bảng task_count từ bảng task để sửa sai lệch nếu có ai ghi thẳng vào database.
+ * Đi qua category theo khóa chính, mỗi lô batch-size category một transaction, nên không có transaction
+ * nào khóa cả bảng task. Khi khởi động, database nâng cấp từ bản chưa có bộ đếm (task_count trống nhưng đã có
+ * task) được dựng lại ngay; task-counter.rebuild-on-startup ép dựng lại cả khi bảng đã có dữ liệu.
+ * Category có bộ đếm bị sửa thì revision của user tăng theo. Khi sharding thì sửa trên từng shard.
+ */
+@Component
+public class TaskCounterRepairJob {
+    @Autowired
+    TaskCounterService taskCounterService;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskCounterRepository taskCounterRepository;
+    @Autowired(required = false)
+    ShardRouter shardRouter;
+
+    @Value("${task-counter.rebuild-on-startup:false}")
+    boolean rebuildOnStartup;
+    @Value("${task-counter.repair-batch-size:200}")
+    int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            repair();
+        } else if (shardRouter == null) {
+            repairIfMissing();
+        } else {
+            shardRouter.forEachShard(this::repairIfMissing);
+        }
+    }
+
+    @Scheduled(cron = "${task-counter.repair-cron:0 0 3 * * *}")
+    public void repair() {
+        if (shardRouter == null) {
+            repairAll();
+        } else {
+            shardRouter.forEachShard(this::repairAll);
+        }
+    }
+
+    private void repairIfMissing() {
+        if (taskCounterRepository.countersMissing() == 1) {
+            repairAll();
+        }
+    }
+
+    private void repairAll() {
+        List<Integer> categoryIds = categoryRepository.findIdsAfter(0, Limit.of(batchSize));
+        while (!categoryIds.isEmpty()) {
+            taskCounterService.repair(categoryIds);
+            if (categoryIds.size() < batchSize) {
+                break;
+            }
+            categoryIds = categoryRepository.findIdsAfter(categoryIds.get(categoryIds.size() - 1), Limit.of(batchSize));
+        }
+    }
+}
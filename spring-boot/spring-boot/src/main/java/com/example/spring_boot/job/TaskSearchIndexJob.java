@@ -0,0 +1,23 @@
+package com.example.spring_boot.job;
+
+import com.example.spring_boot.search.TaskSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chỉ mục tìm kiếm nằm trong bộ nhớ nên phải dựng lại từ bảng task mỗi lần khởi động.
+ */
+@Component
+@ConditionalOnProperty(name = "search.rebuild-on-startup", havingValue = "true", matchIfMissing = true)
+public class TaskSearchIndexJob {
+    @Autowired
+    TaskSearchIndex taskSearchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        taskSearchIndex.rebuild();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.spring_boot.job;
+
+import com.example.spring_boot.service.SyncService;
+import com.example.spring_boot.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone chỉ cần cho client sync lại trong vòng sync.tombstone-retention; cũ hơn thì xóa để bảng không
+ * lớn mãi. Client có since cũ hơn mốc đã xóa nhận fullResyncRequired từ /sync. Khi sharding thì xóa trên từng shard.
+ */
+@Component
+public class TombstonePurgeJob {
+    @Autowired
+    SyncService syncService;
+    @Autowired(required = false)
+    ShardRouter shardRouter;
+
+    @Value("${sync.tombstone-retention:P30D}")
+    Duration retention;
+
+    @Scheduled(cron = "${sync.tombstone-purge-cron:0 30 3 * * *}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        if (shardRouter == null) {
+            syncService.purgeTombstones(before);
+        } else {
+            shardRouter.forEachShard(() -> syncService.purgeTombstones(before));
+        }
+    }
+}
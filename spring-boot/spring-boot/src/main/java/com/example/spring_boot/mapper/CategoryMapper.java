@@ -1,22 +1,36 @@
 package com.example.spring_boot.mapper;
 
 import com.example.spring_boot.dto.CategoryDto;
+import com.example.spring_boot.dto.CategoryStatusCountDto;
 import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.UserEntity;
 import com.example.spring_boot.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class CategoryMapper {
+    private static final Status[] STATUSES = Status.values();
     @Autowired
     UserRepository userRepository;
     public CategoryEntity toEntity(CategoryDto categoryDto){
+        return toEntity(categoryDto.getName(), userRepository.findById(categoryDto.getUserId()).get());
+    }
+    // Dùng khi đã có sẵn user, tránh thêm một câu SELECT user cho mỗi category
+    public CategoryEntity toEntity(String name, UserEntity user){
         CategoryEntity categoryEntity=new CategoryEntity();
-        categoryEntity.setName(categoryDto.getName());
+        categoryEntity.setName(name);
         categoryEntity.setCreatedAt(LocalDateTime.now());
-        categoryEntity.setUser(userRepository.findById(categoryDto.getUserId()).get());
+        categoryEntity.setUser(user);
         return  categoryEntity;
     }
     public CategoryDto toDto(CategoryEntity categoryEntity){
@@ -26,4 +40,41 @@ public class CategoryMapper {
         categoryDto.setUserId(categoryEntity.getUser().getUserId());
         return  categoryDto;
     }
+
+    // Gộp các dòng (category, status, count) thành danh sách CategoryDto kèm số task
+    public List<CategoryDto> toDtos(int userId, List<CategoryStatusCountDto> rows){
+        Map<Integer, CategoryDto> categories = new LinkedHashMap<>();
+        for (CategoryStatusCountDto row : rows) {
+            CategoryDto categoryDto = categories.computeIfAbsent(row.getCategoryId(),
+                    id -> new CategoryDto(id, row.getName(), userId, 0, 0, 0));
+            if (row.getStatus() == null) {
+                continue;
+            }
+            int count = row.getTaskCount().intValue();
+            switch (row.getStatus()) {
+                case pending -> categoryDto.setPendingCount(count);
+                case done -> categoryDto.setDoneCount(count);
+                case in_progress -> categoryDto.setInprogressCount(count);
+            }
+        }
+        return new ArrayList<>(categories.values());
+    }
+    // Cùng dữ liệu nhưng ở dạng {categoryName: {status: count}} cho /task/count và /task/statistics.
+    // EnumMap theo Status cấp phát ít nhất trong StatusCountBenchmark; JSON vẫn dùng tên status làm key
+    public Map<String, Map<Status, Integer>> toStatusCountMap(List<CategoryStatusCountDto> rows){
+        Map<String, Map<Status, Integer>> result = new HashMap<>();
+        for (CategoryStatusCountDto row : rows) {
+            Map<Status, Integer> statusMap = result.computeIfAbsent(row.getName(), name -> {
+                Map<Status, Integer> counts = new EnumMap<>(Status.class);
+                for (Status status : STATUSES) {
+                    counts.put(status, 0);
+                }
+                return counts;
+            });
+            if (row.getStatus() != null) {
+                statusMap.merge(row.getStatus(), row.getTaskCount().intValue(), Integer::sum);
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,156 @@
+package com.example.spring_boot.mapper;
+
+import com.example.spring_boot.dto.RecurrenceDto;
+import com.example.spring_boot.dto.TaskExportDto;
+import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.Status;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+@Component
+public class TaskCsvMapper {
+    public static final String HEADER = "taskId,category,title,description,priority,status,startTime,createdAt,recurrence";
+    private static final int COLUMNS = 9;
+    // File export trước khi có task lặp không có cột recurrence
+    private static final int LEGACY_COLUMNS = 8;
+
+    public void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    public void write(Writer writer, TaskExportDto task) throws IOException {
+        writer.write(String.valueOf(task.getTaskId()));
+        writer.write(',');
+        writeField(writer, task.getCategory());
+        writer.write(',');
+        writeField(writer, task.getTitle());
+        writer.write(',');
+        writeField(writer, task.getDescription());
+        writer.write(',');
+        writer.write(task.getPriority().name());
+        writer.write(',');
+        writer.write(task.getStatus().name());
+        writer.write(',');
+        writer.write(task.getStartTime().toString());
+        writer.write(',');
+        writer.write(task.getCreatedAt() != null ? task.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(toRule(task.getRecurrence()));
+        writer.write('\n');
+    }
+
+    public boolean isHeader(List<String> fields) {
+        return HEADER.startsWith(String.join(",", fields)) && "taskId".equals(fields.get(0));
+    }
+
+    public TaskExportDto toDto(List<String> fields) {
+        if (fields.size() != COLUMNS && fields.size() != LEGACY_COLUMNS) {
+            throw new IllegalArgumentException("Expected " + COLUMNS + " CSV columns but got " + fields.size());
+        }
+        TaskExportDto task = new TaskExportDto();
+        task.setTaskId(fields.get(0).isEmpty() ? null : Integer.valueOf(fields.get(0)));
+        task.setCategory(fields.get(1));
+        task.setTitle(fields.get(2));
+        task.setDescription(fields.get(3).isEmpty() ? null : fields.get(3));
+        task.setPriority(Priority.valueOf(fields.get(4)));
+        task.setStatus(Status.valueOf(fields.get(5)));
+        task.setStartTime(LocalDateTime.parse(fields.get(6)));
+        task.setCreatedAt(fields.get(7).isEmpty() ? null : LocalDateTime.parse(fields.get(7)));
+        if (fields.size() == COLUMNS) {
+            task.setRecurrence(fromRule(fields.get(8)));
+        }
+        return task;
+    }
+
+    // Quy tắc lặp dạng gần giống RRULE của iCalendar, vd. FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;UNTIL=2025-12-31
+    static String toRule(RecurrenceDto recurrence) {
+        if (recurrence == null) {
+            return "";
+        }
+        StringJoiner rule = new StringJoiner(";");
+        rule.add("FREQ=" + recurrence.getFrequency().toUpperCase(Locale.ROOT));
+        if (recurrence.getInterval() != null) {
+            rule.add("INTERVAL=" + recurrence.getInterval());
+        }
+        if (recurrence.getWeekdays() != null) {
+            StringJoiner days = new StringJoiner(",");
+            for (Integer day : recurrence.getWeekdays()) {
+                days.add(DayOfWeek.of(day).getDisplayName(TextStyle.SHORT, Locale.ENGLISH).substring(0, 2).toUpperCase(Locale.ROOT));
+            }
+            rule.add("BYDAY=" + days);
+        }
+        if (recurrence.getUntil() != null) {
+            rule.add("UNTIL=" + recurrence.getUntil());
+        }
+        if (recurrence.getCount() != null) {
+            rule.add("COUNT=" + recurrence.getCount());
+        }
+        return rule.toString();
+    }
+
+    static RecurrenceDto fromRule(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        RecurrenceDto recurrence = new RecurrenceDto();
+        for (String part : value.split(";")) {
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid recurrence: " + value);
+            }
+            switch (keyValue[0]) {
+                case "FREQ" -> recurrence.setFrequency(keyValue[1].toLowerCase(Locale.ROOT));
+                case "INTERVAL" -> recurrence.setInterval(Integer.valueOf(keyValue[1]));
+                case "UNTIL" -> recurrence.setUntil(LocalDate.parse(keyValue[1]));
+                case "COUNT" -> recurrence.setCount(Integer.valueOf(keyValue[1]));
+                case "BYDAY" -> {
+                    List<Integer> weekdays = new ArrayList<>();
+                    for (String day : keyValue[1].split(",")) {
+                        weekdays.add(parseDay(day));
+                    }
+                    recurrence.setWeekdays(weekdays);
+                }
+                default -> throw new IllegalArgumentException("Invalid recurrence: " + value);
+            }
+        }
+        return recurrence;
+    }
+
+    private static int parseDay(String day) {
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek.name().startsWith(day)) {
+                return dayOfWeek.getValue();
+            }
+        }
+        throw new IllegalArgumentException("Invalid recurrence day: " + day);
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
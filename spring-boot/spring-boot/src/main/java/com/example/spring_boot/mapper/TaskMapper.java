@@ -1,16 +1,28 @@
 package com.example.spring_boot.mapper;
 
 import com.example.spring_boot.dto.CategoryDto;
+import com.example.spring_boot.dto.RecurrenceDto;
 import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskExportDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.Frequency;
 import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.RecurrenceRule;
 import com.example.spring_boot.entity.Status;
 import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.TaskOccurrenceEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.recurrence.RecurrenceExpander;
 import com.example.spring_boot.repository.CategoryRepository;
 import com.example.spring_boot.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class TaskMapper {
@@ -19,28 +31,58 @@ public class TaskMapper {
     @Autowired
     UserRepository userRepository;
     public TaskEntity toEntity(TaskDto taskDto){
+        return toEntity(taskDto,
+                categoryRepository.findById(taskDto.getCategoryId()).get(),
+                userRepository.findById(taskDto.getUserId()).get());
+    }
+    public TaskEntity toEntity(TaskDto taskDto, CategoryEntity category, UserEntity user){
         TaskEntity taskEntity=new TaskEntity();
         taskEntity.setDescription(taskDto.getDescription());
         taskEntity.setStatus(Status.valueOf(taskDto.getStatus()));
         taskEntity.setPriority(Priority.valueOf(taskDto.getPriority()));
         taskEntity.setTitle(taskDto.getTitle());
         taskEntity.setStartTime(taskDto.getStartTime());
-        taskEntity.setCategory(categoryRepository.findById(taskDto.getCategoryId()).get());
-        taskEntity.setUser(userRepository.findById(taskDto.getUserId()).get());
+        taskEntity.setRecurrence(toRecurrenceRule(taskDto.getRecurrence()));
+        taskEntity.setCategory(category);
+        taskEntity.setUser(user);
+        return taskEntity;
+    }
+    public TaskEntity toEntity(TaskExportDto row, CategoryEntity category, UserEntity user){
+        TaskEntity taskEntity=new TaskEntity();
+        taskEntity.setDescription(row.getDescription());
+        taskEntity.setStatus(row.getStatus());
+        taskEntity.setPriority(row.getPriority());
+        taskEntity.setTitle(row.getTitle());
+        taskEntity.setStartTime(row.getStartTime());
+        taskEntity.setCreatedAt(row.getCreatedAt());
+        taskEntity.setImportSourceId(row.getTaskId());
+        taskEntity.setRecurrence(toRecurrenceRule(row.getRecurrence()));
+        taskEntity.setCategory(category);
+        taskEntity.setUser(user);
         return taskEntity;
     }
     public TaskDto toDto(TaskEntity taskEntity) {
+        return toDto(taskEntity, toCategoryDto(taskEntity.getCategory()));
+    }
+
+    // Map cả danh sách; các task cùng category dùng chung một CategoryDto thay vì mỗi task tạo một cái (xem MapperBenchmark)
+    public List<TaskDto> toDtos(List<TaskEntity> taskEntities) {
+        List<TaskDto> taskDtos = new ArrayList<>(taskEntities.size());
+        Map<Integer, CategoryDto> categories = new HashMap<>();
+        for (TaskEntity taskEntity : taskEntities) {
+            CategoryEntity category = taskEntity.getCategory();
+            CategoryDto categoryDto = categories.computeIfAbsent(category.getCategoryId(), id -> toCategoryDto(category));
+            taskDtos.add(toDto(taskEntity, categoryDto));
+        }
+        return taskDtos;
+    }
+
+    private TaskDto toDto(TaskEntity taskEntity, CategoryDto categoryDto) {
         TaskDto taskDto = new TaskDto();
         taskDto.setTaskId(taskEntity.getTaskId());
-        taskDto.setCategoryId(taskEntity.getCategory().getCategoryId());
-        
-        // Tạo CategoryDto đơn giản để tránh N+1 query
-        CategoryDto categoryDto = new CategoryDto();
-        categoryDto.setCategoryId(taskEntity.getCategory().getCategoryId());
-        categoryDto.setName(taskEntity.getCategory().getName());
-        categoryDto.setUserId(taskEntity.getCategory().getUser().getUserId());
+        taskDto.setCategoryId(categoryDto.getCategoryId());
         taskDto.setCategory(categoryDto);
-        
+
         taskDto.setTitle(taskEntity.getTitle());
         taskDto.setDescription(taskEntity.getDescription());
         taskDto.setStatus(taskEntity.getStatus().name());
@@ -48,6 +90,57 @@ public class TaskMapper {
         taskDto.setStartTime(taskEntity.getStartTime());
         taskDto.setUserId(taskEntity.getUser().getUserId());
         taskDto.setCreatedTime(taskEntity.getCreatedAt());
+        taskDto.setVersion(taskEntity.getVersion());
+        taskDto.setRecurrence(toRecurrenceDto(taskEntity.getRecurrence()));
         return taskDto;
     }
+
+    // Một lần lặp của chuỗi: bản sao của task với thời điểm (và status nếu có ngoại lệ) của lần đó
+    public TaskDto toOccurrenceDto(TaskDto series, LocalDateTime occurrenceStart, TaskOccurrenceEntity exception) {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setTaskId(series.getTaskId());
+        taskDto.setCategoryId(series.getCategoryId());
+        taskDto.setCategory(series.getCategory());
+        taskDto.setTitle(series.getTitle());
+        taskDto.setDescription(series.getDescription());
+        taskDto.setPriority(series.getPriority());
+        taskDto.setStatus(exception != null && exception.getStatus() != null
+                ? exception.getStatus().name() : series.getStatus());
+        taskDto.setStartTime(exception != null ? exception.getStartTime() : occurrenceStart);
+        taskDto.setUserId(series.getUserId());
+        taskDto.setCreatedTime(series.getCreatedTime());
+        taskDto.setVersion(series.getVersion());
+        taskDto.setRecurrence(series.getRecurrence());
+        taskDto.setOccurrenceStart(occurrenceStart);
+        return taskDto;
+    }
+
+    public RecurrenceRule toRecurrenceRule(RecurrenceDto recurrenceDto) {
+        if (recurrenceDto == null) {
+            return null;
+        }
+        if (recurrenceDto.getFrequency() == null) {
+            throw new IllegalArgumentException("Recurrence frequency is required");
+        }
+        return new RecurrenceRule(Frequency.valueOf(recurrenceDto.getFrequency()), recurrenceDto.getInterval(),
+                RecurrenceExpander.toWeekdayMask(recurrenceDto.getWeekdays()),
+                recurrenceDto.getUntil(), recurrenceDto.getCount());
+    }
+
+    public RecurrenceDto toRecurrenceDto(RecurrenceRule rule) {
+        if (rule == null || rule.getFrequency() == null) {
+            return null;
+        }
+        return new RecurrenceDto(rule.getFrequency().name(), rule.getInterval(),
+                RecurrenceExpander.toWeekdayList(rule.getWeekdays()), rule.getUntil(), rule.getCount());
+    }
+
+    // Tạo CategoryDto đơn giản để tránh N+1 query
+    private CategoryDto toCategoryDto(CategoryEntity category) {
+        CategoryDto categoryDto = new CategoryDto();
+        categoryDto.setCategoryId(category.getCategoryId());
+        categoryDto.setName(category.getName());
+        categoryDto.setUserId(category.getUser().getUserId());
+        return categoryDto;
+    }
 }
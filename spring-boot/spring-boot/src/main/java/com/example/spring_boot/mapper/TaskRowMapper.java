@@ -0,0 +1,49 @@
+package com.example.spring_boot.mapper;
+
+import com.example.spring_boot.dto.CategoryNameDto;
+import com.example.spring_boot.dto.CompactTaskListDto;
+import com.example.spring_boot.dto.TaskRowsDto;
+import com.example.spring_boot.projection.TaskField;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class TaskRowMapper {
+    // Mỗi task là một object chỉ có các trường được chọn
+    public List<Map<String, Object>> toMaps(TaskRowsDto rows) {
+        List<TaskField> fields = rows.getFields();
+        List<Map<String, Object>> tasks = new ArrayList<>(rows.getRows().size());
+        for (Object[] row : rows.getRows()) {
+            Map<String, Object> task = new LinkedHashMap<>(fields.size() * 2);
+            for (int i = 0; i < row.length; i++) {
+                task.put(fields.get(i).name(), row[i]);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    public CompactTaskListDto toCompact(TaskRowsDto rows) {
+        List<TaskField> fields = rows.getFields();
+        int categoryIndex = fields.indexOf(TaskField.category);
+        List<String> names = new ArrayList<>(fields.size());
+        for (TaskField field : fields) {
+            names.add(field == TaskField.category ? TaskField.categoryId.name() : field.name());
+        }
+        Map<Integer, CategoryNameDto> categories = new LinkedHashMap<>();
+        List<Object[]> tasks = new ArrayList<>(rows.getRows().size());
+        for (Object[] row : rows.getRows()) {
+            if (categoryIndex >= 0) {
+                CategoryNameDto category = (CategoryNameDto) row[categoryIndex];
+                categories.putIfAbsent(category.getCategoryId(), category);
+                row[categoryIndex] = category.getCategoryId();
+            }
+            tasks.add(row);
+        }
+        return new CompactTaskListDto(names, new ArrayList<>(categories.values()), tasks, rows.getNextCursor());
+    }
+}
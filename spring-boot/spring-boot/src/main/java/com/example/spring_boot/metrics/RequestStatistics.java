@@ -0,0 +1,85 @@
+package com.example.spring_boot.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Số câu SQL, entity load và collection fetch của Hibernate trong một request.
+ * Gắn vào thread xử lý request qua ThreadLocal; các task chạy trên executor khác (vd. /dashboard)
+ * dùng chung bộ đếm nhờ wrap(). Dùng AtomicInteger vì các task đó có thể chạy song song.
+ */
+public final class RequestStatistics {
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger entityLoads = new AtomicInteger();
+    private final AtomicInteger collectionFetches = new AtomicInteger();
+
+    public static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // null khi không nằm trong request (job nền, lúc khởi động)
+    public static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    // Chuyển bộ đếm của request hiện tại sang thread chạy task
+    public static Runnable wrap(Runnable task) {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            RequestStatistics previous = CURRENT.get();
+            CURRENT.set(statistics);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    static void statementPrepared() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements.incrementAndGet();
+        }
+    }
+
+    static void entityLoaded() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entityLoads.incrementAndGet();
+        }
+    }
+
+    static void collectionFetched() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.collectionFetches.incrementAndGet();
+        }
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public int getEntityLoads() {
+        return entityLoads.get();
+    }
+
+    public int getCollectionFetches() {
+        return collectionFetches.get();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.spring_boot.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mở bộ đếm RequestStatistics cho mỗi request và ghi kết quả vào Micrometer theo (method, uri pattern):
+ * http.server.sql.statements, http.server.sql.entity.loads, http.server.sql.collection.fetches.
+ * Thời gian xử lý mỗi endpoint đã có sẵn trong timer http.server.requests của Actuator.
+ */
+@Component
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    public RequestStatisticsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                record("http.server.sql.statements", request, pattern, statistics.getStatements());
+                record("http.server.sql.entity.loads", request, pattern, statistics.getEntityLoads());
+                record("http.server.sql.collection.fetches", request, pattern, statistics.getCollectionFetches());
+            }
+        }
+    }
+
+    private void record(String name, HttpServletRequest request, Object pattern, int value) {
+        DistributionSummary.builder(name)
+                .tag("method", request.getMethod())
+                .tag("uri", pattern.toString())
+                .register(meterRegistry)
+                .record(value);
+    }
+}
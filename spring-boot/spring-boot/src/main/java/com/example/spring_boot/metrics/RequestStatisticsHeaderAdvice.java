@@ -0,0 +1,40 @@
+package com.example.spring_boot.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Header debug với số câu SQL / entity load / collection fetch của request, thêm ngay trước khi ghi body
+ * (sau đó response đã commit nên không thêm header được nữa). Bật bằng metrics.sql-headers.enabled=true.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "metrics.sql-headers.enabled", havingValue = "true")
+public class RequestStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String STATEMENTS = "X-SQL-Statements";
+    public static final String ENTITY_LOADS = "X-SQL-Entity-Loads";
+    public static final String COLLECTION_FETCHES = "X-SQL-Collection-Fetches";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(STATEMENTS, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(ENTITY_LOADS, String.valueOf(statistics.getEntityLoads()));
+            response.getHeaders().set(COLLECTION_FETCHES, String.valueOf(statistics.getCollectionFetches()));
+        }
+        return body;
+    }
+}
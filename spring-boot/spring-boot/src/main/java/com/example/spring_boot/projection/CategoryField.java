@@ -0,0 +1,29 @@
+package com.example.spring_boot.projection;
+
+import com.example.spring_boot.dto.CategoryDto;
+
+// Các trường có thể chọn qua fields= của GET /category
+public enum CategoryField {
+    categoryId,
+    name,
+    userId,
+    pendingCount,
+    doneCount,
+    inprogressCount;
+
+    // Các trường đếm phải đọc bảng bộ đếm task_count; các trường còn lại chỉ cần bảng category
+    public boolean isCount() {
+        return this == pendingCount || this == doneCount || this == inprogressCount;
+    }
+
+    public Object read(CategoryDto category) {
+        return switch (this) {
+            case categoryId -> category.getCategoryId();
+            case name -> category.getName();
+            case userId -> category.getUserId();
+            case pendingCount -> category.getPendingCount();
+            case doneCount -> category.getDoneCount();
+            case inprogressCount -> category.getInprogressCount();
+        };
+    }
+}
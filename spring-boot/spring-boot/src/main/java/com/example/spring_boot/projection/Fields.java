@@ -0,0 +1,31 @@
+package com.example.spring_boot.projection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class Fields {
+    private Fields() {
+    }
+
+    // "title,startTime" -> [title, startTime]; giữ thứ tự của tham số, bỏ trùng lặp
+    public static <E extends Enum<E>> List<E> parse(String value, Class<E> type) {
+        Set<E> fields = new LinkedHashSet<>();
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                fields.add(Enum.valueOf(type, trimmed));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed);
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("fields is empty");
+        }
+        return new ArrayList<>(fields);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.spring_boot.projection;
+
+import com.example.spring_boot.dto.CategoryNameDto;
+import com.example.spring_boot.dto.RecurrenceDto;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.Frequency;
+import com.example.spring_boot.recurrence.RecurrenceExpander;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Các trường có thể chọn qua tham số fields= của GET /task. Mỗi trường biết các cột JPQL cần đọc
+ * và cách dựng lại giá trị JSON từ các cột đó hoặc từ một TaskDto (lần lặp sinh ra từ chuỗi).
+ */
+public enum TaskField {
+    taskId("t.taskId"),
+    categoryId("t.category.categoryId"),
+    // Chỉ id và tên; không kèm userId và các bộ đếm luôn bằng 0 như CategoryDto
+    category("t.category.categoryId", "t.category.name"),
+    title("t.title"),
+    description("t.description"),
+    priority("t.priority"),
+    status("t.status"),
+    startTime("t.startTime"),
+    createdTime("t.createdAt"),
+    userId("t.user.userId"),
+    version("t.version"),
+    recurrence("t.recurrence.frequency", "t.recurrence.interval", "t.recurrence.weekdays",
+            "t.recurrence.until", "t.recurrence.count"),
+    // Chỉ có giá trị với lần lặp, task lưu trong bảng luôn là null
+    occurrenceStart();
+
+    // format=compact không kèm fields=: mọi trường của TaskDto trừ categoryId/userId (đã có trong category và URL)
+    public static final List<TaskField> COMPACT_DEFAULT = List.of(taskId, category, title, description, priority,
+            status, startTime, createdTime, version, recurrence, occurrenceStart);
+
+    private final String[] columns;
+
+    TaskField(String... columns) {
+        this.columns = columns;
+    }
+
+    public String[] getColumns() {
+        return columns;
+    }
+
+    // Giá trị của trường từ các cột bắt đầu tại offset trong một dòng kết quả
+    public Object read(Object[] row, int offset) {
+        return switch (this) {
+            case category -> new CategoryNameDto((Integer) row[offset], (String) row[offset + 1]);
+            case priority, status -> ((Enum<?>) row[offset]).name();
+            case recurrence -> row[offset] == null ? null : new RecurrenceDto(((Frequency) row[offset]).name(),
+                    (Integer) row[offset + 1], RecurrenceExpander.toWeekdayList((Integer) row[offset + 2]),
+                    (LocalDate) row[offset + 3], (Integer) row[offset + 4]);
+            case occurrenceStart -> null;
+            default -> row[offset];
+        };
+    }
+
+    public Object read(TaskDto task) {
+        return switch (this) {
+            case taskId -> task.getTaskId();
+            case categoryId -> task.getCategoryId();
+            case category -> new CategoryNameDto(task.getCategory().getCategoryId(), task.getCategory().getName());
+            case title -> task.getTitle();
+            case description -> task.getDescription();
+            case priority -> task.getPriority();
+            case status -> task.getStatus();
+            case startTime -> task.getStartTime();
+            case createdTime -> task.getCreatedTime();
+            case userId -> task.getUserId();
+            case version -> task.getVersion();
+            case recurrence -> task.getRecurrence();
+            case occurrenceStart -> task.getOccurrenceStart();
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.spring_boot.projection;
+
+import com.example.spring_boot.dto.TaskDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Danh sách cột JPQL cho một tập trường. Sau các cột của trường luôn có thêm t.startTime và t.taskId
+ * để phân trang theo cursor và trộn với các lần lặp, kể cả khi client không chọn hai trường này.
+ */
+public final class TaskProjection {
+    private final List<TaskField> fields;
+    // Tổng số cột của các trường được chọn, cũng là vị trí của startTime trong dòng kết quả
+    private final int width;
+
+    public TaskProjection(List<TaskField> fields) {
+        this.fields = List.copyOf(fields);
+        int columns = 0;
+        for (TaskField field : fields) {
+            columns += field.getColumns().length;
+        }
+        this.width = columns;
+    }
+
+    public List<TaskField> getFields() {
+        return fields;
+    }
+
+    public String selectClause() {
+        StringBuilder select = new StringBuilder();
+        for (TaskField field : fields) {
+            for (String column : field.getColumns()) {
+                select.append(column).append(", ");
+            }
+        }
+        return select.append("t.startTime, t.taskId").toString();
+    }
+
+    public Object[] values(Object[] row) {
+        Object[] values = new Object[fields.size()];
+        int offset = 0;
+        for (int i = 0; i < values.length; i++) {
+            TaskField field = fields.get(i);
+            values[i] = field.read(row, offset);
+            offset += field.getColumns().length;
+        }
+        return values;
+    }
+
+    public Object[] values(TaskDto task) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = fields.get(i).read(task);
+        }
+        return values;
+    }
+
+    public LocalDateTime startTime(Object[] row) {
+        return (LocalDateTime) row[width];
+    }
+
+    public Integer taskId(Object[] row) {
+        return (Integer) row[width + 1];
+    }
+}
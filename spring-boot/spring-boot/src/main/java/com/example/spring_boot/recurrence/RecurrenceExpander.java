@@ -0,0 +1,171 @@
+package com.example.spring_boot.recurrence;
+
+import com.example.spring_boot.entity.Frequency;
+import com.example.spring_boot.entity.RecurrenceRule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sinh các lần lặp của một chuỗi trong một khoảng thời gian. Vị trí của khoảng được tính thẳng bằng số học
+ * (số ngày/tuần/tháng kể từ lần đầu) nên chi phí chỉ tỉ lệ với số lần lặp nằm trong khoảng,
+ * không phụ thuộc chuỗi đã chạy bao lâu.
+ */
+public final class RecurrenceExpander {
+    // Giới hạn count để lastOccurrence luôn rẻ khi ghi
+    public static final int MAX_COUNT = 5000;
+
+    private RecurrenceExpander() {
+    }
+
+    // Các lần lặp t (tăng dần) với from <= t < to, không trước seriesStart và không sau seriesEnd (nếu có)
+    public static List<LocalDateTime> expand(RecurrenceRule rule, LocalDateTime seriesStart, LocalDateTime seriesEnd,
+                                             LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        LocalDateTime end = seriesEnd != null && seriesEnd.isBefore(to) ? seriesEnd.plusNanos(1) : to;
+        LocalDateTime start = from.isAfter(seriesStart) ? from : seriesStart;
+        if (start.isBefore(end)) {
+            generate(rule, seriesStart, start, end, Integer.MAX_VALUE, occurrences::add);
+        }
+        return occurrences;
+    }
+
+    public static boolean isOccurrence(RecurrenceRule rule, LocalDateTime seriesStart, LocalDateTime seriesEnd,
+                                       LocalDateTime start) {
+        return !expand(rule, seriesStart, seriesEnd, start, start.plusNanos(1)).isEmpty();
+    }
+
+    // Lần lặp cuối theo until/count; null khi chuỗi không giới hạn
+    public static LocalDateTime lastOccurrence(RecurrenceRule rule, LocalDateTime seriesStart) {
+        if (rule.getCount() == null) {
+            // Không cần duyệt: mọi lần lặp đều <= cuối ngày until
+            return rule.getUntil() != null ? rule.getUntil().atTime(LocalTime.MAX) : null;
+        }
+        LocalDateTime to = rule.getUntil() != null ? rule.getUntil().plusDays(1).atStartOfDay() : LocalDateTime.MAX;
+        LocalDateTime[] last = {null};
+        generate(rule, seriesStart, seriesStart, to, rule.getCount(), occurrence -> last[0] = occurrence);
+        return last[0];
+    }
+
+    // Chuẩn hóa và kiểm tra quy tắc trước khi lưu: interval mặc định 1, weekly mặc định ngày của lần đầu
+    public static void normalize(RecurrenceRule rule, LocalDateTime seriesStart) {
+        if (rule.getFrequency() == null) {
+            throw new IllegalArgumentException("Recurrence frequency is required");
+        }
+        if (rule.getInterval() == null) {
+            rule.setInterval(1);
+        }
+        if (rule.getInterval() < 1) {
+            throw new IllegalArgumentException("Recurrence interval must be positive");
+        }
+        if (rule.getFrequency() == Frequency.weekly) {
+            if (rule.getWeekdays() == null || rule.getWeekdays() == 0) {
+                rule.setWeekdays(weekdayBit(seriesStart.getDayOfWeek()));
+            }
+            if (rule.getWeekdays() < 0 || rule.getWeekdays() > 0x7F) {
+                throw new IllegalArgumentException("Invalid recurrence weekdays");
+            }
+        } else {
+            rule.setWeekdays(null);
+        }
+        if (rule.getCount() != null && (rule.getCount() < 1 || rule.getCount() > MAX_COUNT)) {
+            throw new IllegalArgumentException("Recurrence count must be between 1 and " + MAX_COUNT);
+        }
+        if (rule.getUntil() != null && rule.getUntil().isBefore(seriesStart.toLocalDate())) {
+            throw new IllegalArgumentException("Recurrence 'until' is before the first occurrence");
+        }
+    }
+
+    public static int weekdayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    // Danh sách thứ theo ISO (1 = thứ Hai) <-> mặt nạ bit lưu trong repeat_weekdays
+    public static Integer toWeekdayMask(List<Integer> weekdays) {
+        if (weekdays == null) {
+            return null;
+        }
+        int mask = 0;
+        for (Integer day : weekdays) {
+            mask |= weekdayBit(DayOfWeek.of(day));
+        }
+        return mask;
+    }
+
+    public static List<Integer> toWeekdayList(Integer mask) {
+        if (mask == null) {
+            return null;
+        }
+        List<Integer> weekdays = new ArrayList<>();
+        for (int day = 1; day <= 7; day++) {
+            if ((mask & (1 << (day - 1))) != 0) {
+                weekdays.add(day);
+            }
+        }
+        return weekdays;
+    }
+
+    // Gọi consumer với tối đa maxCount lần lặp trong [from, to); from không được trước seriesStart
+    private static void generate(RecurrenceRule rule, LocalDateTime seriesStart, LocalDateTime from,
+                                 LocalDateTime to, int maxCount, Consumer<LocalDateTime> consumer) {
+        int step = rule.getInterval() == null ? 1 : rule.getInterval();
+        int emitted = 0;
+        switch (rule.getFrequency()) {
+            case daily -> {
+                long k = Math.floorDiv(ChronoUnit.DAYS.between(seriesStart, from), step);
+                for (LocalDateTime t = seriesStart.plusDays(k * step); t.isBefore(to) && emitted < maxCount;
+                     t = seriesStart.plusDays(++k * step)) {
+                    if (!t.isBefore(from)) {
+                        consumer.accept(t);
+                        emitted++;
+                    }
+                }
+            }
+            case monthly -> {
+                // plusMonths tính từ lần đầu nên ngày 31 rơi vào ngày cuối của tháng ngắn hơn
+                long k = Math.max(0, Math.floorDiv(ChronoUnit.MONTHS.between(seriesStart, from), step) - 1);
+                for (LocalDateTime t = seriesStart.plusMonths(k * step); t.isBefore(to) && emitted < maxCount;
+                     t = seriesStart.plusMonths(++k * step)) {
+                    if (!t.isBefore(from)) {
+                        consumer.accept(t);
+                        emitted++;
+                    }
+                }
+            }
+            case weekly -> {
+                int weekdays = rule.getWeekdays() == null || rule.getWeekdays() == 0
+                        ? weekdayBit(seriesStart.getDayOfWeek()) : rule.getWeekdays();
+                LocalDate firstWeek = seriesStart.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                LocalTime time = seriesStart.toLocalTime();
+                long week = Math.floorDiv(Math.floorDiv(ChronoUnit.DAYS.between(firstWeek, from.toLocalDate()), 7), step) * step;
+                while (emitted < maxCount) {
+                    LocalDate monday = firstWeek.plusWeeks(week);
+                    if (!monday.atStartOfDay().isBefore(to)) {
+                        return;
+                    }
+                    for (int day = 0; day < 7 && emitted < maxCount; day++) {
+                        if ((weekdays & (1 << day)) == 0) {
+                            continue;
+                        }
+                        LocalDateTime t = monday.plusDays(day).atTime(time);
+                        if (!t.isBefore(to)) {
+                            return;
+                        }
+                        if (!t.isBefore(from) && !t.isBefore(seriesStart)) {
+                            consumer.accept(t);
+                            emitted++;
+                        }
+                    }
+                    week += step;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.spring_boot.reminder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Một lần nhắc đang chờ trong ReminderQueue, theo (taskId, occurrenceStart); occurrenceStart null với task
+// không lặp. So sánh theo tham chiếu: dời giờ tạo đối tượng mới và đối tượng cũ còn trong heap bị bỏ qua khi tới lượt
+@Getter
+@AllArgsConstructor
+public class Reminder {
+    private final int taskId;
+    private final int userId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime remindAt;
+    // Lần lặp gốc của chuỗi; startTime khác nó khi lần lặp đã bị dời
+    private final LocalDateTime occurrenceStart;
+}
@@ -0,0 +1,36 @@
+package com.example.spring_boot.reminder;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// startTime của task đã thay đổi; ReminderScheduler cập nhật hàng đợi sau khi transaction commit.
+// startTime null nghĩa là task đã bị xóa; recurring nghĩa là chuỗi lặp (hoặc một lần lặp của nó) đã đổi
+// và các lần lặp trong cửa sổ phải sinh lại
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReminderEvent {
+    private Integer taskId;
+    private Integer userId;
+    private LocalDateTime startTime;
+    private boolean recurring;
+
+    public ReminderEvent(Integer taskId, Integer userId, LocalDateTime startTime) {
+        this(taskId, userId, startTime, false);
+    }
+
+    public static ReminderEvent removed(Integer taskId, Integer userId) {
+        return new ReminderEvent(taskId, userId, null);
+    }
+
+    public static ReminderEvent series(Integer taskId, Integer userId) {
+        return new ReminderEvent(taskId, userId, null, true);
+    }
+
+    public boolean isRemoved() {
+        return startTime == null && !recurring;
+    }
+}
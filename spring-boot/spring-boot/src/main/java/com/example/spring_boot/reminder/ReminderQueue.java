@@ -0,0 +1,82 @@
+package com.example.spring_boot.reminder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Hàng đợi ưu tiên theo thời điểm nhắc. Lấy các lần nhắc đến hạn là O(k log n) với k lần đến hạn,
+ * một tick không có gì đến hạn chỉ nhìn đỉnh heap. Dời giờ hoặc hủy không tìm trong heap mà chỉ đổi
+ * bản ghi trong map; bản cũ bị bỏ qua khi lên đỉnh và được dọn khi số bản cũ vượt số bản còn hiệu lực.
+ * Mỗi task có một lần nhắc, riêng chuỗi lặp có một lần nhắc cho mỗi lần lặp (theo occurrenceStart).
+ */
+public class ReminderQueue {
+    private static final Comparator<Reminder> ORDER = Comparator.comparing(Reminder::getRemindAt)
+            .thenComparingInt(Reminder::getTaskId);
+
+    private PriorityQueue<Reminder> heap = new PriorityQueue<>(ORDER);
+    // taskId -> occurrenceStart (null với task không lặp) -> lần nhắc còn hiệu lực
+    private final Map<Integer, Map<LocalDateTime, Reminder>> byTaskId = new HashMap<>();
+    private int size;
+
+    public synchronized void schedule(Reminder reminder) {
+        if (byTaskId.computeIfAbsent(reminder.getTaskId(), taskId -> new HashMap<>())
+                .put(reminder.getOccurrenceStart(), reminder) == null) {
+            size++;
+        }
+        heap.add(reminder);
+        compactIfNeeded();
+    }
+
+    // Hủy mọi lần nhắc của task (mọi lần lặp nếu là chuỗi)
+    public synchronized boolean cancel(int taskId) {
+        Map<LocalDateTime, Reminder> removed = byTaskId.remove(taskId);
+        if (removed != null) {
+            size -= removed.size();
+        }
+        compactIfNeeded();
+        return removed != null;
+    }
+
+    // Tối đa max lần nhắc có remindAt <= now, theo thứ tự thời gian
+    public synchronized List<Reminder> pollDue(LocalDateTime now, int max) {
+        List<Reminder> due = new ArrayList<>();
+        while (due.size() < max && !heap.isEmpty() && !heap.peek().getRemindAt().isAfter(now)) {
+            Reminder reminder = heap.poll();
+            Map<LocalDateTime, Reminder> reminders = byTaskId.get(reminder.getTaskId());
+            if (reminders != null && reminders.get(reminder.getOccurrenceStart()) == reminder) {
+                reminders.remove(reminder.getOccurrenceStart());
+                if (reminders.isEmpty()) {
+                    byTaskId.remove(reminder.getTaskId());
+                }
+                size--;
+                due.add(reminder);
+            }
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        byTaskId.clear();
+        heap.clear();
+        size = 0;
+    }
+
+    private void compactIfNeeded() {
+        if (heap.size() > 1024 && heap.size() > 2 * size) {
+            PriorityQueue<Reminder> compacted = new PriorityQueue<>(Math.max(1, size), ORDER);
+            for (Map<LocalDateTime, Reminder> reminders : byTaskId.values()) {
+                compacted.addAll(reminders.values());
+            }
+            heap = compacted;
+        }
+    }
+}
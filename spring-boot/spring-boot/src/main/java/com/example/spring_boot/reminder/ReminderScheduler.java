@@ -0,0 +1,314 @@
+package com.example.spring_boot.reminder;
+
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskReminderDto;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.service.RecurrenceService;
+import com.example.spring_boot.service.ReminderService;
+import com.example.spring_boot.shard.ShardContext;
+import com.example.spring_boot.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nhắc việc trước startTime một khoảng lead-time. Chỉ giữ trong bộ nhớ các task bắt đầu trước loadedUntil
+ * (cửa sổ kế tiếp, nạp bằng query theo khoảng trên index start_time); khi cửa sổ đã trôi qua một nửa thì
+ * nạp tiếp đoạn sau. createTask/updateTask/patch/xóa cập nhật hàng đợi qua ReminderEvent nên không phải quét lại.
+ * Sau khi khởi động, reload nạp lại cửa sổ; outbox bỏ qua các lần nhắc đã ghi trước đó.
+ * Khi sharding, cửa sổ được nạp từ mọi shard và mỗi lô ghi outbox tách theo shard của user.
+ * Chuỗi lặp được sinh thành từng lần lặp trong cửa sổ (RecurrenceService.forEachOccurrenceOfAllUsers: một query
+ * cho mọi chuỗi của cửa sổ, không query theo từng user). Chuỗi hay một lần lặp của nó đổi thì các lần nhắc
+ * của chuỗi bị hủy và tick kế tiếp sinh lại trong cửa sổ theo user của các chuỗi đã đổi, để listener không phải đọc DB.
+ * Cửa sổ được đọc từ DB ngoài lock rồi mới gộp vào hàng đợi, nên listener của các transaction ghi
+ * không phải đợi query nạp cửa sổ; task có event trong lúc nạp giữ theo event vì event mới hơn kết quả đọc.
+ */
+@Component
+public class ReminderScheduler {
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    RecurrenceService recurrenceService;
+    @Autowired
+    ReminderService reminderService;
+    @Autowired(required = false)
+    ShardRouter shardRouter;
+
+    @Value("${reminder.lead-time:PT10M}")
+    Duration leadTime;
+    @Value("${reminder.window:PT1H}")
+    Duration window;
+    @Value("${reminder.load-batch-size:10000}")
+    int loadBatchSize;
+    @Value("${reminder.outbox-batch-size:500}")
+    int outboxBatchSize;
+
+    private final ReminderQueue queue = new ReminderQueue();
+    // Giữ trong thời gian ngắn cho loadedUntil, loadingUntil và changedWhileLoading; không giữ khi đọc DB
+    private final ReentrantLock lock = new ReentrantLock();
+    // Mỗi lúc chỉ một lần nạp cửa sổ; tick gặp lần nạp đang chạy thì bỏ qua
+    private final ReentrantLock loadLock = new ReentrantLock();
+    // Mọi task có startTime < loadedUntil đều đã nằm trong hàng đợi; null = chưa nạp
+    private LocalDateTime loadedUntil;
+    // Đầu cuối của đoạn cửa sổ đang được nạp; null = không có lần nạp nào đang chạy
+    private LocalDateTime loadingUntil;
+    private final Set<Integer> changedWhileLoading = new HashSet<>();
+    // Chuỗi lặp đã đổi và chờ tick sinh lại lần lặp: taskId -> userId
+    private final Map<Integer, Integer> staleSeries = new HashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChange(ReminderEvent event) {
+        lock.lock();
+        try {
+            if (loadedUntil == null) {
+                return;
+            }
+            LocalDateTime until = loadedUntil;
+            if (loadingUntil != null) {
+                until = loadingUntil;
+                changedWhileLoading.add(event.getTaskId());
+            }
+            // Hủy cả các lần lặp khi chuỗi đổi thành task thường và ngược lại
+            queue.cancel(event.getTaskId());
+            staleSeries.remove(event.getTaskId());
+            if (event.isRecurring()) {
+                staleSeries.put(event.getTaskId(), event.getUserId());
+            } else if (!event.isRemoved() && event.getStartTime().isBefore(until)
+                    && !event.getStartTime().isBefore(LocalDateTime.now())) {
+                // Task dời ra ngoài cửa sổ sẽ được nạp lại khi cửa sổ tới
+                queue.schedule(reminder(event.getTaskId(), event.getUserId(), event.getStartTime(), null));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bỏ hàng đợi cũ và nạp cửa sổ bắt đầu từ now
+    public void reload(LocalDateTime now) {
+        loadLock.lock();
+        try {
+            lock.lock();
+            try {
+                queue.clear();
+                staleSeries.clear();
+                loadedUntil = now;
+            } finally {
+                lock.unlock();
+            }
+            extendWindow(now);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Ghi các lần nhắc đến hạn vào outbox theo lô; trả về số dòng đã ghi
+    public int tick(LocalDateTime now) {
+        LocalDateTime until;
+        lock.lock();
+        try {
+            until = loadedUntil;
+        } finally {
+            lock.unlock();
+        }
+        if (until == null) {
+            return 0;
+        }
+        if (loadLock.tryLock()) {
+            try {
+                if (until.isBefore(now.plus(leadTime).plus(window.dividedBy(2)))) {
+                    extendWindow(now);
+                }
+                refreshSeries(now);
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        int written = 0;
+        List<Reminder> due;
+        while (!(due = queue.pollDue(now, outboxBatchSize)).isEmpty()) {
+            try {
+                written += enqueue(due);
+            } catch (RuntimeException ex) {
+                // Trả lô về hàng đợi để tick sau thử lại
+                due.forEach(queue::schedule);
+                throw ex;
+            }
+        }
+        return written;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private int enqueue(List<Reminder> due) {
+        if (shardRouter == null) {
+            return writeOutbox(due);
+        }
+        Map<Integer, List<Reminder>> byShard = new TreeMap<>();
+        for (Reminder reminder : due) {
+            byShard.computeIfAbsent(shardRouter.shardOf(reminder.getUserId()), shard -> new ArrayList<>()).add(reminder);
+        }
+        int written = 0;
+        for (Map.Entry<Integer, List<Reminder>> entry : byShard.entrySet()) {
+            written += ShardContext.call(entry.getKey(), () -> writeOutbox(entry.getValue()));
+        }
+        return written;
+    }
+
+    // Trùng unique key nghĩa là instance khác vừa ghi một phần của lô: lô rollback, ghi lại thì câu SELECT
+    // thấy các dòng đó và bỏ qua như đã có trong outbox. Lần thứ hai vẫn lỗi thì tick trả lô về hàng đợi
+    private int writeOutbox(List<Reminder> reminders) {
+        try {
+            return reminderService.enqueue(reminders);
+        } catch (DataIntegrityViolationException ex) {
+            return reminderService.enqueue(reminders);
+        }
+    }
+
+    // Nạp các task bắt đầu trong [max(loadedUntil, now), now + lead-time + window) theo từng trang keyset.
+    // Gọi khi đang giữ loadLock
+    private void extendWindow(LocalDateTime now) {
+        LocalDateTime from;
+        LocalDateTime to = now.plus(leadTime).plus(window);
+        lock.lock();
+        try {
+            from = loadedUntil.isAfter(now) ? loadedUntil : now;
+            if (!from.isBefore(to)) {
+                return;
+            }
+            loadingUntil = to;
+        } finally {
+            lock.unlock();
+        }
+        List<Reminder> loaded = new ArrayList<>();
+        boolean completed = false;
+        try {
+            if (shardRouter == null) {
+                load(from, to, loaded);
+            } else {
+                shardRouter.forEachShard(() -> load(from, to, loaded));
+            }
+            completed = true;
+        } finally {
+            merge(completed ? loaded : null, to);
+        }
+    }
+
+    // Sinh lại lần lặp trong [now, loadedUntil) của các chuỗi đã đổi. Gọi khi đang giữ loadLock
+    private void refreshSeries(LocalDateTime now) {
+        Map<Integer, Integer> stale;
+        LocalDateTime until;
+        lock.lock();
+        try {
+            if (staleSeries.isEmpty()) {
+                return;
+            }
+            stale = new HashMap<>(staleSeries);
+            staleSeries.clear();
+            until = loadedUntil;
+            loadingUntil = until;
+        } finally {
+            lock.unlock();
+        }
+        List<Reminder> loaded = new ArrayList<>();
+        boolean completed = false;
+        try {
+            if (now.isBefore(until)) {
+                for (Integer userId : new HashSet<>(stale.values())) {
+                    if (shardRouter == null) {
+                        loadSeries(userId, now, until, stale.keySet(), loaded);
+                    } else {
+                        ShardContext.run(shardRouter.shardOf(userId),
+                                () -> loadSeries(userId, now, until, stale.keySet(), loaded));
+                    }
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // Để tick sau thử lại; chuỗi đã có event mới thì giữ theo event đó
+                lock.lock();
+                try {
+                    stale.forEach((taskId, userId) -> {
+                        if (!changedWhileLoading.contains(taskId)) {
+                            staleSeries.putIfAbsent(taskId, userId);
+                        }
+                    });
+                } finally {
+                    lock.unlock();
+                }
+            }
+            merge(completed ? loaded : null, until);
+        }
+    }
+
+    // Gộp kết quả đọc vào hàng đợi, bỏ các task đã có event trong lúc đọc; loaded null = lần đọc lỗi
+    private void merge(List<Reminder> loaded, LocalDateTime until) {
+        lock.lock();
+        try {
+            if (loaded != null) {
+                for (Reminder reminder : loaded) {
+                    if (!changedWhileLoading.contains(reminder.getTaskId())) {
+                        queue.schedule(reminder);
+                    }
+                }
+                loadedUntil = until;
+            }
+            loadingUntil = null;
+            changedWhileLoading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load(LocalDateTime from, LocalDateTime to, List<Reminder> loaded) {
+        List<TaskReminderDto> page = taskRepository.findStartingBetween(from, to, Limit.of(loadBatchSize));
+        while (!page.isEmpty()) {
+            for (TaskReminderDto task : page) {
+                loaded.add(reminder(task.getTaskId(), task.getUserId(), task.getStartTime(), null));
+            }
+            if (page.size() < loadBatchSize) {
+                break;
+            }
+            TaskReminderDto last = page.get(page.size() - 1);
+            page = taskRepository.findStartingAfter(last.getStartTime(), last.getTaskId(), to, Limit.of(loadBatchSize));
+        }
+        // Chuỗi lặp không có dòng cho từng lần lặp: đọc mọi chuỗi của cửa sổ một lần rồi sinh lần lặp trong bộ nhớ
+        recurrenceService.forEachOccurrenceOfAllUsers(from, to, occurrence -> loaded.add(reminder(occurrence)));
+    }
+
+    // Lần lặp trong [from, to) của các chuỗi taskIds của user, đã áp lần lặp bị dời/hủy
+    private void loadSeries(int userId, LocalDateTime from, LocalDateTime to, Set<Integer> taskIds,
+                            List<Reminder> loaded) {
+        recurrenceService.forEachOccurrence(userId, from, to, occurrence -> {
+            if (taskIds.contains(occurrence.getTaskId())) {
+                loaded.add(reminder(occurrence));
+            }
+        });
+    }
+
+    private Reminder reminder(TaskDto occurrence) {
+        return reminder(occurrence.getTaskId(), occurrence.getUserId(), occurrence.getStartTime(),
+                occurrence.getOccurrenceStart());
+    }
+
+    private Reminder reminder(int taskId, int userId, LocalDateTime startTime, LocalDateTime occurrenceStart) {
+        return new Reminder(taskId, userId, startTime, startTime.minus(leadTime), occurrenceStart);
+    }
+}
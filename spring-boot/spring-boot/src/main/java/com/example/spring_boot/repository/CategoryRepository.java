@@ -1,15 +1,64 @@
 package com.example.spring_boot.repository;
 
+import com.example.spring_boot.dto.CategoryNameDto;
+import com.example.spring_boot.dto.CategoryStatusCountDto;
 import com.example.spring_boot.entity.CategoryEntity;
 import org.springframework.beans.PropertyValues;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<CategoryEntity,Integer> {
     List<CategoryEntity> findByUserUserId(int userId);
     boolean existsByUserUserIdAndName(int userId, String name);
+    long countByUserUserIdAndCategoryIdIn(int userId, Collection<Integer> categoryIds);
 
+    // Keyset theo khóa chính để TaskCounterRepairJob đi qua mọi category theo từng lô nhỏ
+    @Query("SELECT c.categoryId FROM CategoryEntity c WHERE c.categoryId > :after ORDER BY c.categoryId")
+    List<Integer> findIdsAfter(@Param("after") int after, Limit limit);
+
+    // Chủ sở hữu, cho OwnershipGuard
+    @Query("SELECT c.user.userId FROM CategoryEntity c WHERE c.categoryId = :categoryId")
+    Optional<Integer> findOwnerIdById(@Param("categoryId") int categoryId);
+
+    // Chỉ id và tên, cho GET /category?fields= không có trường đếm
+    @Query("SELECT new com.example.spring_boot.dto.CategoryNameDto(c.categoryId, c.name) " +
+            "FROM CategoryEntity c WHERE c.user.userId = :userId ORDER BY c.categoryId")
+    List<CategoryNameDto> findNamesByUserId(@Param("userId") int userId);
+
+    // Đọc số task theo (category, status) từ bảng bộ đếm task_count: O(số category), không quét bảng task.
+    // LEFT JOIN để category chưa có task vẫn trả về một dòng với status = null
+    @Query("SELECT new com.example.spring_boot.dto.CategoryStatusCountDto(c.categoryId, c.name, tc.status, tc.taskCount) " +
+            "FROM CategoryEntity c LEFT JOIN TaskCounterEntity tc ON tc.categoryId = c.categoryId " +
+            "WHERE c.user.userId = :userId " +
+            "ORDER BY c.categoryId")
+    List<CategoryStatusCountDto> countTasksByCategoryAndStatus(@Param("userId") int userId);
+
+    // Như trên nhưng chỉ tính task thường có start_time trong [from, to); bộ đếm không chia theo thời gian
+    // nên phải đếm trên bảng task. Các lần lặp được cộng thêm ở service
+    @Query("SELECT new com.example.spring_boot.dto.CategoryStatusCountDto(c.categoryId, c.name, t.status, COUNT(t)) " +
+            "FROM CategoryEntity c LEFT JOIN TaskEntity t ON t.category = c " +
+            "AND t.startTime >= :from AND t.startTime < :to AND t.recurrence.frequency IS NULL " +
+            "WHERE c.user.userId = :userId " +
+            "GROUP BY c.categoryId, c.name, t.status ORDER BY c.categoryId")
+    List<CategoryStatusCountDto> countTasksByCategoryAndStatusInRange(@Param("userId") int userId,
+                                                                    @Param("from") LocalDateTime from,
+                                                                    @Param("to") LocalDateTime to);
+
+    // Category thay đổi sau một revision, dùng index (user_id, revision)
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT c FROM CategoryEntity c WHERE c.user.userId = :userId " +
+            "AND (c.revision > :revision OR (c.revision = :revision AND c.categoryId > :afterId)) " +
+            "ORDER BY c.revision, c.categoryId")
+    List<CategoryEntity> findChangedAfter(@Param("userId") int userId, @Param("revision") long revision,
+                                          @Param("afterId") int afterId, Limit limit);
 }
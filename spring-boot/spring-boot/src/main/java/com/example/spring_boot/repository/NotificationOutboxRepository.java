@@ -0,0 +1,17 @@
+package com.example.spring_boot.repository;
+
+import com.example.spring_boot.entity.NotificationOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntity, Long> {
+    // Các dòng đã có của một lô: chỉ các task và startTime của lô, không đọc mọi lần nhắc cũ của chuỗi lặp
+    List<NotificationOutboxEntity> findByTypeAndTaskIdInAndStartTimeIn(String type, Collection<Integer> taskIds,
+                                                                       Collection<LocalDateTime> startTimes);
+    List<NotificationOutboxEntity> findByUserIdOrderByOutboxId(Integer userId);
+}
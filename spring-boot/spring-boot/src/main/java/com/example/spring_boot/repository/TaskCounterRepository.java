@@ -0,0 +1,44 @@
+package com.example.spring_boot.repository;
+
+import com.example.spring_boot.entity.TaskCounterEntity;
+import com.example.spring_boot.entity.TaskCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskCounterRepository extends JpaRepository<TaskCounterEntity, TaskCounterId> {
+    // Upsert nguyên tử, không cần đọc trước và không bị trùng khóa khi hai request cùng tạo dòng mới
+    @Modifying
+    @Query(value = "INSERT INTO task_count (category_id, status, task_count) VALUES (:categoryId, :status, :delta) " +
+            "ON DUPLICATE KEY UPDATE task_count = task_count + :delta", nativeQuery = true)
+    int increment(@Param("categoryId") int categoryId, @Param("status") String status, @Param("delta") long delta);
+
+    List<TaskCounterEntity> findByCategoryIdIn(Collection<Integer> categoryIds);
+
+    // Số task thật của các category trong lô, cùng dạng với dòng bộ đếm để so sánh
+    @Query("SELECT new com.example.spring_boot.entity.TaskCounterEntity(t.category.categoryId, t.status, COUNT(t)) " +
+            "FROM TaskEntity t WHERE t.category.categoryId IN :categoryIds GROUP BY t.category.categoryId, t.status")
+    List<TaskCounterEntity> countTasks(@Param("categoryIds") Collection<Integer> categoryIds);
+
+    // 1 khi bảng task_count trống nhưng đã có task: database nâng cấp từ bản chưa có bộ đếm
+    @Query(value = "SELECT CASE WHEN NOT EXISTS (SELECT 1 FROM task_count) AND EXISTS (SELECT 1 FROM task) " +
+            "THEN 1 ELSE 0 END", nativeQuery = true)
+    int countersMissing();
+
+    @Modifying
+    @Query(value = "DELETE FROM task_count WHERE category_id IN (:categoryIds)", nativeQuery = true)
+    int deleteCounters(@Param("categoryIds") Collection<Integer> categoryIds);
+
+    // Chỉ quét task của các category trong lô qua index category_id, không quét cả bảng task
+    @Modifying
+    @Query(value = "INSERT INTO task_count (category_id, status, task_count) " +
+            "SELECT category_id, status, COUNT(*) FROM task WHERE category_id IN (:categoryIds) " +
+            "GROUP BY category_id, status", nativeQuery = true)
+    int insertCountsFromTasks(@Param("categoryIds") Collection<Integer> categoryIds);
+}
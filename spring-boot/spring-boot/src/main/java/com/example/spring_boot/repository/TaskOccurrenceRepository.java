@@ -0,0 +1,37 @@
+package com.example.spring_boot.repository;
+
+import com.example.spring_boot.entity.TaskOccurrenceEntity;
+import com.example.spring_boot.entity.TaskOccurrenceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskOccurrenceRepository extends JpaRepository<TaskOccurrenceEntity, TaskOccurrenceId> {
+    // Ngoại lệ có thời điểm gốc hoặc thời điểm sau khi dời nằm trong [from, to), dùng hai index theo user
+    @Query("SELECT o FROM TaskOccurrenceEntity o WHERE o.userId = :userId " +
+            "AND ((o.occurrenceStart >= :from AND o.occurrenceStart < :to) " +
+            "OR (o.startTime >= :from AND o.startTime < :to))")
+    List<TaskOccurrenceEntity> findInRange(@Param("userId") Integer userId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    // Như findInRange nhưng theo các chuỗi thay vì theo user; task_id là đầu khóa chính
+    @Query("SELECT o FROM TaskOccurrenceEntity o WHERE o.taskId IN :taskIds " +
+            "AND ((o.occurrenceStart >= :from AND o.occurrenceStart < :to) " +
+            "OR (o.startTime >= :from AND o.startTime < :to))")
+    List<TaskOccurrenceEntity> findInRangeByTaskIds(@Param("taskIds") Collection<Integer> taskIds,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    // Quy tắc lặp đổi hoặc task bị xóa thì các ngoại lệ cũ không còn ý nghĩa
+    @Modifying
+    @Query("DELETE FROM TaskOccurrenceEntity o WHERE o.taskId = :taskId")
+    int deleteByTaskId(@Param("taskId") Integer taskId);
+}
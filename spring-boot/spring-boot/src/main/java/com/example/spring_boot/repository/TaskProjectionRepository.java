@@ -0,0 +1,17 @@
+package com.example.spring_boot.repository;
+
+import com.example.spring_boot.projection.TaskProjection;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Truy vấn chỉ đọc các cột của fields=; câu SELECT được dựng theo tập trường nên không khai báo bằng @Query
+public interface TaskProjectionRepository {
+    // Task thường trong [from, to) theo start_time, tối đa limit dòng, như findByUserIdAndStartTimeRange
+    List<Object[]> findProjectedInRange(Integer userId, TaskProjection projection,
+                                        LocalDateTime from, LocalDateTime to, int limit);
+
+    // Một trang keyset theo (start_time, task_id), như findFirstPage/findPageAfter; afterStartTime null = trang đầu
+    List<Object[]> findProjectedPage(Integer userId, TaskProjection projection,
+                                     LocalDateTime afterStartTime, Integer afterTaskId, int limit);
+}
@@ -0,0 +1,43 @@
+package com.example.spring_boot.repository;
+
+import com.example.spring_boot.projection.TaskProjection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class TaskProjectionRepositoryImpl implements TaskProjectionRepository {
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findProjectedInRange(Integer userId, TaskProjection projection,
+                                               LocalDateTime from, LocalDateTime to, int limit) {
+        return entityManager.createQuery("SELECT " + projection.selectClause() + " FROM TaskEntity t " +
+                        "WHERE t.user.userId = :userId AND t.startTime >= :from AND t.startTime < :to " +
+                        "AND t.recurrence.frequency IS NULL ORDER BY t.startTime", Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Object[]> findProjectedPage(Integer userId, TaskProjection projection,
+                                            LocalDateTime afterStartTime, Integer afterTaskId, int limit) {
+        String after = afterStartTime == null ? ""
+                : "AND (t.startTime > :startTime OR (t.startTime = :startTime AND t.taskId > :taskId)) ";
+        TypedQuery<Object[]> query = entityManager.createQuery("SELECT " + projection.selectClause() +
+                " FROM TaskEntity t WHERE t.user.userId = :userId " + after +
+                "ORDER BY t.startTime, t.taskId", Object[].class);
+        query.setParameter("userId", userId);
+        if (afterStartTime != null) {
+            query.setParameter("startTime", afterStartTime);
+            query.setParameter("taskId", afterTaskId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
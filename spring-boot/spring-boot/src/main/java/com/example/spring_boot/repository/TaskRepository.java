@@ -1,12 +1,177 @@
 package com.example.spring_boot.repository;
 
+import com.example.spring_boot.dto.TaskDayCountDto;
+import com.example.spring_boot.dto.TaskExportDto;
+import com.example.spring_boot.dto.TaskReminderDto;
+import com.example.spring_boot.dto.TaskTextDto;
+import com.example.spring_boot.dto.TaskVersionDto;
+import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.Status;
 import com.example.spring_boot.entity.TaskEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<TaskEntity,Integer> {
+public interface TaskRepository extends JpaRepository<TaskEntity,Integer>, TaskProjectionRepository {
+    // Fetch sẵn category, category.user và user để TaskMapper.toDto không phát sinh N+1 query
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
     List<TaskEntity> findByUserUserId(Integer userId);
+
+    // Khoảng nửa mở [from, to) trên start_time, dùng index (user_id, start_time).
+    // Chỉ task thường; task lặp được sinh từ findSeriesByUserId. limit chặn số dòng đọc khi khoảng quá dày
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.user.userId = :userId " +
+            "AND t.startTime >= :from AND t.startTime < :to AND t.recurrence.frequency IS NULL ORDER BY t.startTime")
+    List<TaskEntity> findByUserIdAndStartTimeRange(@Param("userId") Integer userId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   Limit limit);
+
+    // Các chuỗi lặp có thể có lần lặp trong [from, to), dùng index (user_id, repeat_frequency)
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.user.userId = :userId AND t.recurrence.frequency IS NOT NULL " +
+            "AND t.startTime < :to AND (t.recurrenceEnd IS NULL OR t.recurrenceEnd >= :from)")
+    List<TaskEntity> findSeriesInRange(@Param("userId") Integer userId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    // Như findSeriesInRange cho mọi user: ReminderScheduler sinh lần lặp của cả cửa sổ từ một query
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.recurrence.frequency IS NOT NULL " +
+            "AND t.startTime < :to AND (t.recurrenceEnd IS NULL OR t.recurrenceEnd >= :from)")
+    List<TaskEntity> findAllSeriesInRange(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    // Keyset pagination theo (start_time, task_id): InnoDB gắn sẵn khóa chính vào index
+    // (user_id, start_time) nên trang N cũng chỉ là một lần seek trên index như trang 1
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.user.userId = :userId " +
+            "ORDER BY t.startTime, t.taskId")
+    List<TaskEntity> findFirstPage(@Param("userId") Integer userId, Limit limit);
+
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.user.userId = :userId " +
+            "AND (t.startTime > :startTime OR (t.startTime = :startTime AND t.taskId > :taskId)) " +
+            "ORDER BY t.startTime, t.taskId")
+    List<TaskEntity> findPageAfter(@Param("userId") Integer userId,
+                                   @Param("startTime") LocalDateTime startTime,
+                                   @Param("taskId") Integer taskId,
+                                   Limit limit);
+
+    // taskId nguồn đã được import cho user, để import chạy lại bỏ qua các dòng đã ghi
+    @Query("SELECT t.importSourceId FROM TaskEntity t WHERE t.user.userId = :userId AND t.importSourceId IN :sourceIds")
+    List<Integer> findImportedSourceIds(@Param("userId") Integer userId,
+                                        @Param("sourceIds") Collection<Integer> sourceIds);
+
+    // Chủ sở hữu, cho OwnershipGuard
+    @Query("SELECT t.user.userId FROM TaskEntity t WHERE t.taskId = :taskId")
+    Optional<Integer> findOwnerIdById(@Param("taskId") Integer taskId);
+
+    @Query("SELECT new com.example.spring_boot.dto.TaskVersionDto(t.category.categoryId, t.user.userId, t.status, t.version, " +
+            "t.recurrence.frequency, t.user.revision) " +
+            "FROM TaskEntity t WHERE t.taskId = :taskId")
+    Optional<TaskVersionDto> findVersionById(@Param("taskId") Integer taskId);
+
+    // Một câu UPDATE có điều kiện: version (nếu client gửi) và startTime chỉ đổi được trên task không lặp;
+    // trả về 0 khi không thỏa
+    @Modifying
+    @Query("UPDATE TaskEntity t SET t.status = COALESCE(:status, t.status), " +
+            "t.priority = COALESCE(:priority, t.priority), " +
+            "t.startTime = COALESCE(:startTime, t.startTime), " +
+            "t.version = t.version + 1, " +
+            "t.revision = :revision " +
+            "WHERE t.taskId = :taskId AND (:version IS NULL OR t.version = :version) " +
+            "AND (:startTime IS NULL OR t.recurrence.frequency IS NULL)")
+    int patch(@Param("taskId") Integer taskId,
+              @Param("version") Long version,
+              @Param("revision") Long revision,
+              @Param("status") Status status,
+              @Param("priority") Priority priority,
+              @Param("startTime") LocalDateTime startTime);
+
+    // Task thay đổi sau một revision, dùng index (user_id, revision)
+    // Keyset theo (revision, taskId) sau con trỏ của /sync; nhiều dòng có thể cùng revision (dữ liệu cũ có revision 0)
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.user.userId = :userId " +
+            "AND (t.revision > :revision OR (t.revision = :revision AND t.taskId > :afterId)) " +
+            "ORDER BY t.revision, t.taskId")
+    List<TaskEntity> findChangedAfter(@Param("userId") Integer userId, @Param("revision") long revision,
+                                      @Param("afterId") int afterId, Limit limit);
+
+    // Kết quả tìm kiếm: các task theo id trong chỉ mục, lọc lại theo user
+    @EntityGraph(attributePaths = {"category", "category.user", "user"})
+    @Query("SELECT t FROM TaskEntity t WHERE t.user.userId = :userId AND t.taskId IN :taskIds")
+    List<TaskEntity> findByUserIdAndTaskIdIn(@Param("userId") Integer userId,
+                                             @Param("taskIds") Collection<Integer> taskIds);
+
+    // Text của task theo lô để dựng lại chỉ mục tìm kiếm
+    @Query("SELECT new com.example.spring_boot.dto.TaskTextDto(t.taskId, t.user.userId, t.title, t.description) " +
+            "FROM TaskEntity t WHERE t.taskId > :afterTaskId ORDER BY t.taskId")
+    List<TaskTextDto> findTextsAfter(@Param("afterTaskId") Integer afterTaskId, Limit limit);
+
+    // Số task theo ngày của start_time: một lần quét đoạn [from, to) trên index (user_id, start_time)
+    @Query("SELECT new com.example.spring_boot.dto.TaskDayCountDto(CAST(t.startTime AS LocalDate), COUNT(t)) " +
+            "FROM TaskEntity t WHERE t.user.userId = :userId AND t.startTime >= :from AND t.startTime < :to " +
+            "AND t.recurrence.frequency IS NULL GROUP BY CAST(t.startTime AS LocalDate)")
+    List<TaskDayCountDto> countByDay(@Param("userId") Integer userId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.example.spring_boot.dto.TaskDayCountDto(CAST(t.startTime AS LocalDate), t.status, COUNT(t)) " +
+            "FROM TaskEntity t WHERE t.user.userId = :userId AND t.startTime >= :from AND t.startTime < :to " +
+            "AND t.recurrence.frequency IS NULL GROUP BY CAST(t.startTime AS LocalDate), t.status")
+    List<TaskDayCountDto> countByDayAndStatus(@Param("userId") Integer userId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.example.spring_boot.dto.TaskDayCountDto(CAST(t.startTime AS LocalDate), t.priority, COUNT(t)) " +
+            "FROM TaskEntity t WHERE t.user.userId = :userId AND t.startTime >= :from AND t.startTime < :to " +
+            "AND t.recurrence.frequency IS NULL GROUP BY CAST(t.startTime AS LocalDate), t.priority")
+    List<TaskDayCountDto> countByDayAndPriority(@Param("userId") Integer userId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    // Task thường của mọi user bắt đầu trong [from, to), cho ReminderScheduler. Dùng index (start_time),
+    // keyset theo (start_time, task_id) để nạp cửa sổ theo từng trang
+    @Query("SELECT new com.example.spring_boot.dto.TaskReminderDto(t.taskId, t.user.userId, t.startTime) " +
+            "FROM TaskEntity t WHERE t.startTime >= :from AND t.startTime < :to " +
+            "AND t.recurrence.frequency IS NULL ORDER BY t.startTime, t.taskId")
+    List<TaskReminderDto> findStartingBetween(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              Limit limit);
+
+    @Query("SELECT new com.example.spring_boot.dto.TaskReminderDto(t.taskId, t.user.userId, t.startTime) " +
+            "FROM TaskEntity t WHERE (t.startTime > :startTime OR (t.startTime = :startTime AND t.taskId > :taskId)) " +
+            "AND t.startTime < :to AND t.recurrence.frequency IS NULL ORDER BY t.startTime, t.taskId")
+    List<TaskReminderDto> findStartingAfter(@Param("startTime") LocalDateTime startTime,
+                                            @Param("taskId") Integer taskId,
+                                            @Param("to") LocalDateTime to,
+                                            Limit limit);
+
+    // Export: đọc dần theo fetch size (MySQL cần useCursorFetch=true), projection nên không tạo entity.
+    // Thứ tự (start_time, task_id) đi theo index (user_id, start_time), không phải sort.
+    // Stream phải được đóng và dùng trong transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.spring_boot.dto.TaskExportDto(t.taskId, c.name, t.title, t.description, " +
+            "t.priority, t.status, t.startTime, t.createdAt, t.recurrence.frequency, t.recurrence.interval, " +
+            "t.recurrence.weekdays, t.recurrence.until, t.recurrence.count) " +
+            "FROM TaskEntity t JOIN t.category c WHERE t.user.userId = :userId ORDER BY t.startTime, t.taskId")
+    Stream<TaskExportDto> streamForExport(@Param("userId") Integer userId);
 }
@@ -0,0 +1,26 @@
+package com.example.spring_boot.repository;
+
+import com.example.spring_boot.entity.TombstoneEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<TombstoneEntity, Long> {
+    // Keyset theo (revision, tombstoneId) sau con trỏ của /sync
+    @Query("SELECT t FROM TombstoneEntity t WHERE t.userId = :userId " +
+            "AND (t.revision > :revision OR (t.revision = :revision AND t.tombstoneId > :afterId)) " +
+            "ORDER BY t.revision, t.tombstoneId")
+    List<TombstoneEntity> findChangedAfter(@Param("userId") int userId, @Param("revision") long revision,
+                                           @Param("afterId") long afterId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM TombstoneEntity t WHERE t.deletedAt < :before")
+    int deleteByDeletedAtBefore(@Param("before") LocalDateTime before);
+}
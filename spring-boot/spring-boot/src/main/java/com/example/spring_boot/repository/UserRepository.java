@@ -1,14 +1,54 @@
 package com.example.spring_boot.repository;
 
 import com.example.spring_boot.entity.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity,Integer> {
     Optional<UserEntity> findByUserName(String userName);
+    // Flush mode COMMIT: register gọi sau khi INSERT user lỗi, lúc session không flush lại được
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
     boolean existsByUserName(String userName);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.revision = u.revision + 1 WHERE u.userId = :userId")
+    int incrementRevision(@Param("userId") int userId);
+
+    // Như incrementRevision nhưng tìm user qua task, để PATCH không phải đọc task trước khi khóa dòng user
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.revision = u.revision + 1 WHERE u.userId = " +
+            "(SELECT t.user.userId FROM TaskEntity t WHERE t.taskId = :taskId)")
+    int incrementRevisionByTaskId(@Param("taskId") int taskId);
+
+    // Chủ của các category có bộ đếm vừa được sửa, để ETag cũ không còn trả 304 với số đếm sai
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.revision = u.revision + 1 WHERE u.userId IN " +
+            "(SELECT c.user.userId FROM CategoryEntity c WHERE c.categoryId IN :categoryIds)")
+    int incrementRevisionByCategoryIds(@Param("categoryIds") Collection<Integer> categoryIds);
+
+    @Query("SELECT u.revision FROM UserEntity u WHERE u.userId = :userId")
+    Optional<Long> findRevisionById(@Param("userId") int userId);
+
+    @Query("SELECT u.tombstonePurgedRevision FROM UserEntity u WHERE u.userId = :userId")
+    Optional<Long> findTombstonePurgedRevisionById(@Param("userId") int userId);
+
+    // Ghi lại revision lớn nhất trong các tombstone sắp bị xóa, trước khi xóa chúng
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.tombstonePurgedRevision = " +
+            "(SELECT MAX(t.revision) FROM TombstoneEntity t WHERE t.userId = u.userId AND t.deletedAt < :before) " +
+            "WHERE u.userId IN (SELECT t.userId FROM TombstoneEntity t WHERE t.deletedAt < :before)")
+    int markTombstonesPurged(@Param("before") LocalDateTime before);
 }
@@ -0,0 +1,25 @@
+package com.example.spring_boot.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Text của task đã thay đổi; chỉ mục được cập nhật sau khi transaction commit.
+// title và description null nghĩa là task đã bị xóa
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskIndexEvent {
+    private Integer taskId;
+    private Integer userId;
+    private String title;
+    private String description;
+
+    public static TaskIndexEvent removed(Integer taskId, Integer userId) {
+        return new TaskIndexEvent(taskId, userId, null, null);
+    }
+
+    public boolean isRemoved() {
+        return title == null && description == null;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.spring_boot.search;
+
+import com.example.spring_boot.dto.TaskTextDto;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chỉ mục tìm kiếm full-text trên title/description, tách theo user và giữ trong bộ nhớ.
+ * Được dựng lại khi khởi động (TaskSearchIndexJob) và cập nhật dần qua TaskIndexEvent sau mỗi lần ghi.
+ */
+@Component
+public class TaskSearchIndex {
+    @Autowired
+    TaskRepository taskRepository;
+    // Chỉ có khi cấu hình sharding.urls
+    @Autowired(required = false)
+    ShardRouter shardRouter;
+
+    @Value("${search.rebuild-batch-size:10000}")
+    int rebuildBatchSize;
+
+    private volatile Map<Integer, UserSearchIndex> indexes = new ConcurrentHashMap<>();
+    // Event đến trong lúc rebuild, phát lại lên chỉ mục mới trước khi thay; null khi không rebuild.
+    // Khóa để không event nào lọt vào giữa lúc phát lại và lúc thay chỉ mục
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<TaskIndexEvent> pending;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChange(TaskIndexEvent event) {
+        lock.lock();
+        try {
+            apply(indexes, event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(int userId, int taskId, String title, String description) {
+        put(indexes, userId, taskId, title, description);
+    }
+
+    public void remove(int userId, int taskId) {
+        UserSearchIndex index = indexes.get(userId);
+        if (index != null) {
+            index.remove(taskId);
+        }
+    }
+
+    // Danh sách taskId của user, xếp theo độ liên quan giảm dần
+    public List<Integer> search(int userId, String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        UserSearchIndex index = indexes.get(userId);
+        if (tokens.isEmpty() || index == null) {
+            return List.of();
+        }
+        return index.search(tokens, limit);
+    }
+
+    public int size() {
+        int size = 0;
+        for (UserSearchIndex index : indexes.values()) {
+            size += index.size();
+        }
+        return size;
+    }
+
+    // Đọc text theo từng lô (keyset trên task_id) và thay chỉ mục cũ khi đã dựng xong.
+    // Lô đã đọc không thấy các thay đổi commit sau đó, nên các event trong lúc dựng được phát lại theo thứ tự
+    public void rebuild() {
+        lock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        Map<Integer, UserSearchIndex> rebuilt = new ConcurrentHashMap<>();
+        boolean loaded = false;
+        try {
+            if (shardRouter == null) {
+                load(rebuilt);
+            } else {
+                shardRouter.forEachShard(() -> load(rebuilt));
+            }
+            loaded = true;
+        } finally {
+            lock.lock();
+            try {
+                if (loaded) {
+                    for (TaskIndexEvent event : pending) {
+                        apply(rebuilt, event);
+                    }
+                    indexes = rebuilt;
+                }
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void apply(Map<Integer, UserSearchIndex> target, TaskIndexEvent event) {
+        if (event.isRemoved()) {
+            UserSearchIndex index = target.get(event.getUserId());
+            if (index != null) {
+                index.remove(event.getTaskId());
+            }
+        } else {
+            put(target, event.getUserId(), event.getTaskId(), event.getTitle(), event.getDescription());
+        }
+    }
+
+    private static void put(Map<Integer, UserSearchIndex> target, int userId, int taskId, String title,
+                            String description) {
+        target.computeIfAbsent(userId, id -> new UserSearchIndex()).put(taskId, title, description);
+    }
+
+    private void load(Map<Integer, UserSearchIndex> rebuilt) {
+        int lastTaskId = 0;
+        List<TaskTextDto> batch;
+        do {
+            batch = taskRepository.findTextsAfter(lastTaskId, Limit.of(rebuildBatchSize));
+            for (TaskTextDto text : batch) {
+                put(rebuilt, text.getUserId(), text.getTaskId(), text.getTitle(), text.getDescription());
+                lastTaskId = text.getTaskId();
+            }
+        } while (batch.size() == rebuildBatchSize);
+    }
+}
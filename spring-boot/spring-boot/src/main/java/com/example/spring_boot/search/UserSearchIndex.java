@@ -0,0 +1,124 @@
+package com.example.spring_boot.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index của một user: từ -> (taskId -> trọng số). Từ được giữ trong TreeMap nên tìm theo
+ * tiền tố chỉ là một lần seek + duyệt đoạn liên tiếp, chi phí phụ thuộc số task của user chứ không
+ * phụ thuộc tổng số task trong hệ thống.
+ */
+class UserSearchIndex {
+    static final int TITLE_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    // Từ khớp nguyên vẹn được ưu tiên hơn từ chỉ khớp tiền tố
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    // Các từ của từng task, để gỡ chỉ mục cũ khi task được sửa hoặc xóa
+    private final Map<Integer, Map<String, Integer>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(int taskId, String title, String description) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : TextNormalizer.tokenize(title)) {
+            terms.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : TextNormalizer.tokenize(description)) {
+            terms.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+            documents.put(taskId, terms);
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(taskId, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int taskId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int taskId) {
+        Map<String, Integer> terms = documents.remove(taskId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Integer, Integer> tasks = postings.get(term);
+            tasks.remove(taskId);
+            if (tasks.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mọi từ trong câu tìm phải khớp (từ cuối thường đang gõ dở nên mọi từ đều khớp theo tiền tố).
+     * Điểm = tổng theo từng từ tìm của max(trọng số * idf) trên các từ khớp, task có điểm cao đứng trước.
+     */
+    List<Integer> search(List<String> queryTokens, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String token : queryTokens) {
+                Map<Integer, Double> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Map<Integer, Integer>> entry
+                        : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    double idf = Math.log(1 + (double) documents.size() / entry.getValue().size());
+                    double factor = entry.getKey().equals(token) ? 1 : PREFIX_FACTOR;
+                    for (Map.Entry<Integer, Integer> posting : entry.getValue().entrySet()) {
+                        if (scores != null && !scores.containsKey(posting.getKey())) {
+                            continue;
+                        }
+                        tokenScores.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+                    }
+                }
+                if (scores != null) {
+                    Map<Integer, Double> previous = scores;
+                    tokenScores.replaceAll((taskId, score) -> score + previous.get(taskId));
+                }
+                scores = tokenScores;
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (scores == null) {
+                return List.of();
+            }
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<Integer> taskIds = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                taskIds.add(ranked.get(i).getKey());
+            }
+            return taskIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
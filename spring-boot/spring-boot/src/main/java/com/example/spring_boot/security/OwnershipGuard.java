@@ -0,0 +1,56 @@
+package com.example.spring_boot.security;
+
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kiểm tra dữ liệu request chạm tới thuộc user của access token: userId trong body, task và category theo id.
+ * Sai chủ sở hữu ném AccessDeniedException, ExceptionTranslationFilter của Spring Security trả 403.
+ * Gọi trước khối try của controller để không bị nuốt thành 400. Request không có token (chỉ khi tắt
+ * auth.token.required) thì không kiểm tra gì, như trước đây.
+ */
+@Component
+public class OwnershipGuard {
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    public void checkUser(int userId) {
+        Integer principal = principal();
+        if (principal != null && principal != userId) {
+            throw new AccessDeniedException("Token does not match userId");
+        }
+    }
+
+    // Task không tồn tại thì để service trả 404 như cũ
+    public void checkTask(int taskId) {
+        Integer principal = principal();
+        if (principal != null) {
+            taskRepository.findOwnerIdById(taskId).ifPresent(owner -> checkOwner(principal, owner));
+        }
+    }
+
+    public void checkCategory(int categoryId) {
+        Integer principal = principal();
+        if (principal != null) {
+            categoryRepository.findOwnerIdById(categoryId).ifPresent(owner -> checkOwner(principal, owner));
+        }
+    }
+
+    private static void checkOwner(Integer principal, Integer owner) {
+        if (!principal.equals(owner)) {
+            throw new AccessDeniedException("Resource does not belong to this user");
+        }
+    }
+
+    private static Integer principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof Integer userId ? userId : null;
+    }
+}
@@ -1,24 +1,57 @@
 package com.example.spring_boot.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+/**
+ * API: access token (TokenAuthenticationFilter). Actuator: chỉ /actuator/health mở; các endpoint còn lại
+ * (metrics, shards...) cần HTTP Basic của user có role ADMIN, khai báo bằng spring.security.user.name,
+ * spring.security.user.password (chuỗi BCrypt vì PasswordEncoder là BCrypt) và spring.security.user.roles=ADMIN.
+ * Không cấu hình mật khẩu thì không ai vào được. Có thể tách thêm bằng management.server.port để actuator
+ * chỉ nghe trên cổng nội bộ.
+ */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
         http
-                .csrf().disable()
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(authz -> authz
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService,
+                                           @Value("${auth.token.required:true}") boolean tokenRequired) throws Exception {
+        http
+                .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authz -> authz
                         .anyRequest().permitAll()
-                );
+                )
+                // Tạo filter tại đây (không phải @Component) để nó không bị đăng ký thêm lần nữa ngoài security chain
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, tokenRequired),
+                        UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
@@ -0,0 +1,64 @@
+package com.example.spring_boot.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Đọc header "Authorization: Bearer ..." và xác thực bằng TokenService.
+ * Token sai hoặc hết hạn trả 401; tham số userId khác với user trong token trả 403. Task/category theo id
+ * trên path và userId trong body được OwnershipGuard kiểm tra ở controller.
+ * Mặc định (auth.token.required=true) API thiếu token trả 401; chỉ khi tắt cờ này request không có token mới
+ * đi qua như cũ. /auth/** (đăng ký, đăng nhập) và các đường dẫn ngoài API không cần token.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+    private static final String API_PATH = "/schedule-manager/";
+    private static final String AUTH_PATH = "/schedule-manager/auth/";
+
+    private final TokenService tokenService;
+    private final boolean required;
+
+    public TokenAuthenticationFilter(TokenService tokenService, boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER)) {
+            String path = request.getRequestURI();
+            if (required && path.startsWith(API_PATH) && !path.startsWith(AUTH_PATH)) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing access token");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Integer userId = tokenService.verify(header.substring(BEARER.length()).trim());
+        if (userId == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid access token");
+            return;
+        }
+        String requestedUserId = request.getParameter("userId");
+        if (requestedUserId != null && !requestedUserId.equals(String.valueOf(userId))) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Token does not match userId");
+            return;
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.spring_boot.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Access token không trạng thái dạng "userId.expiresAt.signature", ký bằng HMAC-SHA256.
+ * Kiểm tra token chỉ cần tính lại chữ ký, không truy vấn database và không chạy BCrypt.
+ */
+@Component
+public class TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(@Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.required:true}") boolean required,
+                        @Value("${auth.token.ttl-seconds:604800}") long ttlSeconds) {
+        this(checkSecret(secret, required), ttlSeconds, Clock.systemUTC());
+    }
+
+    TokenService(String secret, long ttlSeconds, Clock clock) {
+        // Chỉ khi tắt auth.token.required mới được thiếu secret: khóa ngẫu nhiên, token hết hiệu lực khi restart
+        byte[] keyBytes = secret == null || secret.isBlank() ? randomKey() : secret.getBytes(StandardCharsets.UTF_8);
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+    }
+
+    public String issue(int userId) {
+        String payload = userId + "." + (clock.instant().getEpochSecond() + ttlSeconds);
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Trả về userId nếu token hợp lệ và chưa hết hạn, ngược lại trả về null.
+     */
+    public Integer verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.');
+        int expiryStart = token.indexOf('.');
+        if (expiryStart <= 0 || signatureStart <= expiryStart) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(signatureStart + 1));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        try {
+            int userId = Integer.parseInt(payload.substring(0, expiryStart));
+            long expiresAt = Long.parseLong(payload.substring(expiryStart + 1));
+            return expiresAt > clock.instant().getEpochSecond() ? userId : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Bắt buộc token mà không có secret thì dừng khởi động, không lặng lẽ ký bằng khóa ngẫu nhiên
+    private static String checkSecret(String secret, boolean required) {
+        if (required && (secret == null || secret.isBlank())) {
+            throw new IllegalStateException("auth.token.secret must be set when auth.token.required=true");
+        }
+        return secret;
+    }
+
+    private static byte[] randomKey() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+}
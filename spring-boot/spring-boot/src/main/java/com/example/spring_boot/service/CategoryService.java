@@ -2,12 +2,17 @@ package com.example.spring_boot.service;
 
 import com.example.spring_boot.dto.CategoryDto;
 import com.example.spring_boot.dto.UserDto;
-import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.projection.CategoryField;
 
 import java.util.List;
+import java.util.Map;
 
 public interface CategoryService {
-    void createDefaultCategories(CategoryDto categoryDto);
+    // Chạy trong transaction đăng ký; revision của category lấy theo revision hiện tại của user
+    void createDefaultCategories(UserEntity user);
     CategoryDto createCategory(CategoryDto categoryDto);
     List<CategoryDto> getCategory(int userId);
+    // fields=: không chọn trường đếm thì không đọc bảng bộ đếm
+    List<Map<String, Object>> getCategoryFields(int userId, List<CategoryField> fields);
 }
@@ -0,0 +1,7 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.dto.DashboardDto;
+
+public interface DashboardService {
+    DashboardDto getDashboard(int userId, String date);
+}
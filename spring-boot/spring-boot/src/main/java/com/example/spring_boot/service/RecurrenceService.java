@@ -0,0 +1,20 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskOccurrenceDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface RecurrenceService {
+    // Các lần lặp của mọi chuỗi của user trong [from, to), đã áp ngoại lệ, sắp theo startTime.
+    // Quá limit lần lặp thì dừng sinh và ném IllegalArgumentException
+    List<TaskDto> expandOccurrences(Integer userId, LocalDateTime from, LocalDateTime to, int limit);
+    // Như expandOccurrences nhưng không gom thành danh sách, dùng cho thống kê trên khoảng rộng
+    void forEachOccurrence(Integer userId, LocalDateTime from, LocalDateTime to, Consumer<TaskDto> consumer);
+    // Như forEachOccurrence cho chuỗi của mọi user: một query chuỗi rồi ngoại lệ theo lô chuỗi, không query theo user
+    void forEachOccurrenceOfAllUsers(LocalDateTime from, LocalDateTime to, Consumer<TaskDto> consumer);
+    TaskDto updateOccurrence(int taskId, LocalDateTime occurrenceStart, TaskOccurrenceDto dto);
+    void cancelOccurrence(int taskId, LocalDateTime occurrenceStart);
+}
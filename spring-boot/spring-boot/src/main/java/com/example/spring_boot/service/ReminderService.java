@@ -0,0 +1,12 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.reminder.Reminder;
+
+import java.util.List;
+
+public interface ReminderService {
+    // Ghi một lô lần nhắc đến hạn vào notification_outbox trong một transaction.
+    // Lần nhắc đã có trong outbox (vd. nạp lại sau khi khởi động) bị bỏ qua.
+    // Instance khác ghi cùng lần nhắc sau câu SELECT của lô: DataIntegrityViolationException, cả lô rollback
+    int enqueue(List<Reminder> reminders);
+}
@@ -0,0 +1,14 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.dto.SyncDto;
+
+import java.time.LocalDateTime;
+
+public interface SyncService {
+    // Số dòng (task, category, tombstone) tối đa trong một trang /sync
+    int PAGE_SIZE = 2000;
+
+    SyncDto getChangesSince(int userId, Long since, String cursor);
+    // Xóa tombstone xóa trước before; trả về số dòng đã xóa
+    int purgeTombstones(LocalDateTime before);
+}
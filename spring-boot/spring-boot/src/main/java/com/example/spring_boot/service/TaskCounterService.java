@@ -0,0 +1,11 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.entity.Status;
+
+import java.util.List;
+
+public interface TaskCounterService {
+    void increment(int categoryId, Status status, long delta);
+    void move(int fromCategoryId, Status fromStatus, int toCategoryId, Status toStatus);
+    int repair(List<Integer> categoryIds);
+}
@@ -1,7 +1,14 @@
 package com.example.spring_boot.service;
 
+import com.example.spring_boot.dto.TaskDensityDto;
 import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskExportDto;
+import com.example.spring_boot.dto.TaskPageDto;
+import com.example.spring_boot.dto.TaskPatchDto;
+import com.example.spring_boot.dto.TaskRowsDto;
+import com.example.spring_boot.entity.Status;
 import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.projection.TaskField;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -9,10 +16,37 @@ import java.util.Map;
 
 @Service
 public interface TaskService {
+    int DEFAULT_PAGE_SIZE = 50;
+    int MAX_PAGE_SIZE = 500;
+    // Giới hạn cứng cho lời gọi GET /task không phân trang
+    int MAX_UNPAGED_TASKS = 2000;
+    int DEFAULT_SEARCH_LIMIT = 20;
+    int MAX_SEARCH_LIMIT = 100;
+    // /density trả tối đa một năm nhuận mỗi lần gọi
+    int MAX_DENSITY_DAYS = 366;
+    // /range và /statistics theo khoảng cũng vậy; /range còn trả tối đa MAX_UNPAGED_TASKS task và lần lặp
+    int MAX_RANGE_DAYS = 366;
+
     List<TaskDto> getTasksByUserId(Integer userId);
+    TaskPageDto getTaskPage(Integer userId, int limit, String cursor);
     List<TaskDto> getTasksByUserIdAndDate(Integer userId, String date);
+    List<TaskDto> getTasksByUserIdAndRange(Integer userId, String from, String to);
+    // Các bản fields=: chỉ đọc và trả các trường được chọn
+    TaskRowsDto getTaskRowPage(Integer userId, int limit, String cursor, List<TaskField> fields);
+    TaskRowsDto getTaskRowsByDate(Integer userId, String date, List<TaskField> fields);
+    TaskRowsDto getTaskRowsByRange(Integer userId, String from, String to, List<TaskField> fields);
+    List<TaskDto> searchTasks(Integer userId, String query, int limit);
+    TaskDensityDto getTaskDensity(Integer userId, String from, String to, String groupBy);
     TaskDto createTask(TaskDto taskDto);
-    Map<String, Map<String, Integer>> getTaskCountByCategoryAndStatus(Integer userId);
-    Map<String, Map<String, Integer>> getTaskStatisticsForCharts(Integer userId);
+    List<TaskDto> createTasks(Integer userId, List<TaskDto> taskDtos);
+    // Một lô import trong một transaction; category được tìm theo tên và tạo mới nếu chưa có.
+    // Dòng có taskId nguồn đã import cho user thì bỏ qua; trả về số task đã tạo
+    int importTasks(Integer userId, List<TaskExportDto> rows);
+    Map<String, Map<Status, Integer>> getTaskCountByCategoryAndStatus(Integer userId);
+    Map<String, Map<Status, Integer>> getTaskStatisticsForCharts(Integer userId);
+    // Thống kê các task và lần lặp có startTime trong [from, to)
+    Map<String, Map<Status, Integer>> getTaskStatisticsForCharts(Integer userId, String from, String to);
     TaskDto updateTask(int taskId,TaskDto dto);
+    long patchTask(int taskId, TaskPatchDto patch);
+    void deleteTask(int taskId);
 }
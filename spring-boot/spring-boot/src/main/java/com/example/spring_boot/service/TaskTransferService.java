@@ -0,0 +1,19 @@
+package com.example.spring_boot.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Sao lưu / chuyển tài khoản: export và import toàn bộ task của một user dạng stream
+public interface TaskTransferService {
+    String NDJSON = "ndjson";
+    String CSV = "csv";
+    // Số dòng mỗi transaction khi import
+    int IMPORT_CHUNK_SIZE = 1000;
+
+    // Giữ một chỗ export (mỗi export giữ một connection suốt lúc tải); ném RejectedExecutionException khi
+    // đã đủ số export đồng thời. Trả về hàm trả chỗ, gọi sau khi exportTasks xong
+    Runnable reserveExport();
+    void exportTasks(int userId, String format, OutputStream out) throws IOException;
+    int importTasks(int userId, String format, InputStream in) throws IOException;
+}
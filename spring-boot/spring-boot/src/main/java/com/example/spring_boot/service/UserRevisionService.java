@@ -0,0 +1,10 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.dto.TaskVersionDto;
+
+public interface UserRevisionService {
+    long bump(int userId);
+    TaskVersionDto bumpForTask(int taskId);
+    long getRevision(int userId);
+    String etag(int userId);
+}
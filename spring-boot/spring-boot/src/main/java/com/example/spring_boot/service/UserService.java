@@ -4,8 +4,11 @@ import com.example.spring_boot.dto.UserDto;
 import com.example.spring_boot.entity.UserEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public interface UserService {
     UserEntity register(UserDto userDto);
-    UserDto login(String userName, String password);
+    // Kiểm tra BCrypt chạy trên pool riêng; ném RejectedExecutionException khi pool quá tải
+    CompletableFuture<UserDto> login(String userName, String password);
 }
@@ -1,16 +1,27 @@
 package com.example.spring_boot.service.imp;
 
+import com.example.spring_boot.config.ReadYourWrites;
 import com.example.spring_boot.dto.CategoryDto;
 import com.example.spring_boot.dto.UserDto;
 import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.TombstoneEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.event.ChangeEvent;
 import com.example.spring_boot.mapper.CategoryMapper;
+import com.example.spring_boot.projection.CategoryField;
 import com.example.spring_boot.repository.CategoryRepository;
 import com.example.spring_boot.service.CategoryService;
+import com.example.spring_boot.service.UserRevisionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
@@ -18,19 +29,38 @@ public class CategoryServiceImpl implements CategoryService {
     CategoryRepository categoryRepository;
     @Autowired
     CategoryMapper categoryMapper;
+    @Autowired
+    UserRevisionService userRevisionService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    // Chỉ có khi cấu hình datasource.replica.url
+    @Autowired(required = false)
+    ReadYourWrites readYourWrites;
 
 
     @Override
-    public void createDefaultCategories(CategoryDto categoryDto) {
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createDefaultCategories(UserEntity user) {
         String[] defaultCategories = {"Personal", "Work", "Grocery List"};
+        List<CategoryEntity> categories = new ArrayList<>();
         for (String categoryName : defaultCategories) {
-            categoryDto.setName(categoryName);
-            CategoryEntity categoryEntity=categoryMapper.toEntity(categoryDto);
-            categoryRepository.save(categoryEntity);
+            CategoryEntity categoryEntity = categoryMapper.toEntity(categoryName, user);
+            categoryEntity.setRevision(user.getRevision());
+            categories.add(categoryEntity);
+        }
+        // Id lấy từ sequence nên ba câu INSERT được gửi thành một batch lúc commit
+        for (CategoryEntity categoryEntity : categoryRepository.saveAll(categories)) {
+            eventPublisher.publishEvent(new ChangeEvent(TombstoneEntity.CATEGORY, ChangeEvent.CREATED,
+                    categoryEntity.getCategoryId(), user.getUserId(), user.getRevision()));
+        }
+        // Đăng ký không tăng revision; lần đọc category đầu tiên sau đăng ký phải thấy ba category mặc định
+        if (readYourWrites != null) {
+            readYourWrites.written(user.getUserId());
         }
     }
 
     @Override
+    @Transactional
     public CategoryDto createCategory(CategoryDto categoryDto) {
 
 
@@ -39,16 +69,35 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         CategoryEntity category = categoryMapper.toEntity(categoryDto);
+        category.setRevision(userRevisionService.bump(categoryDto.getUserId()));
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new ChangeEvent(TombstoneEntity.CATEGORY, ChangeEvent.CREATED,
+                category.getCategoryId(), categoryDto.getUserId(), category.getRevision()));
         return categoryMapper.toDto(category);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CategoryDto> getCategory(int userId) {
+        return categoryMapper.toDtos(userId, categoryRepository.countTasksByCategoryAndStatus(userId));
+    }
 
-        return categoryRepository.findByUserUserId(userId)
-                .stream()
-                .map(categoryMapper::toDto)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCategoryFields(int userId, List<CategoryField> fields) {
+        boolean counts = fields.stream().anyMatch(CategoryField::isCount);
+        List<CategoryDto> categories = counts ? getCategory(userId)
+                : categoryRepository.findNamesByUserId(userId).stream()
+                .map(category -> new CategoryDto(category.getCategoryId(), category.getName(), userId, 0, 0, 0))
+                .toList();
+        List<Map<String, Object>> result = new ArrayList<>(categories.size());
+        for (CategoryDto category : categories) {
+            Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+            for (CategoryField field : fields) {
+                values.put(field.name(), field.read(category));
+            }
+            result.add(values);
+        }
+        return result;
     }
 }
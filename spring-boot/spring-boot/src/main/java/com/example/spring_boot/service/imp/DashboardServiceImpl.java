@@ -0,0 +1,53 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.dto.CategoryStatusCountDto;
+import com.example.spring_boot.dto.DashboardDto;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.mapper.CategoryMapper;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.service.DashboardService;
+import com.example.spring_boot.service.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+@Service
+public class DashboardServiceImpl implements DashboardService {
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    CategoryMapper categoryMapper;
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    Executor dashboardExecutor;
+
+    @Override
+    public DashboardDto getDashboard(int userId, String date) {
+        // Hai câu query độc lập chạy song song: bộ đếm theo category và task trong ngày
+        CompletableFuture<List<CategoryStatusCountDto>> counts = CompletableFuture.supplyAsync(
+                () -> categoryRepository.countTasksByCategoryAndStatus(userId), dashboardExecutor);
+        CompletableFuture<List<TaskDto>> tasks = CompletableFuture.supplyAsync(
+                () -> taskService.getTasksByUserIdAndDate(userId, date), dashboardExecutor);
+
+        try {
+            List<CategoryStatusCountDto> rows = counts.join();
+            // Danh sách category và thống kê biểu đồ dùng chung một kết quả
+            return new DashboardDto(
+                    categoryMapper.toDtos(userId, rows),
+                    categoryMapper.toStatusCountMap(rows),
+                    tasks.join());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
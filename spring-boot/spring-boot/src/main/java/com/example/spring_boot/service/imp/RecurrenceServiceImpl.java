@@ -0,0 +1,187 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskOccurrenceDto;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.TaskOccurrenceEntity;
+import com.example.spring_boot.entity.TaskOccurrenceId;
+import com.example.spring_boot.entity.TombstoneEntity;
+import com.example.spring_boot.event.ChangeEvent;
+import com.example.spring_boot.mapper.TaskMapper;
+import com.example.spring_boot.recurrence.RecurrenceExpander;
+import com.example.spring_boot.reminder.ReminderEvent;
+import com.example.spring_boot.repository.TaskOccurrenceRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.service.RecurrenceService;
+import com.example.spring_boot.service.UserRevisionService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Service
+public class RecurrenceServiceImpl implements RecurrenceService {
+    private static final int EXCEPTION_BATCH_SIZE = 1000;
+
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    TaskOccurrenceRepository taskOccurrenceRepository;
+    @Autowired
+    TaskMapper taskMapper;
+    @Autowired
+    UserRevisionService userRevisionService;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<TaskDto> expandOccurrences(Integer userId, LocalDateTime from, LocalDateTime to, int limit) {
+        List<TaskDto> occurrences = new ArrayList<>();
+        forEachOccurrence(userId, from, to, occurrence -> {
+            if (occurrences.size() >= limit) {
+                throw new IllegalArgumentException("Too many tasks in this range, use a shorter range");
+            }
+            occurrences.add(occurrence);
+        });
+        occurrences.sort(Comparator.comparing(TaskDto::getStartTime));
+        return occurrences;
+    }
+
+    @Override
+    public void forEachOccurrence(Integer userId, LocalDateTime from, LocalDateTime to, Consumer<TaskDto> consumer) {
+        List<TaskEntity> seriesList = taskRepository.findSeriesInRange(userId, from, to);
+        if (seriesList.isEmpty()) {
+            return;
+        }
+        // Chỉ đọc ngoại lệ khi user có chuỗi lặp trong khoảng
+        expand(seriesList, taskOccurrenceRepository.findInRange(userId, from, to), from, to, consumer);
+    }
+
+    @Override
+    public void forEachOccurrenceOfAllUsers(LocalDateTime from, LocalDateTime to, Consumer<TaskDto> consumer) {
+        List<TaskEntity> seriesList = taskRepository.findAllSeriesInRange(from, to);
+        List<TaskOccurrenceEntity> exceptions = new ArrayList<>();
+        // Danh sách IN theo lô để câu SQL không dài theo số chuỗi
+        for (int i = 0; i < seriesList.size(); i += EXCEPTION_BATCH_SIZE) {
+            List<Integer> taskIds = new ArrayList<>();
+            for (TaskEntity series : seriesList.subList(i, Math.min(i + EXCEPTION_BATCH_SIZE, seriesList.size()))) {
+                taskIds.add(series.getTaskId());
+            }
+            exceptions.addAll(taskOccurrenceRepository.findInRangeByTaskIds(taskIds, from, to));
+        }
+        expand(seriesList, exceptions, from, to, consumer);
+    }
+
+    // Sinh lần lặp trong [from, to) của seriesList và áp các ngoại lệ đã đọc cho các chuỗi đó
+    private void expand(List<TaskEntity> seriesList, List<TaskOccurrenceEntity> exceptionList,
+                        LocalDateTime from, LocalDateTime to, Consumer<TaskDto> consumer) {
+        Map<TaskOccurrenceId, TaskOccurrenceEntity> exceptions = new HashMap<>();
+        for (TaskOccurrenceEntity exception : exceptionList) {
+            exceptions.put(new TaskOccurrenceId(exception.getTaskId(), exception.getOccurrenceStart()), exception);
+        }
+
+        Map<Integer, TaskEntity> seriesById = new HashMap<>();
+        Map<Integer, TaskDto> seriesDtos = new HashMap<>();
+        for (TaskEntity series : seriesList) {
+            TaskDto seriesDto = taskMapper.toDto(series);
+            seriesById.put(series.getTaskId(), series);
+            seriesDtos.put(series.getTaskId(), seriesDto);
+            for (LocalDateTime occurrenceStart : RecurrenceExpander.expand(series.getRecurrence(),
+                    series.getStartTime(), series.getRecurrenceEnd(), from, to)) {
+                TaskOccurrenceEntity exception = exceptions.remove(new TaskOccurrenceId(series.getTaskId(), occurrenceStart));
+                // Lần lặp bị hủy hoặc đã dời ra ngoài khoảng
+                if (exception != null && (exception.isCancelled() || !inRange(exception.getStartTime(), from, to))) {
+                    continue;
+                }
+                consumer.accept(taskMapper.toOccurrenceDto(seriesDto, occurrenceStart, exception));
+            }
+        }
+
+        // Còn lại: lần lặp gốc nằm ngoài khoảng nhưng được dời vào trong
+        for (TaskOccurrenceEntity exception : exceptions.values()) {
+            TaskEntity series = seriesById.get(exception.getTaskId());
+            if (series == null || exception.isCancelled() || inRange(exception.getOccurrenceStart(), from, to)
+                    || !RecurrenceExpander.isOccurrence(series.getRecurrence(), series.getStartTime(),
+                    series.getRecurrenceEnd(), exception.getOccurrenceStart())) {
+                continue;
+            }
+            consumer.accept(taskMapper.toOccurrenceDto(seriesDtos.get(exception.getTaskId()),
+                    exception.getOccurrenceStart(), exception));
+        }
+    }
+
+    @Override
+    @Transactional
+    public TaskDto updateOccurrence(int taskId, LocalDateTime occurrenceStart, TaskOccurrenceDto dto) {
+        TaskEntity series = findSeries(taskId, occurrenceStart);
+        TaskOccurrenceEntity exception = findOrCreateException(series, occurrenceStart);
+        if (dto.getStatus() != null) {
+            exception.setStatus(Status.valueOf(dto.getStatus()));
+        }
+        if (dto.getStartTime() != null) {
+            // Giữ lần lặp trong khoảng của chuỗi để findSeriesInRange vẫn tìm thấy chuỗi khi đọc
+            if (dto.getStartTime().isBefore(series.getStartTime())
+                    || (series.getRecurrenceEnd() != null && dto.getStartTime().isAfter(series.getRecurrenceEnd()))) {
+                throw new IllegalArgumentException("Occurrence cannot be moved outside its series");
+            }
+            exception.setStartTime(dto.getStartTime());
+        }
+        exception.setCancelled(false);
+        taskOccurrenceRepository.save(exception);
+        publishOccurrenceEvent(series);
+        return taskMapper.toOccurrenceDto(taskMapper.toDto(series), occurrenceStart, exception);
+    }
+
+    @Override
+    @Transactional
+    public void cancelOccurrence(int taskId, LocalDateTime occurrenceStart) {
+        TaskEntity series = findSeries(taskId, occurrenceStart);
+        TaskOccurrenceEntity exception = findOrCreateException(series, occurrenceStart);
+        exception.setCancelled(true);
+        taskOccurrenceRepository.save(exception);
+        publishOccurrenceEvent(series);
+    }
+
+    private TaskEntity findSeries(int taskId, LocalDateTime occurrenceStart) {
+        TaskEntity series = taskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
+        if (series.getRecurrence() == null) {
+            throw new IllegalArgumentException("Task " + taskId + " is not recurring");
+        }
+        if (!RecurrenceExpander.isOccurrence(series.getRecurrence(), series.getStartTime(),
+                series.getRecurrenceEnd(), occurrenceStart)) {
+            throw new IllegalArgumentException("Task " + taskId + " has no occurrence at " + occurrenceStart);
+        }
+        return series;
+    }
+
+    private TaskOccurrenceEntity findOrCreateException(TaskEntity series, LocalDateTime occurrenceStart) {
+        return taskOccurrenceRepository.findById(new TaskOccurrenceId(series.getTaskId(), occurrenceStart))
+                .orElseGet(() -> new TaskOccurrenceEntity(series.getTaskId(), occurrenceStart,
+                        series.getUser().getUserId(), occurrenceStart, null, false));
+    }
+
+    // Đổi revision để ETag của các lần đọc theo ngày/khoảng hết hạn; dòng task của chuỗi không đổi.
+    // Lần lặp bị dời hoặc hủy thì lần nhắc của nó cũng đổi theo
+    private void publishOccurrenceEvent(TaskEntity series) {
+        int userId = series.getUser().getUserId();
+        long revision = userRevisionService.bump(userId);
+        eventPublisher.publishEvent(new ChangeEvent(TombstoneEntity.TASK, ChangeEvent.UPDATED,
+                series.getTaskId(), userId, revision));
+        eventPublisher.publishEvent(ReminderEvent.series(series.getTaskId(), userId));
+    }
+
+    private static boolean inRange(LocalDateTime time, LocalDateTime from, LocalDateTime to) {
+        return !time.isBefore(from) && time.isBefore(to);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.entity.NotificationOutboxEntity;
+import com.example.spring_boot.reminder.Reminder;
+import com.example.spring_boot.repository.NotificationOutboxRepository;
+import com.example.spring_boot.service.ReminderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ReminderServiceImpl implements ReminderService {
+    @Autowired
+    NotificationOutboxRepository notificationOutboxRepository;
+
+    @Override
+    @Transactional
+    public int enqueue(List<Reminder> reminders) {
+        if (reminders.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> taskIds = new HashSet<>();
+        Set<LocalDateTime> startTimes = new HashSet<>();
+        for (Reminder reminder : reminders) {
+            taskIds.add(reminder.getTaskId());
+            startTimes.add(reminder.getStartTime());
+        }
+        // Một câu SELECT cho cả lô để bỏ các lần nhắc đã ghi
+        Set<String> queued = new HashSet<>();
+        for (NotificationOutboxEntity entry : notificationOutboxRepository.findByTypeAndTaskIdInAndStartTimeIn(
+                NotificationOutboxEntity.REMINDER, taskIds, startTimes)) {
+            queued.add(entry.getTaskId() + "|" + entry.getStartTime());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutboxEntity> entries = new ArrayList<>();
+        for (Reminder reminder : reminders) {
+            if (queued.add(reminder.getTaskId() + "|" + reminder.getStartTime())) {
+                entries.add(new NotificationOutboxEntity(null, NotificationOutboxEntity.REMINDER,
+                        reminder.getTaskId(), reminder.getUserId(), reminder.getStartTime(), now, null));
+            }
+        }
+        // Flush ở đây để lỗi trùng unique key ra khỏi enqueue thành DataIntegrityViolationException
+        notificationOutboxRepository.saveAllAndFlush(entries);
+        return entries.size();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.dto.CategoryDto;
+import com.example.spring_boot.dto.SyncDto;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.TombstoneEntity;
+import com.example.spring_boot.mapper.CategoryMapper;
+import com.example.spring_boot.mapper.TaskMapper;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.TombstoneRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.service.SyncService;
+import com.example.spring_boot.service.UserRevisionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Các dòng thay đổi được xếp theo (revision, loại, id) và trả theo trang PAGE_SIZE dòng; cursor là vị trí
+ * của dòng cuối trang. Dòng bị sửa trong lúc client đang lấy các trang sẽ có revision mới hơn cursor
+ * nên vẫn nằm ở một trang sau.
+ */
+@Service
+public class SyncServiceImpl implements SyncService {
+    // Thứ tự giữa các loại dòng có cùng revision
+    private static final int CATEGORY = 0;
+    private static final int TASK = 1;
+    private static final int TOMBSTONE = 2;
+    private static final Comparator<Change> ORDER = Comparator.comparingLong((Change change) -> change.revision)
+            .thenComparingInt(change -> change.type)
+            .thenComparingLong(change -> change.id);
+
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TaskMapper taskMapper;
+    @Autowired
+    CategoryMapper categoryMapper;
+    @Autowired
+    UserRevisionService userRevisionService;
+
+    @Override
+    public SyncDto getChangesSince(int userId, Long since, String cursor) {
+        // Đọc revision trước: thay đổi commit sau thời điểm này sẽ nằm trong lần sync kế tiếp
+        long revision = userRevisionService.getRevision(userId);
+        // Không có since = lần sync đầu tiên, lấy toàn bộ (kể cả dữ liệu cũ có revision 0)
+        Change after = cursor != null ? Change.parse(cursor)
+                : new Change(since == null ? -1 : since, TOMBSTONE, Long.MAX_VALUE);
+
+        List<Change> changes = new ArrayList<>();
+        Limit limit = Limit.of(PAGE_SIZE + 1);
+        for (CategoryEntity category : categoryRepository.findChangedAfter(userId, after.revision,
+                after.afterIntId(CATEGORY), limit)) {
+            changes.add(new Change(category.getRevision(), CATEGORY, category.getCategoryId(), category));
+        }
+        for (TaskEntity task : taskRepository.findChangedAfter(userId, after.revision,
+                after.afterIntId(TASK), limit)) {
+            changes.add(new Change(task.getRevision(), TASK, task.getTaskId(), task));
+        }
+        if (since != null) {
+            for (TombstoneEntity tombstone : tombstoneRepository.findChangedAfter(userId, after.revision,
+                    after.afterId(TOMBSTONE), limit)) {
+                changes.add(new Change(tombstone.getRevision(), TOMBSTONE, tombstone.getTombstoneId(), tombstone));
+            }
+            // Đọc sau tombstone: nếu việc xóa tombstone commit xen giữa thì client sync lại từ đầu,
+            // không mất lần xóa nào
+            if (after.revision < userRepository.findTombstonePurgedRevisionById(userId).orElse(0L)) {
+                return new SyncDto(revision, List.of(), List.of(), List.of(), List.of(), false, null, true);
+            }
+        }
+        changes.sort(ORDER);
+        boolean hasMore = changes.size() > PAGE_SIZE;
+        if (hasMore) {
+            changes = changes.subList(0, PAGE_SIZE);
+        }
+
+        List<TaskEntity> tasks = new ArrayList<>();
+        List<CategoryDto> categories = new ArrayList<>();
+        List<Integer> deletedTaskIds = new ArrayList<>();
+        List<Integer> deletedCategoryIds = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.row instanceof TaskEntity task) {
+                tasks.add(task);
+            } else if (change.row instanceof CategoryEntity category) {
+                categories.add(categoryMapper.toDto(category));
+            } else if (change.row instanceof TombstoneEntity tombstone) {
+                if (TombstoneEntity.TASK.equals(tombstone.getEntityType())) {
+                    deletedTaskIds.add(tombstone.getEntityId());
+                } else if (TombstoneEntity.CATEGORY.equals(tombstone.getEntityType())) {
+                    deletedCategoryIds.add(tombstone.getEntityId());
+                }
+            }
+        }
+        List<TaskDto> taskDtos = taskMapper.toDtos(tasks);
+        if (!hasMore) {
+            return new SyncDto(revision, taskDtos, categories, deletedTaskIds, deletedCategoryIds,
+                    false, null, false);
+        }
+        // Client cũ bỏ qua cursor vẫn tiến được: các revision trước dòng cuối trang đã được gửi đủ
+        Change last = changes.get(changes.size() - 1);
+        return new SyncDto(Math.max(after.revision, last.revision - 1), taskDtos, categories,
+                deletedTaskIds, deletedCategoryIds, true, last.format(), false);
+    }
+
+    // Ghi mốc theo user trước rồi xóa, trong cùng một transaction
+    @Override
+    @Transactional
+    public int purgeTombstones(LocalDateTime before) {
+        userRepository.markTombstonesPurged(before);
+        return tombstoneRepository.deleteByDeletedAtBefore(before);
+    }
+
+    // Vị trí của một dòng theo thứ tự (revision, loại, id); cursor có dạng "revision.loại.id"
+    private static final class Change {
+        final long revision;
+        final int type;
+        final long id;
+        final Object row;
+
+        Change(long revision, int type, long id) {
+            this(revision, type, id, null);
+        }
+
+        Change(long revision, int type, long id, Object row) {
+            this.revision = revision;
+            this.type = type;
+            this.id = id;
+            this.row = row;
+        }
+
+        // Dòng có cùng revision: loại đứng trước cursor đã gửi hết, cùng loại thì lấy id lớn hơn,
+        // loại đứng sau thì lấy hết
+        long afterId(int rowType) {
+            if (rowType < type) {
+                return Long.MAX_VALUE;
+            }
+            return rowType == type ? id : -1;
+        }
+
+        // Id của task/category là int
+        int afterIntId(int rowType) {
+            return (int) Math.max(-1, Math.min(Integer.MAX_VALUE, afterId(rowType)));
+        }
+
+        String format() {
+            return revision + "." + type + "." + id;
+        }
+
+        static Change parse(String cursor) {
+            String[] parts = cursor.split("\\.");
+            try {
+                if (parts.length == 3) {
+                    int type = Integer.parseInt(parts[1]);
+                    if (type >= CATEGORY && type <= TOMBSTONE) {
+                        return new Change(Long.parseLong(parts[0]), type, Long.parseLong(parts[2]));
+                    }
+                }
+            } catch (NumberFormatException ex) {
+                // Báo lỗi chung bên dưới
+            }
+            throw new IllegalArgumentException("Invalid sync cursor");
+        }
+    }
+}
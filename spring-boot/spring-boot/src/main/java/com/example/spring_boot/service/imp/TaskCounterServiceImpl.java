@@ -0,0 +1,86 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.TaskCounterEntity;
+import com.example.spring_boot.entity.TaskCounterId;
+import com.example.spring_boot.repository.TaskCounterRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.service.TaskCounterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class TaskCounterServiceImpl implements TaskCounterService {
+    @Autowired
+    TaskCounterRepository taskCounterRepository;
+    @Autowired
+    UserRepository userRepository;
+
+    // MANDATORY: bộ đếm phải được ghi trong cùng transaction với thay đổi trên bảng task
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increment(int categoryId, Status status, long delta) {
+        if (delta != 0) {
+            taskCounterRepository.increment(categoryId, status.name(), delta);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(int fromCategoryId, Status fromStatus, int toCategoryId, Status toStatus) {
+        if (fromCategoryId == toCategoryId && fromStatus == toStatus) {
+            return;
+        }
+        taskCounterRepository.increment(fromCategoryId, fromStatus.name(), -1);
+        taskCounterRepository.increment(toCategoryId, toStatus.name(), 1);
+    }
+
+    // Một lô category trong một transaction ngắn: chỉ khóa task và bộ đếm của các category đó.
+    // Chỉ ghi lại các category có bộ đếm sai và tăng revision của chủ category đó; trả về số category đã sửa
+    @Override
+    @Transactional
+    public int repair(List<Integer> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return 0;
+        }
+        Map<TaskCounterId, Long> actual = nonZero(taskCounterRepository.countTasks(categoryIds));
+        Map<TaskCounterId, Long> stored = nonZero(taskCounterRepository.findByCategoryIdIn(categoryIds));
+        Set<Integer> changed = new HashSet<>();
+        for (TaskCounterId key : actual.keySet()) {
+            if (!actual.get(key).equals(stored.get(key))) {
+                changed.add(key.getCategoryId());
+            }
+        }
+        for (TaskCounterId key : stored.keySet()) {
+            if (!actual.containsKey(key)) {
+                changed.add(key.getCategoryId());
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        taskCounterRepository.deleteCounters(changed);
+        taskCounterRepository.insertCountsFromTasks(changed);
+        userRepository.incrementRevisionByCategoryIds(changed);
+        return changed.size();
+    }
+
+    // Dòng đếm 0 coi như không có, để category trống không bị xem là lệch
+    private static Map<TaskCounterId, Long> nonZero(List<TaskCounterEntity> counters) {
+        Map<TaskCounterId, Long> counts = new HashMap<>();
+        for (TaskCounterEntity counter : counters) {
+            if (counter.getTaskCount() != 0) {
+                counts.put(new TaskCounterId(counter.getCategoryId(), counter.getStatus()), counter.getTaskCount());
+            }
+        }
+        return counts;
+    }
+}
@@ -1,132 +1,628 @@
 package com.example.spring_boot.service.imp;
 
+import com.example.spring_boot.dto.CategoryStatusCountDto;
+import com.example.spring_boot.dto.TaskDayCountDto;
+import com.example.spring_boot.dto.TaskDensityDto;
 import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskExportDto;
+import com.example.spring_boot.dto.TaskPageDto;
+import com.example.spring_boot.dto.TaskPatchDto;
+import com.example.spring_boot.dto.TaskRowsDto;
+import com.example.spring_boot.dto.TaskVersionDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.event.ChangeEvent;
 import com.example.spring_boot.entity.Priority;
 import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.TaskCounterId;
 import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.TombstoneEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.mapper.CategoryMapper;
 import com.example.spring_boot.mapper.TaskMapper;
+import com.example.spring_boot.projection.TaskField;
+import com.example.spring_boot.projection.TaskProjection;
+import com.example.spring_boot.recurrence.RecurrenceExpander;
+import com.example.spring_boot.reminder.ReminderEvent;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskOccurrenceRepository;
 import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.TombstoneRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.search.TaskIndexEvent;
+import com.example.spring_boot.search.TaskSearchIndex;
+import com.example.spring_boot.service.RecurrenceService;
+import com.example.spring_boot.service.TaskCounterService;
 import com.example.spring_boot.service.TaskService;
+import com.example.spring_boot.service.UserRevisionService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.config.Task;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class TaskServiceImpl implements TaskService {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_BATCH_SIZE = 1000;
     @Autowired
     TaskMapper taskMapper;
     @Autowired
+    CategoryMapper categoryMapper;
+    @Autowired
     TaskRepository taskRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TaskCounterService taskCounterService;
+    @Autowired
+    UserRevisionService userRevisionService;
+    @Autowired
+    TombstoneRepository tombstoneRepository;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    TaskSearchIndex taskSearchIndex;
+    @Autowired
+    RecurrenceService recurrenceService;
+    @Autowired
+    TaskOccurrenceRepository taskOccurrenceRepository;
     @Override
+    @Transactional(readOnly = true)
     public List<TaskDto> getTasksByUserId(Integer userId) {
-        List<TaskEntity> taskEntities=taskRepository.findByUserUserId(userId);
-        List<TaskDto>taskDtos=new ArrayList<>();
-        for(TaskEntity task:taskEntities){
-            TaskDto taskDto=taskMapper.toDto(task);
-            taskDtos.add(taskDto);
+        return getTaskPage(userId, MAX_UNPAGED_TASKS, null).getItems();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageDto getTaskPage(Integer userId, int limit, String cursor) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        // Lấy dư một dòng để biết còn trang sau hay không
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<TaskEntity> taskEntities;
+        if (cursor == null || cursor.isEmpty()) {
+            taskEntities = taskRepository.findFirstPage(userId, fetchLimit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            taskEntities = taskRepository.findPageAfter(userId,
+                    LocalDateTime.parse(position[0]), Integer.valueOf(position[1]), fetchLimit);
+        }
+
+        String nextCursor = null;
+        if (taskEntities.size() > limit) {
+            taskEntities = taskEntities.subList(0, limit);
+            TaskEntity last = taskEntities.get(limit - 1);
+            nextCursor = encodeCursor(last.getStartTime(), last.getTaskId());
         }
-        return  taskDtos;
+        return new TaskPageDto(taskMapper.toDtos(taskEntities), nextCursor);
+    }
+
+    private static String encodeCursor(LocalDateTime startTime, Integer taskId) {
+        String position = startTime + "," + taskId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Integer.parseInt(parts[1]);
+            return parts;
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskRowsDto getTaskRowPage(Integer userId, int limit, String cursor, List<TaskField> fields) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        TaskProjection projection = new TaskProjection(fields);
+        List<Object[]> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = taskRepository.findProjectedPage(userId, projection, null, null, limit + 1);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = taskRepository.findProjectedPage(userId, projection,
+                    LocalDateTime.parse(position[0]), Integer.valueOf(position[1]), limit + 1);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Object[] last = rows.get(limit - 1);
+            nextCursor = encodeCursor(projection.startTime(last), projection.taskId(last));
+        }
+        List<Object[]> values = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            values.add(projection.values(row));
+        }
+        return new TaskRowsDto(projection.getFields(), values, nextCursor);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TaskDto> getTasksByUserIdAndDate(Integer userId, String date) {
-        List<TaskEntity> taskEntities = taskRepository.findByUserUserId(userId);
-        List<TaskDto> taskDtos = new ArrayList<>();
-        
         // Parse the input date (format: yyyy-MM-dd)
-        LocalDate targetDate = LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        
-        for(TaskEntity task : taskEntities) {
-            // Check if task has a start time and matches the target date
-            if (task.getStartTime() != null) {
-                LocalDate taskDate = task.getStartTime().toLocalDate();
-                if (taskDate.equals(targetDate)) {
-                    TaskDto taskDto = taskMapper.toDto(task);
-                    taskDtos.add(taskDto);
+        LocalDate targetDate = LocalDate.parse(date, DATE_FORMAT);
+        return findTasksInRange(userId, targetDate.atStartOfDay(), targetDate.plusDays(1).atStartOfDay());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskRowsDto getTaskRowsByDate(Integer userId, String date, List<TaskField> fields) {
+        LocalDate targetDate = LocalDate.parse(date, DATE_FORMAT);
+        return findTaskRowsInRange(userId, targetDate.atStartOfDay(), targetDate.plusDays(1).atStartOfDay(), fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDto> getTasksByUserIdAndRange(Integer userId, String from, String to) {
+        // [from, to) theo ngày, ví dụ tuần: from=2025-06-02&to=2025-06-09
+        LocalDate[] range = parseRange(from, to);
+        return findTasksInRange(userId, range[0].atStartOfDay(), range[1].atStartOfDay());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskRowsDto getTaskRowsByRange(Integer userId, String from, String to, List<TaskField> fields) {
+        LocalDate[] range = parseRange(from, to);
+        return findTaskRowsInRange(userId, range[0].atStartOfDay(), range[1].atStartOfDay(), fields);
+    }
+
+    private static LocalDate[] parseRange(String from, String to) {
+        LocalDate fromDate = LocalDate.parse(from, DATE_FORMAT);
+        LocalDate toDate = LocalDate.parse(to, DATE_FORMAT);
+        if (!toDate.isAfter(fromDate)) {
+            throw new IllegalArgumentException("'to' must be after 'from'");
+        }
+        // Giới hạn số lần lặp phải sinh ra cho một lời gọi
+        if (ChronoUnit.DAYS.between(fromDate, toDate) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_RANGE_DAYS + " days per request");
+        }
+        return new LocalDate[]{fromDate, toDate};
+    }
+
+    // Như findTasksInRange nhưng task thường chỉ đọc các cột được chọn; lần lặp được chiếu theo cùng tập trường
+    private TaskRowsDto findTaskRowsInRange(Integer userId, LocalDateTime from, LocalDateTime to, List<TaskField> fields) {
+        TaskProjection projection = new TaskProjection(fields);
+        List<Object[]> rows = taskRepository.findProjectedInRange(userId, projection, from, to, MAX_UNPAGED_TASKS + 1);
+        List<TaskDto> occurrences = recurrenceService.expandOccurrences(userId, from, to, remaining(rows.size()));
+        List<Object[]> values = new ArrayList<>(rows.size() + occurrences.size());
+        int i = 0;
+        int j = 0;
+        while (i < rows.size() || j < occurrences.size()) {
+            if (j == occurrences.size() || (i < rows.size()
+                    && !projection.startTime(rows.get(i)).isAfter(occurrences.get(j).getStartTime()))) {
+                values.add(projection.values(rows.get(i++)));
+            } else {
+                values.add(projection.values(occurrences.get(j++)));
+            }
+        }
+        return new TaskRowsDto(projection.getFields(), values, null);
+    }
+
+    // Phần còn lại của MAX_UNPAGED_TASKS cho các lần lặp, sau khi đã có tasks task thường.
+    // Query task thường đọc tối đa MAX_UNPAGED_TASKS + 1 dòng: dòng thừa đủ để biết khoảng đã quá giới hạn
+    private static int remaining(int tasks) {
+        if (tasks > MAX_UNPAGED_TASKS) {
+            throw new IllegalArgumentException("Too many tasks in this range, use a shorter range");
+        }
+        return MAX_UNPAGED_TASKS - tasks;
+    }
+
+    private List<TaskDto> findTasksInRange(Integer userId, LocalDateTime from, LocalDateTime to) {
+        List<TaskDto> tasks = taskMapper.toDtos(taskRepository.findByUserIdAndStartTimeRange(userId, from, to,
+                Limit.of(MAX_UNPAGED_TASKS + 1)));
+        List<TaskDto> occurrences = recurrenceService.expandOccurrences(userId, from, to, remaining(tasks.size()));
+        if (occurrences.isEmpty()) {
+            return tasks;
+        }
+        // Hai danh sách đã sắp theo startTime: trộn thay vì sort lại
+        List<TaskDto> merged = new ArrayList<>(tasks.size() + occurrences.size());
+        int i = 0;
+        int j = 0;
+        while (i < tasks.size() || j < occurrences.size()) {
+            if (j == occurrences.size() || (i < tasks.size()
+                    && !tasks.get(i).getStartTime().isAfter(occurrences.get(j).getStartTime()))) {
+                merged.add(tasks.get(i++));
+            } else {
+                merged.add(occurrences.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDto> searchTasks(Integer userId, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query is empty");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        List<Integer> rankedIds = taskSearchIndex.search(userId, query, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        // Một query lấy các task, sau đó sắp lại theo thứ tự điểm của chỉ mục
+        Map<Integer, TaskEntity> byId = new HashMap<>();
+        for (TaskEntity taskEntity : taskRepository.findByUserIdAndTaskIdIn(userId, rankedIds)) {
+            byId.put(taskEntity.getTaskId(), taskEntity);
+        }
+        List<TaskEntity> ranked = new ArrayList<>(byId.size());
+        for (Integer taskId : rankedIds) {
+            TaskEntity taskEntity = byId.get(taskId);
+            if (taskEntity != null) {
+                ranked.add(taskEntity);
+            }
+        }
+        return taskMapper.toDtos(ranked);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskDensityDto getTaskDensity(Integer userId, String from, String to, String groupBy) {
+        LocalDate fromDate = LocalDate.parse(from, DATE_FORMAT);
+        LocalDate toDate = LocalDate.parse(to, DATE_FORMAT);
+        long days = ChronoUnit.DAYS.between(fromDate, toDate);
+        if (days < 1) {
+            throw new IllegalArgumentException("'to' must be after 'from'");
+        }
+        if (days > MAX_DENSITY_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_DENSITY_DAYS + " days per request");
+        }
+        LocalDateTime start = fromDate.atStartOfDay();
+        LocalDateTime end = toDate.atStartOfDay();
+
+        List<String> keys = new ArrayList<>();
+        List<TaskDayCountDto> rows;
+        String group = groupBy == null || groupBy.isEmpty() ? "none" : groupBy;
+        switch (group) {
+            case "none" -> {
+                keys.add("total");
+                rows = taskRepository.countByDay(userId, start, end);
+            }
+            case "status" -> {
+                for (Status status : Status.values()) {
+                    keys.add(status.name());
                 }
+                rows = taskRepository.countByDayAndStatus(userId, start, end);
             }
+            case "priority" -> {
+                for (Priority priority : Priority.values()) {
+                    keys.add(priority.name());
+                }
+                rows = taskRepository.countByDayAndPriority(userId, start, end);
+            }
+            default -> throw new IllegalArgumentException("groupBy must be one of none, status, priority");
+        }
+
+        int[][] counts = new int[keys.size()][(int) days];
+        for (TaskDayCountDto row : rows) {
+            int key = row.getGroup() == null ? 0 : keys.indexOf(row.getGroup());
+            counts[key][(int) ChronoUnit.DAYS.between(fromDate, row.getDay())] = row.getTaskCount().intValue();
         }
-        
-        return taskDtos;
+        // Các lần lặp không có dòng trong bảng task: cộng thêm sau khi sinh ra
+        recurrenceService.forEachOccurrence(userId, start, end, occurrence -> {
+            int key = switch (group) {
+                case "status" -> keys.indexOf(occurrence.getStatus());
+                case "priority" -> keys.indexOf(occurrence.getPriority());
+                default -> 0;
+            };
+            counts[key][(int) ChronoUnit.DAYS.between(fromDate, occurrence.getStartTime().toLocalDate())]++;
+        });
+        return new TaskDensityDto(fromDate, toDate, group, keys, counts);
     }
 
     @Override
+    @Transactional
     public TaskDto createTask(TaskDto taskDto) {
         TaskEntity taskEntity=taskMapper.toEntity(taskDto);
+        applyRecurrence(taskEntity);
         taskEntity.setCreatedAt(LocalDateTime.now());
+        taskEntity.setRevision(userRevisionService.bump(taskEntity.getUser().getUserId()));
         taskRepository.save(taskEntity);
+        taskCounterService.increment(taskEntity.getCategory().getCategoryId(), taskEntity.getStatus(), 1);
+        publishTaskEvent(ChangeEvent.CREATED, taskEntity.getTaskId(), taskEntity.getUser().getUserId(), taskEntity.getRevision());
+        publishIndexEvent(taskEntity);
+        publishReminderEvent(taskEntity);
         return taskMapper.toDto(taskEntity);
     }
-    public Map<String, Map<String, Integer>> getTaskCountByCategoryAndStatus(Integer userId) {
-        List<TaskEntity> taskEntities = taskRepository.findByUserUserId(userId);
 
-        Map<String, Map<String, Integer>> result = new HashMap<>();
+    @Override
+    @Transactional
+    public List<TaskDto> createTasks(Integer userId, List<TaskDto> taskDtos) {
+        if (taskDtos == null || taskDtos.isEmpty()) {
+            throw new IllegalArgumentException("Task list is empty");
+        }
+        if (taskDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " tasks per batch");
+        }
+
+        // Kiểm tra quyền sở hữu category một lần cho cả batch
+        Set<Integer> categoryIds = new HashSet<>();
+        for (TaskDto taskDto : taskDtos) {
+            categoryIds.add(taskDto.getCategoryId());
+        }
+        if (categoryRepository.countByUserUserIdAndCategoryIdIn(userId, categoryIds) != categoryIds.size()) {
+            throw new IllegalArgumentException("Category does not belong to this user");
+        }
 
-        for (TaskEntity task : taskEntities) {
-            String categoryName = task.getCategory().getName();
-            String status = String.valueOf(task.getStatus());
-            result.putIfAbsent(categoryName, new HashMap<>());
+        // Dùng reference thay vì findById, INSERT được gom batch (hibernate.jdbc.batch_size)
+        UserEntity user = userRepository.getReferenceById(userId);
+        Map<Integer, CategoryEntity> categories = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        long revision = userRevisionService.bump(userId);
+        List<TaskEntity> taskEntities = new ArrayList<>();
+        for (TaskDto taskDto : taskDtos) {
+            CategoryEntity category = categories.computeIfAbsent(taskDto.getCategoryId(),
+                    categoryRepository::getReferenceById);
+            TaskEntity taskEntity = taskMapper.toEntity(taskDto, category, user);
+            applyRecurrence(taskEntity);
+            taskEntity.setCreatedAt(now);
+            taskEntity.setRevision(revision);
+            taskEntities.add(taskEntity);
+        }
+        taskRepository.saveAll(taskEntities);
 
-            Map<String, Integer> statusMap = result.get(categoryName);
-            statusMap.put("pending", statusMap.getOrDefault("pending", 0));
-            statusMap.put("done", statusMap.getOrDefault("done", 0));
-            statusMap.put("in_progress", statusMap.getOrDefault("in_progress", 0));
+        // Một upsert cho mỗi cặp (category, status) thay vì mỗi task
+        Map<TaskCounterId, Long> counts = new HashMap<>();
+        for (TaskEntity taskEntity : taskEntities) {
+            counts.merge(new TaskCounterId(taskEntity.getCategory().getCategoryId(), taskEntity.getStatus()), 1L, Long::sum);
+        }
+        counts.forEach((key, delta) -> taskCounterService.increment(key.getCategoryId(), key.getStatus(), delta));
+        for (TaskEntity taskEntity : taskEntities) {
+            publishTaskEvent(ChangeEvent.CREATED, taskEntity.getTaskId(), userId, revision);
+            publishIndexEvent(taskEntity);
+            publishReminderEvent(taskEntity);
+        }
 
-            if (status.equals("pending")) {
-                statusMap.put("pending", statusMap.get("pending") + 1);
-            } else if (status.equals("done")) {
-                statusMap.put("done", statusMap.get("done") + 1);
-            } else if (status.equals("in_progress")) {
-                statusMap.put("in_progress", statusMap.get("in_progress") + 1);
+        return taskMapper.toDtos(taskEntities);
+    }
+    @Override
+    @Transactional
+    public int importTasks(Integer userId, List<TaskExportDto> rows) {
+        if (rows.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " tasks per batch");
+        }
+        // Bỏ các dòng có taskId nguồn đã import (lần import trước bị dừng giữa chừng, hoặc trùng trong file)
+        Set<Integer> sourceIds = new HashSet<>();
+        for (TaskExportDto row : rows) {
+            if (row.getTaskId() != null) {
+                sourceIds.add(row.getTaskId());
             }
         }
+        Set<Integer> seen = sourceIds.isEmpty() ? new HashSet<>()
+                : new HashSet<>(taskRepository.findImportedSourceIds(userId, sourceIds));
+        List<TaskExportDto> newRows = new ArrayList<>(rows.size());
+        for (TaskExportDto row : rows) {
+            if (row.getTaskId() == null || seen.add(row.getTaskId())) {
+                newRows.add(row);
+            }
+        }
+        if (newRows.isEmpty()) {
+            return 0;
+        }
+        UserEntity user = userRepository.getReferenceById(userId);
+        long revision = userRevisionService.bump(userId);
+        Map<String, CategoryEntity> categories = new HashMap<>();
+        for (CategoryEntity category : categoryRepository.findByUserUserId(userId)) {
+            categories.put(category.getName(), category);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<TaskEntity> taskEntities = new ArrayList<>(newRows.size());
+        for (TaskExportDto row : newRows) {
+            if (row.getTitle() == null || row.getTitle().isBlank() || row.getStartTime() == null
+                    || row.getPriority() == null || row.getStatus() == null
+                    || row.getCategory() == null || row.getCategory().isBlank()) {
+                throw new IllegalArgumentException("Task " + row.getTaskId() + " is missing required fields");
+            }
+            CategoryEntity category = categories.computeIfAbsent(row.getCategory(), name -> {
+                CategoryEntity categoryEntity = categoryMapper.toEntity(name, user);
+                categoryEntity.setRevision(revision);
+                categoryRepository.save(categoryEntity);
+                eventPublisher.publishEvent(new ChangeEvent(TombstoneEntity.CATEGORY, ChangeEvent.CREATED,
+                        categoryEntity.getCategoryId(), userId, revision));
+                return categoryEntity;
+            });
+            TaskEntity taskEntity = taskMapper.toEntity(row, category, user);
+            applyRecurrence(taskEntity);
+            if (row.getCreatedAt() == null) {
+                taskEntity.setCreatedAt(now);
+            }
+            taskEntity.setRevision(revision);
+            taskEntities.add(taskEntity);
+        }
+        taskRepository.saveAll(taskEntities);
 
-        return result;
+        Map<TaskCounterId, Long> counts = new HashMap<>();
+        for (TaskEntity taskEntity : taskEntities) {
+            counts.merge(new TaskCounterId(taskEntity.getCategory().getCategoryId(), taskEntity.getStatus()), 1L, Long::sum);
+        }
+        counts.forEach((key, delta) -> taskCounterService.increment(key.getCategoryId(), key.getStatus(), delta));
+        // Client đang nghe SSE sẽ nhận "resync" khi hàng đợi đầy, rồi gọi /sync
+        for (TaskEntity taskEntity : taskEntities) {
+            publishTaskEvent(ChangeEvent.CREATED, taskEntity.getTaskId(), userId, revision);
+            publishIndexEvent(taskEntity);
+            publishReminderEvent(taskEntity);
+        }
+        return taskEntities.size();
     }
 
     @Override
-    public Map<String, Map<String, Integer>> getTaskStatisticsForCharts(Integer userId) {
-        List<TaskEntity> taskEntities = taskRepository.findByUserUserId(userId);
-        Map<String, Map<String, Integer>> result = new HashMap<>();
+    @Transactional(readOnly = true)
+    public Map<String, Map<Status, Integer>> getTaskCountByCategoryAndStatus(Integer userId) {
+        return countByCategoryAndStatus(userId);
+    }
 
-        for (TaskEntity task : taskEntities) {
-            String categoryName = task.getCategory().getName();
-            String status = task.getStatus().name(); // Use .name() method for enum
-            
-            // Initialize category map if not exists
-            result.putIfAbsent(categoryName, new HashMap<>());
-            Map<String, Integer> statusMap = result.get(categoryName);
-            
-            // Initialize status counts only if they don't exist
-            statusMap.putIfAbsent("pending", 0);
-            statusMap.putIfAbsent("done", 0);
-            statusMap.putIfAbsent("in_progress", 0);
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Map<Status, Integer>> getTaskStatisticsForCharts(Integer userId) {
+        return countByCategoryAndStatus(userId);
+    }
 
-            // Increment count for current task's status
-            statusMap.put(status, statusMap.get(status) + 1);
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Map<Status, Integer>> getTaskStatisticsForCharts(Integer userId, String from, String to) {
+        LocalDate[] range = parseRange(from, to);
+        LocalDateTime start = range[0].atStartOfDay();
+        LocalDateTime end = range[1].atStartOfDay();
+        // Bộ đếm task_count tính theo dòng, nên thống kê theo khoảng đếm trực tiếp task thường
+        // và cộng các lần lặp sinh ra trong khoảng
+        List<CategoryStatusCountDto> rows = new ArrayList<>(
+                categoryRepository.countTasksByCategoryAndStatusInRange(userId, start, end));
+        Map<TaskCounterId, Long> occurrenceCounts = new HashMap<>();
+        Map<Integer, String> categoryNames = new HashMap<>();
+        recurrenceService.forEachOccurrence(userId, start, end, occurrence -> {
+            occurrenceCounts.merge(new TaskCounterId(occurrence.getCategoryId(), Status.valueOf(occurrence.getStatus())),
+                    1L, Long::sum);
+            categoryNames.putIfAbsent(occurrence.getCategoryId(), occurrence.getCategory().getName());
+        });
+        occurrenceCounts.forEach((key, count) -> rows.add(new CategoryStatusCountDto(key.getCategoryId(),
+                categoryNames.get(key.getCategoryId()), key.getStatus(), count)));
+        return categoryMapper.toStatusCountMap(rows);
+    }
 
-        return result;
+    private Map<String, Map<Status, Integer>> countByCategoryAndStatus(Integer userId) {
+        return categoryMapper.toStatusCountMap(categoryRepository.countTasksByCategoryAndStatus(userId));
     }
 
     @Override
+    @Transactional
     public TaskDto updateTask(int taskId, TaskDto dto) {
-        LocalDateTime tempCreated=taskRepository.findById(taskId).get().getCreatedAt();
+        TaskEntity existing = taskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
+        int oldCategoryId = existing.getCategory().getCategoryId();
+        Status oldStatus = existing.getStatus();
         TaskEntity updatedTask = taskMapper.toEntity(dto);
-        updatedTask.setCreatedAt(tempCreated);
+        applyRecurrence(updatedTask);
+        // Ngoại lệ gắn với thời điểm gốc của lần lặp: quy tắc hoặc lần đầu đổi thì bỏ
+        if (existing.getRecurrence() != null && (!Objects.equals(existing.getRecurrence(), updatedTask.getRecurrence())
+                || !existing.getStartTime().equals(updatedTask.getStartTime())
+                || !existing.getUser().getUserId().equals(updatedTask.getUser().getUserId()))) {
+            taskOccurrenceRepository.deleteByTaskId(taskId);
+        }
+        updatedTask.setCreatedAt(existing.getCreatedAt());
         updatedTask.setTaskId(taskId);
+        // Client gửi version thì merge sẽ báo xung đột nếu task đã bị sửa ở nơi khác
+        updatedTask.setVersion(dto.getVersion() != null ? dto.getVersion() : existing.getVersion());
+        updatedTask.setRevision(userRevisionService.bump(existing.getUser().getUserId()));
         taskRepository.save(updatedTask);
+        taskCounterService.move(oldCategoryId, oldStatus,
+                updatedTask.getCategory().getCategoryId(), updatedTask.getStatus());
+        publishTaskEvent(ChangeEvent.UPDATED, taskId, existing.getUser().getUserId(), updatedTask.getRevision());
+        if (!existing.getUser().getUserId().equals(updatedTask.getUser().getUserId())) {
+            eventPublisher.publishEvent(TaskIndexEvent.removed(taskId, existing.getUser().getUserId()));
+        }
+        publishIndexEvent(updatedTask);
+        publishReminderEvent(updatedTask);
         return taskMapper.toDto(updatedTask);
     }
 
+    @Override
+    @Transactional
+    public long patchTask(int taskId, TaskPatchDto patch) {
+        Status status = patch.getStatus() != null ? Status.valueOf(patch.getStatus()) : null;
+        Priority priority = patch.getPriority() != null ? Priority.valueOf(patch.getPriority()) : null;
+
+        if (status == null && priority == null && patch.getStartTime() == null) {
+            throw new IllegalArgumentException("Patch has no fields to change");
+        }
+        // Tăng revision của user (404 khi không có task) rồi một UPDATE có điều kiện; điều kiện nằm trong UPDATE
+        // nên chỉ khi 0 dòng mới phải phân biệt lý do
+        TaskVersionDto current = userRevisionService.bumpForTask(taskId);
+        long revision = current.getRevision();
+        if (taskRepository.patch(taskId, patch.getVersion(), revision, status, priority, patch.getStartTime()) == 0) {
+            if (current.getFrequency() != null && patch.getStartTime() != null) {
+                // Dời cả chuỗi đi qua PUT; dời một lần lặp đi qua /occurrence
+                throw new IllegalArgumentException("Use the occurrence endpoint to move an occurrence of a recurring task");
+            }
+            throw new OptimisticLockingFailureException("Task " + taskId + " was modified concurrently");
+        }
+        if (status != null) {
+            taskCounterService.move(current.getCategoryId(), current.getStatus(), current.getCategoryId(), status);
+        }
+        publishTaskEvent(ChangeEvent.UPDATED, taskId, current.getUserId(), revision);
+        if (patch.getStartTime() != null) {
+            eventPublisher.publishEvent(new ReminderEvent(taskId, current.getUserId(), patch.getStartTime()));
+        }
+        return (patch.getVersion() != null ? patch.getVersion() : current.getVersion()) + 1;
+    }
+
+    @Override
+    @Transactional
+    public void deleteTask(int taskId) {
+        TaskEntity existing = taskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
+        int userId = existing.getUser().getUserId();
+        taskCounterService.increment(existing.getCategory().getCategoryId(), existing.getStatus(), -1);
+        long revision = userRevisionService.bump(userId);
+        tombstoneRepository.save(new TombstoneEntity(null, TombstoneEntity.TASK, taskId, userId,
+                revision, LocalDateTime.now()));
+        if (existing.getRecurrence() != null) {
+            taskOccurrenceRepository.deleteByTaskId(taskId);
+        }
+        taskRepository.delete(existing);
+        publishTaskEvent(ChangeEvent.DELETED, taskId, userId, revision);
+        eventPublisher.publishEvent(TaskIndexEvent.removed(taskId, userId));
+        eventPublisher.publishEvent(ReminderEvent.removed(taskId, userId));
+    }
+
+    // Listener chỉ nhận event sau khi transaction commit (TransactionalEventListener)
+    private void publishTaskEvent(String action, Integer taskId, Integer userId, long revision) {
+        eventPublisher.publishEvent(new ChangeEvent(TombstoneEntity.TASK, action, taskId, userId, revision));
+    }
+
+    // Chuẩn hóa quy tắc lặp và lưu lần lặp cuối để lọc chuỗi theo khoảng mà không cần sinh lần lặp
+    private void applyRecurrence(TaskEntity taskEntity) {
+        if (taskEntity.getRecurrence() == null) {
+            taskEntity.setRecurrenceEnd(null);
+            return;
+        }
+        RecurrenceExpander.normalize(taskEntity.getRecurrence(), taskEntity.getStartTime());
+        taskEntity.setRecurrenceEnd(RecurrenceExpander.lastOccurrence(taskEntity.getRecurrence(), taskEntity.getStartTime()));
+    }
+
+    private void publishIndexEvent(TaskEntity taskEntity) {
+        eventPublisher.publishEvent(new TaskIndexEvent(taskEntity.getTaskId(), taskEntity.getUser().getUserId(),
+                taskEntity.getTitle(), taskEntity.getDescription()));
+    }
+
+    // Task lặp không có dòng cho từng lần lặp: ReminderScheduler sinh lại các lần lặp trong cửa sổ
+    private void publishReminderEvent(TaskEntity taskEntity) {
+        int userId = taskEntity.getUser().getUserId();
+        eventPublisher.publishEvent(taskEntity.getRecurrence() != null
+                ? ReminderEvent.series(taskEntity.getTaskId(), userId)
+                : new ReminderEvent(taskEntity.getTaskId(), userId, taskEntity.getStartTime()));
+    }
+
 
 }
@@ -0,0 +1,158 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.dto.TaskExportDto;
+import com.example.spring_boot.mapper.CsvRecordReader;
+import com.example.spring_boot.mapper.TaskCsvMapper;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.service.TaskService;
+import com.example.spring_boot.service.TaskTransferService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Export đọc các dòng qua Stream của repository (fetch size cố định, projection nên không giữ entity nào
+ * trong persistence context) và ghi thẳng ra response, nên bộ nhớ không phụ thuộc số task.
+ * Transaction của export giữ một connection của pool cho tới khi client đọc hết, nên số export đồng thời
+ * bị giới hạn bởi export.max-concurrent; export vượt giới hạn bị từ chối ngay thay vì chiếm hết pool.
+ * Import đọc từng dòng và ghi theo lô IMPORT_CHUNK_SIZE, mỗi lô một transaction. Lỗi giữa chừng báo số task
+ * đã commit; taskId trong file được lưu làm khóa import nên gửi lại cả file chỉ ghi phần còn thiếu.
+ */
+@Service
+public class TaskTransferServiceImpl implements TaskTransferService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    TaskCsvMapper taskCsvMapper;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final Semaphore exportSlots;
+
+    public TaskTransferServiceImpl(@Value("${export.max-concurrent:4}") int maxConcurrentExports) {
+        this.exportSlots = new Semaphore(maxConcurrentExports);
+    }
+
+    @Override
+    public Runnable reserveExport() {
+        if (!exportSlots.tryAcquire()) {
+            throw new RejectedExecutionException("Too many exports in progress, please retry");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                exportSlots.release();
+            }
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(int userId, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Stream<TaskExportDto> rows = taskRepository.streamForExport(userId)) {
+            Iterator<TaskExportDto> iterator = rows.iterator();
+            if (CSV.equals(format)) {
+                taskCsvMapper.writeHeader(writer);
+                while (iterator.hasNext()) {
+                    taskCsvMapper.write(writer, iterator.next());
+                }
+            } else {
+                // Không flush sau mỗi dòng, BufferedWriter tự đẩy ra khi đầy
+                ObjectWriter rowWriter = objectMapper.writerFor(TaskExportDto.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                while (iterator.hasNext()) {
+                    rowWriter.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    @Override
+    public int importTasks(int userId, String format, InputStream in) throws IOException {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        List<TaskExportDto> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        int imported = 0;
+        try {
+            if (CSV.equals(format)) {
+                CsvRecordReader records = new CsvRecordReader(reader);
+                List<String> fields;
+                boolean first = true;
+                while ((fields = records.next()) != null) {
+                    if ((first && taskCsvMapper.isHeader(fields)) || (fields.size() == 1 && fields.get(0).isEmpty())) {
+                        first = false;
+                        continue;
+                    }
+                    first = false;
+                    chunk.add(taskCsvMapper.toDto(fields));
+                    imported += flushIfFull(userId, chunk);
+                }
+            } else {
+                try (MappingIterator<TaskExportDto> rows = objectMapper.readerFor(TaskExportDto.class).readValues(reader)) {
+                    while (rows.hasNext()) {
+                        chunk.add(rows.next());
+                        imported += flushIfFull(userId, chunk);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imported += taskService.importTasks(userId, chunk);
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (imported == 0) {
+                throw ex;
+            }
+            // Các lô trước đã commit; import lại cùng file sẽ bỏ qua các task đó theo taskId
+            throw new IllegalArgumentException("Imported " + imported + " tasks before failing: " + ex.getMessage()
+                    + ". Importing the same file again skips tasks already imported", ex);
+        }
+        return imported;
+    }
+
+    private int flushIfFull(int userId, List<TaskExportDto> chunk) {
+        if (chunk.size() < IMPORT_CHUNK_SIZE) {
+            return 0;
+        }
+        int imported = taskService.importTasks(userId, chunk);
+        chunk.clear();
+        return imported;
+    }
+}
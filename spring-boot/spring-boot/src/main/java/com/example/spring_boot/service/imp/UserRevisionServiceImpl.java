@@ -0,0 +1,69 @@
+package com.example.spring_boot.service.imp;
+
+import com.example.spring_boot.config.ReadYourWrites;
+import com.example.spring_boot.dto.TaskVersionDto;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.service.UserRevisionService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserRevisionServiceImpl implements UserRevisionService {
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    // Chỉ có khi cấu hình datasource.replica.url
+    @Autowired(required = false)
+    ReadYourWrites readYourWrites;
+
+    // Gọi trong transaction ghi để revision chỉ tăng khi thay đổi được commit.
+    // UPDATE giữ khóa dòng user tới khi commit nên các lần ghi của một user có revision tăng dần theo thứ tự commit.
+    // 0 dòng: user không còn ở database này (vd. vừa được chuyển shard), rollback để không ghi vào dữ liệu bị bỏ
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bump(int userId) {
+        if (userRepository.incrementRevision(userId) == 0) {
+            throw new IllegalArgumentException("User not found");
+        }
+        // Mọi lần ghi task/category đều đi qua đây: sau commit, user này đọc từ primary một lúc
+        if (readYourWrites != null) {
+            readYourWrites.written(userId);
+        }
+        return getRevision(userId);
+    }
+
+    // Như bump, với user tìm qua task trong cùng câu UPDATE. Dòng user đã bị khóa nên task đọc sau đó không bị
+    // lần ghi khác (cũng phải bump trước) đổi cho tới khi commit
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public TaskVersionDto bumpForTask(int taskId) {
+        if (userRepository.incrementRevisionByTaskId(taskId) == 0) {
+            throw new EntityNotFoundException("Task not found");
+        }
+        TaskVersionDto task = taskRepository.findVersionById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Task not found"));
+        if (readYourWrites != null) {
+            readYourWrites.written(task.getUserId());
+        }
+        return task;
+    }
+
+    @Override
+    public long getRevision(int userId) {
+        return userRepository.findRevisionById(userId).orElse(0L);
+    }
+
+    // Đọc revision trước khi đọc dữ liệu: nếu có ghi xen giữa, ETag cũ hơn dữ liệu và client sẽ tải lại lần sau.
+    // readOnly như các method đọc dữ liệu để cùng đi vào replica (nếu có); request giữ nguồn đọc đã chọn nên
+    // ETag không bao giờ mới hơn dữ liệu đọc từ một replica đang trễ
+    @Override
+    @Transactional(readOnly = true)
+    public String etag(int userId) {
+        return "\"" + userId + "-" + getRevision(userId) + "\"";
+    }
+}
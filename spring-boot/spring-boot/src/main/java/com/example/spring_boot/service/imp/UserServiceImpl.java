@@ -1,17 +1,20 @@
 package com.example.spring_boot.service.imp;
 
-import com.example.spring_boot.dto.CategoryDto;
 import com.example.spring_boot.dto.UserDto;
 import com.example.spring_boot.entity.UserEntity;
 import com.example.spring_boot.mapper.UserMapper;
 import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.PasswordVerifier;
+import com.example.spring_boot.security.TokenService;
 import com.example.spring_boot.service.CategoryService;
 import com.example.spring_boot.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -20,26 +23,48 @@ public class UserServiceImpl implements UserService {
     @Autowired
     UserRepository userRepository;
     @Autowired
-    PasswordEncoder passwordEncoder;
+    PasswordVerifier passwordVerifier;
+    @Autowired
+    TokenService tokenService;
     @Autowired
     CategoryService categoryService;
+    // Một transaction: INSERT user + một batch INSERT category. Trùng tên/email do unique constraint phát hiện
     @Override
+    @Transactional
     public UserEntity register(UserDto userDto) {
-        if (userRepository.existsByUserName(userDto.getUserName())) {
-            throw new RuntimeException("Username already taken!");
-        }
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            throw new RuntimeException("Email already registered!");
-        }
         UserEntity userEntity=userMapper.toEntity(userDto);
-        userEntity=userRepository.save(userEntity);
-        CategoryDto categoryDto=new CategoryDto();
-        categoryDto.setUserId(userEntity.getUserId());
-        categoryService.createDefaultCategories(categoryDto);
+        // User mới bắt đầu ở revision 1 để các category mặc định có revision mà không cần UPDATE user
+        userEntity.setRevision(1L);
+        try {
+            userEntity=userRepository.saveAndFlush(userEntity);
+        } catch (DataIntegrityViolationException ex) {
+            throw new RuntimeException(duplicateMessage(userEntity, ex), ex);
+        }
+        categoryService.createDefaultCategories(userEntity);
         return userEntity;
     }
 
-    public UserDto login(String userName, String rawPassword) {
+    private String duplicateMessage(UserEntity userEntity, DataIntegrityViolationException ex) {
+        String message = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase();
+        // uk_user_shard_*: directory khi sharding, tên/email đã có ở shard khác
+        if (message.contains("uk_user_user_name") || message.contains("uk_user_shard_user_name")) {
+            return "Username already taken!";
+        }
+        if (message.contains("uk_user_email") || message.contains("uk_user_shard_email")) {
+            return "Email already registered!";
+        }
+        // Database tạo trước khi constraint có tên (ddl-auto=update không đổi tên unique key cũ): hỏi lại theo giá trị
+        if (userRepository.existsByUserName(userEntity.getUserName())) {
+            return "Username already taken!";
+        }
+        if (userRepository.existsByEmail(userEntity.getEmail())) {
+            return "Email already registered!";
+        }
+        return "Username or email already registered!";
+    }
+
+    @Override
+    public CompletableFuture<UserDto> login(String userName, String rawPassword) {
         Optional<UserEntity> userOpt = userRepository.findByUserName(userName);
 
         if (userOpt.isEmpty()) {
@@ -48,10 +73,15 @@ public class UserServiceImpl implements UserService {
 
         UserEntity user = userOpt.get();
 
-        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
-            throw new RuntimeException("Invalid password");
-        }
-
-        return userMapper.toDto(user);
+        return passwordVerifier.matches(rawPassword, user.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                throw new RuntimeException("Invalid password");
+            }
+            UserDto userDto = userMapper.toDto(user);
+            // Client dùng token cho các request sau nên không cần trả lại hash mật khẩu
+            userDto.setPassword(null);
+            userDto.setAccessToken(tokenService.issue(user.getUserId()));
+            return userDto;
+        });
     }
 }
\ No newline at end of file
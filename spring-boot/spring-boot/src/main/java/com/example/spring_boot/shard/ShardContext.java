@@ -0,0 +1,84 @@
+package com.example.spring_boot.shard;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard mà connection tiếp theo sẽ dùng. Trong transaction, shard được gắn vào transaction ở câu repository
+ * đầu tiên (ShardRoutingInterceptor) và giữ tới khi kết thúc, nên mọi câu của transaction nằm trên một database.
+ * Ngoài transaction thì theo ThreadLocal (run/call, hoặc interceptor trong lúc gọi repository). Mặc định shard 0.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    private static final Object TRANSACTION_KEY = new Object();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = boundShard();
+        if (shard == null) {
+            shard = CURRENT.get();
+        }
+        return shard == null ? 0 : shard;
+    }
+
+    public static void run(int shard, Runnable task) {
+        call(shard, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T call(int shard, Supplier<T> task) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // Trả về shard trước đó để restore
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    static Integer boundShard() {
+        return (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+    }
+
+    // Gọi khi synchronization đang active và transaction chưa có shard
+    static void bind(int shard) {
+        TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, shard);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+            }
+        });
+    }
+}
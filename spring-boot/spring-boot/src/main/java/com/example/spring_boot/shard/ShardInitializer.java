@@ -0,0 +1,98 @@
+package com.example.spring_boot.shard;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+
+/**
+ * Chuẩn bị các shard khi khởi động, sau khi mọi singleton (cả EntityManagerFactory) đã tạo xong và trước khi
+ * web server nhận request hay các job đọc dữ liệu (ApplicationReadyEvent) chạy:
+ * <ul>
+ *   <li>shard chưa có bảng thì Hibernate tạo schema trên đó (Hibernate chỉ tự tạo trên shard 0);</li>
+ *   <li>đẩy sequence và cột IDENTITY của user lên khoảng id riêng của shard, để id không trùng giữa các shard
+ *   và khi chuyển user;</li>
+ *   <li>ghi các user có từ trước khi bật sharding vào directory với shard 0.</li>
+ * </ul>
+ * Chỉ có một SessionFactory nên optimizer pooled của Hibernate dùng chung: một khối id lấy từ sequence của
+ * shard này có thể được dùng cho dòng ở shard khác. Vì vậy giá trị lớn nhất của mỗi khoảng được tính trên mọi shard.
+ * Trên MySQL, AUTO_INCREMENT của bảng user tự nhảy lên sau khi nhận user có id lớn hơn từ shard khác;
+ * khi đó id mới có thể trùng khoảng của shard kia và bị unique của directory từ chối, nên chỉ nên chuyển user
+ * từ shard thấp sang shard cao, hoặc đặt lại AUTO_INCREMENT sau khi chuyển.
+ */
+public class ShardInitializer implements SmartInitializingSingleton {
+    // {sequence, bảng, cột id}
+    private static final String[][] SEQUENCES = {
+            {"task_seq", "task", "task_id"},
+            {"category_seq", "category", "category_id"},
+            {"notification_outbox_seq", "notification_outbox", "outbox_id"}
+    };
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            if (!hasTable(new JdbcTemplate(shardRouter.dataSource(shard)), "task")) {
+                ShardContext.run(shard, () -> entityManagerFactory.unwrap(SessionFactory.class)
+                        .getSchemaManager().exportMappedObjects(true));
+            }
+        }
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            initializeIds(shard);
+        }
+        new JdbcTemplate(shardRouter.dataSource(0)).update(
+                "INSERT INTO user_shard (user_id, user_name, email, shard) " +
+                "SELECT u.user_id, u.user_name, u.email, 0 FROM user u " +
+                "WHERE NOT EXISTS (SELECT 1 FROM user_shard s WHERE s.user_id = u.user_id)");
+    }
+
+    private void initializeIds(int shard) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRouter.dataSource(shard));
+        long low = shard * shardRouter.getIdRange();
+        long high = low + shardRouter.getIdRange();
+        boolean mysql = "MySQL".equalsIgnoreCase(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        for (String[] sequence : SEQUENCES) {
+            // Pooled optimizer cấp id từ (giá trị sequence - ALLOCATION_SIZE + 1) nên phải cộng thêm một khối
+            long next = Math.max(low, maxInRange(sequence[1], sequence[2], low, high)) + ALLOCATION_SIZE + 1;
+            if (mysql) {
+                jdbcTemplate.update("UPDATE " + sequence[0] + " SET next_val = GREATEST(next_val, " + next + ")");
+            } else {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence[0] + " RESTART WITH " + next);
+            }
+        }
+        long nextUserId = Math.max(low, maxInRange("user", "user_id", low, high)) + 1;
+        if (mysql) {
+            jdbcTemplate.execute("ALTER TABLE user AUTO_INCREMENT = " + nextUserId);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE user ALTER COLUMN user_id RESTART WITH " + nextUserId);
+        }
+    }
+
+    private long maxInRange(String table, String column, long low, long high) {
+        long max = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            max = Math.max(max, new JdbcTemplate(shardRouter.dataSource(shard)).queryForObject(
+                    "SELECT COALESCE(MAX(" + column + "), 0) FROM " + table +
+                    " WHERE " + column + " >= ? AND " + column + " < ?", Long.class, low, high));
+        }
+        return max;
+    }
+
+    private static boolean hasTable(JdbcTemplate jdbcTemplate, String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, table, null)) {
+                return tables.next();
+            }
+        }));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.spring_boot.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * userId -> shard. Directory user_shard nằm trên shard 0 và là nguồn chính xác; user mới được đặt theo
+ * ConsistentHashRing trên userName rồi ghi vào directory. User có từ trước khi bật sharding nằm ở shard 0.
+ * Directory được cache trong bộ nhớ với TTL: sau khi chuyển user, instance khác có thể còn đọc shard cũ
+ * tối đa một TTL, còn ghi thì bị chặn vì dòng user không còn ở shard cũ (UserRevisionService.bump).
+ * Shard của task/category theo id cũng được cache với cùng TTL (xóa khi chuyển user trên instance này).
+ * Các câu ở đây chạy thẳng trên pool của shard, ngoài transaction JPA của request.
+ */
+public class ShardRouter implements AutoCloseable {
+    // Quá số này thì dọn các id đã hết hạn khỏi cache shard của task/category
+    private static final int PURGE_THRESHOLD = 100_000;
+
+    private final List<DataSource> shards;
+    private final JdbcTemplate directory;
+    private final ConsistentHashRing ring;
+    private final long idRange;
+    private final long cacheTtlNanos;
+    private final Map<Integer, CachedShard> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, CachedShard> taskShards = new ConcurrentHashMap<>();
+    private final Map<Integer, CachedShard> categoryShards = new ConcurrentHashMap<>();
+
+    public ShardRouter(List<DataSource> shards, ConsistentHashRing ring, long idRange, Duration cacheTtl) {
+        this.shards = List.copyOf(shards);
+        this.directory = new JdbcTemplate(shards.get(0));
+        this.ring = ring;
+        this.idRange = idRange;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public DataSource dataSource(int shard) {
+        return shards.get(shard);
+    }
+
+    // Sequence của mỗi shard cấp id trong [shard * idRange, (shard + 1) * idRange) nên id không trùng giữa các shard
+    public long getIdRange() {
+        return idRange;
+    }
+
+    public int shardOf(int userId) {
+        CachedShard cached = cache.get(userId);
+        if (cached != null && System.nanoTime() - cached.expiresAt < 0) {
+            return cached.shard;
+        }
+        Integer shard = lookup(userId);
+        if (shard == null) {
+            // Không có trong directory: user không tồn tại, shard 0 cũng trả về "không có"
+            return 0;
+        }
+        cache.put(userId, new CachedShard(shard, System.nanoTime() + cacheTtlNanos));
+        return shard;
+    }
+
+    // Đọc thẳng directory, bỏ qua cache
+    public Integer lookup(int userId) {
+        return first(directory.queryForList("SELECT shard FROM user_shard WHERE user_id = ?", Integer.class, userId));
+    }
+
+    public Integer shardOfUserName(String userName) {
+        return first(directory.queryForList("SELECT shard FROM user_shard WHERE user_name = ?", Integer.class, userName));
+    }
+
+    public Integer shardOfEmail(String email) {
+        return first(directory.queryForList("SELECT shard FROM user_shard WHERE email = ?", Integer.class, email));
+    }
+
+    // Shard cho user mới
+    public int placement(String userName) {
+        return ring.shardFor(userName);
+    }
+
+    /**
+     * Ghi user mới vào directory ngay (unique constraint trên user_name/email của directory chặn trùng giữa
+     * các shard). Chạy trong transaction tạo user thì xóa lại dòng directory nếu transaction rollback.
+     */
+    public void register(int userId, String userName, String email, int shard) {
+        directory.update("INSERT INTO user_shard (user_id, user_name, email, shard) VALUES (?, ?, ?, ?)",
+                userId, userName, email, shard);
+        cache.put(userId, new CachedShard(shard, System.nanoTime() + cacheTtlNanos));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        directory.update("DELETE FROM user_shard WHERE user_id = ?", userId);
+                        cache.remove(userId);
+                    }
+                }
+            });
+        }
+    }
+
+    // Đổi shard của user đã có trong directory (UserShardMover). Task/category của user đổi shard theo,
+    // và việc chuyển user hiếm nên bỏ cả cache shard theo id thay vì tìm từng id của user
+    public void assign(int userId, String userName, String email, int shard) {
+        if (directory.update("UPDATE user_shard SET shard = ? WHERE user_id = ?", shard, userId) == 0) {
+            directory.update("INSERT INTO user_shard (user_id, user_name, email, shard) VALUES (?, ?, ?, ?)",
+                    userId, userName, email, shard);
+        }
+        cache.put(userId, new CachedShard(shard, System.nanoTime() + cacheTtlNanos));
+        taskShards.clear();
+        categoryShards.clear();
+    }
+
+    // Shard đang chứa task/category; null nếu không có ở đâu
+    public Integer shardOfTask(int taskId) {
+        return locate(taskShards, "SELECT COUNT(*) FROM task WHERE task_id = ?", taskId);
+    }
+
+    public Integer shardOfCategory(int categoryId) {
+        return locate(categoryShards, "SELECT COUNT(*) FROM category WHERE category_id = ?", categoryId);
+    }
+
+    // Chạy task lần lượt trên từng shard, cho các job duyệt dữ liệu của mọi user
+    public void forEachShard(Runnable task) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            ShardContext.run(shard, task);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // Hỏi trước shard sở hữu khoảng chứa id: đúng khi id được cấp từ sequence của chính shard đó.
+    // Optimizer pooled của Hibernate dùng chung cho mọi shard và user có thể đã được chuyển, nên không thấy
+    // thì mới hỏi lần lượt các shard còn lại. Chỉ cache khi tìm thấy: id chưa commit sẽ được tìm lại lần sau
+    private Integer locate(Map<Integer, CachedShard> locations, String sql, int id) {
+        long now = System.nanoTime();
+        CachedShard cached = locations.get(id);
+        if (cached != null && now - cached.expiresAt < 0) {
+            return cached.shard;
+        }
+        int home = (int) Math.max(0, Math.min(shards.size() - 1, id / idRange));
+        Integer found = exists(home, sql, id) ? home : null;
+        for (int shard = 0; found == null && shard < shards.size(); shard++) {
+            if (shard != home && exists(shard, sql, id)) {
+                found = shard;
+            }
+        }
+        if (found != null) {
+            locations.put(id, new CachedShard(found, now + cacheTtlNanos));
+            if (locations.size() > PURGE_THRESHOLD) {
+                locations.values().removeIf(entry -> now - entry.expiresAt >= 0);
+            }
+        }
+        return found;
+    }
+
+    private boolean exists(int shard, String sql, int id) {
+        Long count = new JdbcTemplate(shards.get(shard)).queryForObject(sql, Long.class, id);
+        return count != null && count > 0;
+    }
+
+    private static Integer first(List<Integer> values) {
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private static final class CachedShard {
+        final int shard;
+        final long expiresAt;
+
+        CachedShard(int shard, long expiresAt) {
+            this.shard = shard;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.spring_boot.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Chọn pool của shard theo ShardContext lúc lấy connection. Được bọc trong LazyConnectionDataSourceProxy
+ * nên connection thật chỉ được lấy ở câu SQL đầu tiên, sau khi interceptor đã gắn shard cho transaction.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.spring_boot.shard;
+
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.NotificationOutboxEntity;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.TaskOccurrenceEntity;
+import com.example.spring_boot.entity.TombstoneEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gắn vào proxy của mọi repository (ShardingConfig), nằm sau TransactionInterceptor của Spring Data.
+ * Tìm shard từ tham số của method, theo thứ tự:
+ * tham số userId; entity (hoặc phần tử đầu của danh sách entity) theo user sở hữu; findById/deleteById...
+ * của user theo directory, của task/category bằng cách hỏi từng shard; tham số taskId/categoryId như trên;
+ * userName/email theo directory. Không có gợi ý thì giữ shard hiện tại.
+ * Trong transaction, shard của câu đầu tiên được gắn cho cả transaction; câu sau có userId hoặc entity thuộc
+ * shard khác thì báo lỗi thay vì ghi nhầm database. Việc hỏi từng shard bị bỏ qua khi transaction đã có shard.
+ */
+public class ShardRoutingInterceptor implements MethodInterceptor {
+    private static final Set<String> ID_METHODS = Set.of("findById", "existsById", "deleteById",
+            "getReferenceById", "getById");
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final ObjectProvider<ShardRouter> routerProvider;
+    private final Class<?> repositoryInterface;
+    private final Map<Method, String[]> parameterNames = new ConcurrentHashMap<>();
+
+    public ShardRoutingInterceptor(ObjectProvider<ShardRouter> routerProvider, Class<?> repositoryInterface) {
+        this.routerProvider = routerProvider;
+        this.repositoryInterface = repositoryInterface;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ShardRouter router = routerProvider.getObject();
+        Integer bound = ShardContext.boundShard();
+        Hint hint = hint(router, invocation.getMethod(), invocation.getArguments(), bound != null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (bound == null) {
+                ShardContext.bind(hint != null ? hint.shard : ShardContext.current());
+            } else if (hint != null && hint.strict && hint.shard != bound) {
+                throw new IllegalStateException("Data of shard " + hint.shard +
+                        " cannot be used in a transaction on shard " + bound);
+            }
+            return proceed(router, invocation);
+        }
+        if (hint == null) {
+            return proceed(router, invocation);
+        }
+        Integer previous = ShardContext.enter(hint.shard);
+        try {
+            return proceed(router, invocation);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    // User mới (IDENTITY nên có id ngay sau save) được ghi vào directory theo shard vừa chứa nó
+    private Object proceed(ShardRouter router, MethodInvocation invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+        boolean newUser = args.length == 1 && args[0] instanceof UserEntity user && user.getUserId() == null;
+        Object result = invocation.proceed();
+        if (newUser && result instanceof UserEntity user && user.getUserId() != null) {
+            router.register(user.getUserId(), user.getUserName(), user.getEmail(), ShardContext.current());
+        }
+        return result;
+    }
+
+    private Hint hint(ShardRouter router, Method method, Object[] args, boolean bound) {
+        if (args.length == 1 && args[0] instanceof Integer id && ID_METHODS.contains(method.getName())) {
+            if (repositoryInterface == UserRepository.class) {
+                return Hint.strict(router.shardOf(id));
+            }
+            if (!bound && repositoryInterface == TaskRepository.class) {
+                return Hint.soft(router.shardOfTask(id));
+            }
+            if (!bound && repositoryInterface == CategoryRepository.class) {
+                return Hint.soft(router.shardOfCategory(id));
+            }
+        }
+        String[] names = parameterNames.computeIfAbsent(method, ShardRoutingInterceptor::names);
+        for (int i = 0; i < args.length; i++) {
+            if ("userId".equals(names[i]) && args[i] instanceof Integer userId) {
+                return Hint.strict(router.shardOf(userId));
+            }
+        }
+        Hint owner = owner(router, args.length > 0 ? first(args[0]) : null);
+        if (owner != null) {
+            return owner;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (!bound && "taskId".equals(names[i]) && args[i] instanceof Integer taskId) {
+                return Hint.soft(router.shardOfTask(taskId));
+            }
+            if (!bound && "categoryId".equals(names[i]) && args[i] instanceof Integer categoryId) {
+                return Hint.soft(router.shardOfCategory(categoryId));
+            }
+            if ("userName".equals(names[i]) && args[i] instanceof String userName) {
+                Integer shard = router.shardOfUserName(userName);
+                return Hint.soft(shard != null ? shard : router.placement(userName));
+            }
+            if ("email".equals(names[i]) && args[i] instanceof String email) {
+                return Hint.soft(router.shardOfEmail(email));
+            }
+        }
+        return null;
+    }
+
+    private static Hint owner(ShardRouter router, Object entity) {
+        Integer userId = null;
+        if (entity instanceof UserEntity user) {
+            if (user.getUserId() == null) {
+                return Hint.soft(router.placement(user.getUserName()));
+            }
+            userId = user.getUserId();
+        } else if (entity instanceof TaskEntity task && task.getUser() != null) {
+            userId = task.getUser().getUserId();
+        } else if (entity instanceof CategoryEntity category && category.getUser() != null) {
+            userId = category.getUser().getUserId();
+        } else if (entity instanceof TaskOccurrenceEntity occurrence) {
+            userId = occurrence.getUserId();
+        } else if (entity instanceof TombstoneEntity tombstone) {
+            userId = tombstone.getUserId();
+        } else if (entity instanceof NotificationOutboxEntity entry) {
+            userId = entry.getUserId();
+        }
+        return userId == null ? null : Hint.strict(router.shardOf(userId));
+    }
+
+    private static Object first(Object arg) {
+        if (arg instanceof Iterable<?> values) {
+            Iterator<?> iterator = values.iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+        return arg;
+    }
+
+    // Tên trong @Param, nếu không có thì tên biên dịch với -parameters
+    private static String[] names(Method method) {
+        Parameter[] parameters = method.getParameters();
+        String[] discovered = PARAMETER_NAMES.getParameterNames(method);
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Param param = parameters[i].getAnnotation(Param.class);
+            names[i] = param != null ? param.value() : discovered != null ? discovered[i] : null;
+        }
+        return names;
+    }
+
+    // strict: dữ liệu chắc chắn thuộc shard này; soft: chỉ dùng để chọn shard khi transaction chưa có
+    private static final class Hint {
+        final int shard;
+        final boolean strict;
+
+        private Hint(int shard, boolean strict) {
+            this.shard = shard;
+            this.strict = strict;
+        }
+
+        static Hint strict(int shard) {
+            return new Hint(shard, true);
+        }
+
+        static Hint soft(Integer shard) {
+            return shard == null ? null : new Hint(shard, false);
+        }
+    }
+}
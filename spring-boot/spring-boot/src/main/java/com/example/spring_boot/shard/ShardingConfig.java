@@ -0,0 +1,110 @@
+package com.example.spring_boot.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chế độ tùy chọn: chia dữ liệu theo user ra nhiều database. Shard 0 là spring.datasource (chứa directory
+ * user_shard và mọi user có từ trước), các shard sau liệt kê trong sharding.urls, cùng username/password
+ * và cấu hình spring.datasource.hikari.*. Service và repository không đổi: ShardRoutingInterceptor chọn shard
+ * theo tham số của từng câu repository. Không dùng cùng lúc với datasource.replica.url (hai bean dataSource).
+ * <pre>
+ * sharding.urls=jdbc:mysql://shard1:3306/task_manager,jdbc:mysql://shard2:3306/task_manager
+ * sharding.virtual-nodes=160            (điểm ảo của mỗi shard trên vòng consistent hashing)
+ * sharding.id-range=100000000           (khoảng id của mỗi shard)
+ * sharding.directory-cache-ttl=PT1M     (thời gian cache directory)
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "urls")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(DataSourceProperties properties, Environment environment,
+                                   @Value("${sharding.urls}") String[] urls,
+                                   @Value("${sharding.virtual-nodes:160}") int virtualNodes,
+                                   @Value("${sharding.id-range:100000000}") long idRange,
+                                   @Value("${sharding.directory-cache-ttl:PT1M}") Duration cacheTtl) {
+        List<String> shardUrls = new ArrayList<>();
+        shardUrls.add(properties.determineUrl());
+        shardUrls.addAll(List.of(urls));
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardUrls.size(); shard++) {
+            HikariDataSource pool = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(shardUrls.get(shard).trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("shard-" + shard);
+            shards.add(pool);
+        }
+        return new ShardRouter(shards, new ConsistentHashRing(shards.size(), virtualNodes), idRange, cacheTtl);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRouter shardRouter) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            targets.put(shard, shardRouter.dataSource(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shardRouter.dataSource(0));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Thêm ShardRoutingInterceptor vào proxy của mọi repository, sau TransactionInterceptor mà Spring Data đã thêm
+    @Bean
+    public static BeanPostProcessor shardRoutingRepositoryPostProcessor(ObjectProvider<ShardRouter> shardRouter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    new ShardRoutingInterceptor(shardRouter, information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ShardInitializer shardInitializer() {
+        return new ShardInitializer();
+    }
+
+    @Bean
+    public UserShardMover userShardMover(ShardRouter shardRouter) {
+        return new UserShardMover(shardRouter);
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardRouter shardRouter, UserShardMover userShardMover) {
+        return new ShardsEndpoint(shardRouter, userShardMover);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.spring_boot.shard;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Công cụ vận hành qua actuator, chỉ mở khi thêm "shards" vào management.endpoints.web.exposure.include:
+ * GET /actuator/shards/{userId} xem user ở shard nào, POST /actuator/shards/{userId} {"shard": n} chuyển user.
+ * Cần tài khoản ADMIN như mọi endpoint actuator ngoài /health (SecurityConfig).
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+    private final ShardRouter shardRouter;
+    private final UserShardMover userShardMover;
+
+    public ShardsEndpoint(ShardRouter shardRouter, UserShardMover userShardMover) {
+        this.shardRouter = shardRouter;
+        this.userShardMover = userShardMover;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of("shards", shardRouter.shardCount(), "idRange", shardRouter.getIdRange());
+    }
+
+    @ReadOperation
+    public Map<String, Object> user(@Selector int userId) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("shard", shardRouter.lookup(userId));
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> move(@Selector int userId, int shard) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("from", shardRouter.lookup(userId));
+        result.put("rows", userShardMover.move(userId, shard));
+        result.put("shard", shard);
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.spring_boot.shard;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chuyển toàn bộ dữ liệu của một user sang shard khác trong lúc ứng dụng vẫn chạy:
+ * <ol>
+ *   <li>khóa dòng user trên shard nguồn (SELECT ... FOR UPDATE). Mọi lần ghi task/category đều UPDATE
+ *   revision của dòng này nên phải đợi; đọc vẫn chạy bình thường;</li>
+ *   <li>chép các bảng theo thứ tự khóa ngoại sang shard đích và commit;</li>
+ *   <li>đổi directory sang shard đích, từ đây request mới đi vào shard đích;</li>
+ *   <li>xóa dữ liệu ở shard nguồn và commit, nhả khóa. Lần ghi đang đợi khóa sẽ UPDATE 0 dòng và báo lỗi
+ *   (UserRevisionService.bump), client gửi lại thì vào shard đích.</li>
+ * </ol>
+ * Lỗi trước bước 3 thì rollback cả hai bên, dữ liệu vẫn ở shard nguồn. Lỗi ở bước 4 để lại bản sao cũ
+ * ở shard nguồn, không ai đọc tới vì directory đã trỏ sang shard đích.
+ * Outbox nhắc việc được ghi không qua revision nên một lần nhắc ghi đúng lúc chuyển có thể mất.
+ */
+public class UserShardMover {
+    // {bảng, điều kiện theo user, cột không chép}; thứ tự chép, xóa thì ngược lại
+    private static final String[][] TABLES = {
+            {"user", "user_id = ?", null},
+            {"category", "user_id = ?", null},
+            {"task", "user_id = ?", null},
+            {"task_count", "category_id IN (SELECT category_id FROM category WHERE user_id = ?)", null},
+            {"task_occurrence", "user_id = ?", null},
+            // Id IDENTITY, không ai tham chiếu tới: để shard đích tự cấp
+            {"tombstone", "user_id = ?", "tombstone_id"},
+            {"notification_outbox", "user_id = ?", null}
+    };
+    private static final int BATCH_SIZE = 1000;
+
+    private final ShardRouter shardRouter;
+
+    public UserShardMover(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    // Số dòng đã chuyển theo bảng
+    public Map<String, Integer> move(int userId, int target) {
+        if (target < 0 || target >= shardRouter.shardCount()) {
+            throw new IllegalArgumentException("Shard " + target + " does not exist");
+        }
+        Integer source = shardRouter.lookup(userId);
+        if (source == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+        Map<String, Integer> moved = new LinkedHashMap<>();
+        if (source == target) {
+            return moved;
+        }
+        try (Connection from = shardRouter.dataSource(source).getConnection();
+             Connection to = shardRouter.dataSource(target).getConnection()) {
+            from.setAutoCommit(false);
+            to.setAutoCommit(false);
+            try {
+                String[] user = lockUser(from, userId);
+                for (String[] table : TABLES) {
+                    moved.put(table[0], copy(from, to, table, userId));
+                }
+                to.commit();
+                try {
+                    shardRouter.assign(userId, user[0], user[1], target);
+                } catch (RuntimeException ex) {
+                    deleteAll(to, userId);
+                    to.commit();
+                    throw ex;
+                }
+            } catch (SQLException | RuntimeException ex) {
+                to.rollback();
+                from.rollback();
+                throw ex;
+            }
+            try {
+                deleteAll(from, userId);
+                from.commit();
+            } catch (SQLException | RuntimeException ex) {
+                from.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Moving user " + userId + " to shard " + target + " failed", ex);
+        }
+        return moved;
+    }
+
+    // {userName, email}
+    private static String[] lockUser(Connection connection, int userId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT user_name, email FROM user WHERE user_id = ? FOR UPDATE")) {
+            select.setInt(1, userId);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    throw new IllegalArgumentException("User not found");
+                }
+                return new String[]{row.getString(1), row.getString(2)};
+            }
+        }
+    }
+
+    private static int copy(Connection from, Connection to, String[] table, int userId) throws SQLException {
+        try (PreparedStatement select = from.prepareStatement("SELECT * FROM " + table[0] + " WHERE " + table[1])) {
+            select.setInt(1, userId);
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData metaData = rows.getMetaData();
+                List<Integer> columns = new ArrayList<>();
+                List<String> names = new ArrayList<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    if (!metaData.getColumnLabel(i).equalsIgnoreCase(table[2])) {
+                        columns.add(i);
+                        names.add(metaData.getColumnLabel(i));
+                    }
+                }
+                String sql = "INSERT INTO " + table[0] + " (" + String.join(", ", names) + ") VALUES (" +
+                        String.join(", ", Collections.nCopies(names.size(), "?")) + ")";
+                int count = 0;
+                try (PreparedStatement insert = to.prepareStatement(sql)) {
+                    while (rows.next()) {
+                        for (int i = 0; i < columns.size(); i++) {
+                            insert.setObject(i + 1, rows.getObject(columns.get(i)));
+                        }
+                        insert.addBatch();
+                        if (++count % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    if (count % BATCH_SIZE != 0) {
+                        insert.executeBatch();
+                    }
+                }
+                return count;
+            }
+        }
+    }
+
+    private static void deleteAll(Connection connection, int userId) throws SQLException {
+        for (int i = TABLES.length - 1; i >= 0; i--) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + TABLES[i][0] + " WHERE " + TABLES[i][1])) {
+                delete.setInt(1, userId);
+                delete.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.spring_boot;
+
+import com.example.spring_boot.metrics.RequestStatisticsHeaderAdvice;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * ResultMatcher cho MockMvc: làm test hỏng khi một endpoint dùng nhiều câu SQL hơn ngân sách khai báo,
+ * hoặc có lazy collection bị khởi tạo (dấu hiệu N+1 trong mapper). Đọc các header X-SQL-* nên cần
+ * metrics.sql-headers.enabled=true (đã bật trong application.properties của test).
+ *
+ *   mockMvc.perform(get(...)).andExpect(StatementBudget.atMost(2));
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            MockHttpServletResponse response = result.getResponse();
+            int actual = header(response, RequestStatisticsHeaderAdvice.STATEMENTS);
+            if (actual > statements) {
+                throw new AssertionError(String.format("%s %s used %d SQL statements, budget is %d "
+                                + "(entity loads %d, collection fetches %d)",
+                        result.getRequest().getMethod(), result.getRequest().getRequestURI(), actual, statements,
+                        header(response, RequestStatisticsHeaderAdvice.ENTITY_LOADS),
+                        header(response, RequestStatisticsHeaderAdvice.COLLECTION_FETCHES)));
+            }
+        };
+    }
+
+    public static ResultMatcher noCollectionFetches() {
+        return result -> {
+            int actual = header(result.getResponse(), RequestStatisticsHeaderAdvice.COLLECTION_FETCHES);
+            if (actual > 0) {
+                throw new AssertionError(String.format("%s %s initialized %d lazy collections",
+                        result.getRequest().getMethod(), result.getRequest().getRequestURI(), actual));
+            }
+        };
+    }
+
+    private static int header(MockHttpServletResponse response, String name) {
+        String value = response.getHeader(name);
+        if (value == null) {
+            throw new AssertionError("Missing " + name + " header; is metrics.sql-headers.enabled=true?");
+        }
+        return Integer.parseInt(value);
+    }
+}
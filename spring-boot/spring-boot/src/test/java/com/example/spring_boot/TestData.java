@@ -0,0 +1,84 @@
+package com.example.spring_boot;
+
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.Priority;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TestData {
+    public static final String[] CATEGORY_NAMES = {"Personal", "Work", "Grocery List"};
+    // Task thứ i bắt đầu lúc FIRST_START + (i / 10) ngày + (i % 10) phút
+    public static final LocalDateTime FIRST_START = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private TestData() {
+    }
+
+    public static UserEntity createUser(UserRepository userRepository, String prefix) {
+        UserEntity user = new UserEntity();
+        user.setUserName(prefix + "-" + System.nanoTime());
+        user.setEmail(user.getUserName() + "@example.com");
+        user.setPassword("secret");
+        user.setCreatedAt(LocalDateTime.now());
+        return userRepository.save(user);
+    }
+
+    public static List<CategoryEntity> createCategories(CategoryRepository categoryRepository, UserEntity user) {
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (String name : CATEGORY_NAMES) {
+            CategoryEntity category = new CategoryEntity();
+            category.setName(name);
+            category.setUser(user);
+            category.setCreatedAt(LocalDateTime.now());
+            categories.add(categoryRepository.save(category));
+        }
+        return categories;
+    }
+
+    public static List<TaskEntity> createTasks(TaskRepository taskRepository, UserEntity user,
+                                               List<CategoryEntity> categories, int count) {
+        List<TaskEntity> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TaskEntity task = new TaskEntity();
+            task.setTitle("Task " + i);
+            task.setDescription("Description " + i);
+            task.setPriority(i % 2 == 0 ? Priority.important : Priority.normal);
+            task.setStatus(Status.values()[i % Status.values().length]);
+            task.setStartTime(FIRST_START.plusDays(i / 10).plusMinutes(i % 10));
+            task.setCreatedAt(LocalDateTime.now());
+            task.setCategory(categories.get(i % categories.size()));
+            task.setUser(user);
+            tasks.add(task);
+        }
+        return taskRepository.saveAll(tasks);
+    }
+
+    // Access token của user cho request MockMvc: API mặc định bắt buộc token, như khi chạy thật
+    public static RequestPostProcessor token(TokenService tokenService, int userId) {
+        String header = "Bearer " + tokenService.issue(userId);
+        return request -> {
+            request.addHeader(HttpHeaders.AUTHORIZATION, header);
+            return request;
+        };
+    }
+
+    // Statistics của Hibernate đã reset, dùng để đếm số statement của một request
+    public static Statistics clearedStatistics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.spring_boot.config;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Hai database H2 trong bộ nhớ đóng vai primary và replica. Replica không tự đồng bộ:
+ * replicate() chép toàn bộ primary sang, nên giữa hai lần gọi replica là bản cũ, giống một replica đang trễ.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "datasource.replica.read-your-writes=PT0.5S"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primary;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replica;
+    @Autowired
+    ReplicaDataSource replicaRouting;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+    private String userId;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "replica");
+        userId = String.valueOf(user.getUserId());
+        token = TestData.token(tokenService, user.getUserId());
+        categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 10);
+        replicate();
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() throws Exception {
+        // Ghi thẳng qua repository: không đi qua revision nên user không bị ghim vào primary
+        TestData.createTasks(taskRepository, user, categories, 5);
+
+        mockMvc.perform(get("/schedule-manager/task").param("userId", userId).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)));
+        mockMvc.perform(get("/schedule-manager/task/count").param("userId", userId).with(token))
+                .andExpect(status().isOk());
+        assertThat(count(primary, "task")).isEqualTo(count(replica, "task") + 5);
+
+        replicate();
+        mockMvc.perform(get("/schedule-manager/task").param("userId", userId).with(token))
+                .andExpect(jsonPath("$", hasSize(15)));
+    }
+
+    @Test
+    void etagIsReadFromTheSameDatabaseAsTheBody() throws Exception {
+        // Thay đổi đã có trên primary (revision tăng) nhưng replica chưa nhận
+        TestData.createTasks(taskRepository, user, categories, 5);
+        new JdbcTemplate(primary).update("UPDATE user SET revision = revision + 1 WHERE user_id = ?", user.getUserId());
+
+        String etag = mockMvc.perform(get("/schedule-manager/task").param("userId", userId).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isEqualTo("\"" + userId + "-" + user.getRevision() + "\"");
+
+        // ETag theo replica nên khi replica bắt kịp, client nhận dữ liệu mới thay vì 304 cho bản cũ
+        replicate();
+        mockMvc.perform(get("/schedule-manager/task").param("userId", userId).header("If-None-Match", etag).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(15)));
+    }
+
+    @Test
+    void writerReadsItsOwnWritesFromThePrimary() throws Exception {
+        UserEntity other = TestData.createUser(userRepository, "replica-other");
+        TestData.createCategories(categoryRepository, other);
+        replicate();
+
+        mockMvc.perform(post("/schedule-manager/task/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"categoryId\":" + categories.get(0).getCategoryId() +
+                                ",\"title\":\"Fresh\",\"priority\":\"normal\",\"status\":\"pending\"" +
+                                ",\"startTime\":\"2025-01-01T07:00:00\"}").with(token))
+                .andExpect(status().isOk());
+        // Ghi vào primary, replica chưa có
+        assertThat(count(replica, "task")).isEqualTo(count(primary, "task") - 1);
+
+        mockMvc.perform(get("/schedule-manager/task/by-date").param("userId", userId).param("date", "2025-01-01").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(11)))
+                .andExpect(jsonPath("$[0].title").value("Fresh"));
+        mockMvc.perform(get("/schedule-manager/category").param("userId", userId).with(token))
+                .andExpect(jsonPath("$[0].pendingCount").value(1));
+        // Dashboard đọc song song trên pool riêng, vẫn theo user của request
+        mockMvc.perform(get("/schedule-manager/dashboard").param("userId", userId).param("date", "2025-01-01").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks", hasSize(11)));
+
+        // Hết window: quay lại replica (vẫn chưa có task mới)
+        Thread.sleep(700);
+        mockMvc.perform(get("/schedule-manager/task/by-date").param("userId", userId).param("date", "2025-01-01").with(token))
+                .andExpect(jsonPath("$", hasSize(10)));
+    }
+
+    @Test
+    void newUsersSeeTheirDefaultCategoriesRightAfterRegistering() throws Exception {
+        String userName = "replica-signup-" + System.nanoTime();
+        String body = mockMvc.perform(post("/schedule-manager/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("userName", userName, "email", userName + "@example.com", "password", "secret"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int newUserId = objectMapper.readTree(body).get("userId").asInt();
+
+        mockMvc.perform(get("/schedule-manager/category").param("userId", String.valueOf(newUserId)).with(TestData.token(tokenService, newUserId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    @DirtiesContext
+    void fallsBackToThePrimaryWhenTheReplicaIsDown() throws Exception {
+        TestData.createTasks(taskRepository, user, categories, 5);
+        ((HikariDataSource) replica).close();
+
+        mockMvc.perform(get("/schedule-manager/task").param("userId", userId).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(15)));
+        mockMvc.perform(get("/schedule-manager/category").param("userId", userId).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        // Lần đầu lỗi thì bỏ qua replica trong retry-after, không thử lại ở mỗi request
+        assertThat(replicaRouting.getFallbacks()).isEqualTo(1);
+    }
+
+    // Chép schema và dữ liệu của primary sang replica
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primary).queryForList("SCRIPT", String.class);
+        JdbcTemplate target = new JdbcTemplate(replica);
+        target.execute("DROP ALL OBJECTS");
+        for (String statement : script) {
+            target.execute(statement);
+        }
+    }
+
+    private static long count(DataSource dataSource, String table) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "etag");
+        token = TestData.token(tokenService, user.getUserId());
+        categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 20);
+    }
+
+    @Test
+    void unchangedTaskListAnswers304WithoutLoadingTasks() throws Exception {
+        String etag = mockMvc.perform(get("/schedule-manager/task").param("userId", userId()).with(token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+        mockMvc.perform(get("/schedule-manager/task").param("userId", userId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag).with(token))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // Chỉ đọc revision của user
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void writeChangesEtag() throws Exception {
+        String etag = mockMvc.perform(get("/schedule-manager/category").param("userId", userId()).with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/schedule-manager/category/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Study\",\"userId\":" + userId() + "}").with(token))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get("/schedule-manager/category").param("userId", userId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag).with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+
+        // Sửa task cũng làm đổi ETag của danh sách category (số đếm thay đổi)
+        Integer taskId = taskRepository.findByUserUserId(user.getUserId()).get(0).getTaskId();
+        mockMvc.perform(patch("/schedule-manager/task/" + taskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/schedule-manager/category").param("userId", userId())
+                        .header(HttpHeaders.IF_NONE_MATCH, newEtag).with(token))
+                .andExpect(status().isOk());
+    }
+
+    private String userId() {
+        return String.valueOf(user.getUserId());
+    }
+}
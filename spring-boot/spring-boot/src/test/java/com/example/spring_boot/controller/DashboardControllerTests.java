@@ -0,0 +1,85 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.job.TaskCounterRepairJob;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DashboardControllerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    TaskCounterRepairJob taskCounterRepairJob;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private int userId;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        UserEntity user = TestData.createUser(userRepository, "dashboard");
+        userId = user.getUserId();
+        token = TestData.token(tokenService, userId);
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 90);
+        taskCounterRepairJob.repair();
+    }
+
+    @Test
+    void dashboardReturnsCategoriesStatisticsAndDayTasksInFixedStatements() throws Exception {
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(get("/schedule-manager/dashboard")
+                        .param("userId", String.valueOf(userId))
+                        .param("date", "2025-01-03").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories", hasSize(3)))
+                .andExpect(jsonPath("$.categories[0].pendingCount").value(30))
+                .andExpect(jsonPath("$.statistics.Work.done").value(30))
+                .andExpect(jsonPath("$.tasks", hasSize(10)));
+
+        // revision cho ETag + bộ đếm + task trong ngày + các chuỗi lặp trong ngày
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidDateIsRejected() throws Exception {
+        mockMvc.perform(get("/schedule-manager/dashboard")
+                        .param("userId", String.valueOf(userId))
+                        .param("date", "03/01/2025").with(token))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.spring_boot.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PlatformThreadBenchmarkTests extends TaskEndpointThreadingBenchmark {
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
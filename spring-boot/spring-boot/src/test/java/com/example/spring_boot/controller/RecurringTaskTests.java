@@ -0,0 +1,285 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.StatementBudget;
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskOccurrenceRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.example.spring_boot.service.TaskService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecurringTaskTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    TaskOccurrenceRepository taskOccurrenceRepository;
+
+    private int userId;
+    private int seriesId;
+    private RequestPostProcessor token;
+
+    // Chuỗi "Gym" thứ Hai và thứ Tư lúc 9:00, 6 lần: 6, 8, 13, 15, 20, 22/01/2025 (Personal).
+    // Thêm một task thường lúc 10:00 ngày 8/01 (Work)
+    @BeforeEach
+    void seed() throws Exception {
+        UserEntity user = TestData.createUser(userRepository, "recurring");
+        userId = user.getUserId();
+        token = TestData.token(tokenService, userId);
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+
+        String body = mockMvc.perform(post("/schedule-manager/task/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"categoryId\":" + categories.get(0).getCategoryId() +
+                                ",\"title\":\"Gym\",\"priority\":\"normal\",\"status\":\"pending\"" +
+                                ",\"startTime\":\"2025-01-06T09:00:00\"" +
+                                ",\"recurrence\":{\"frequency\":\"weekly\",\"weekdays\":[1,3],\"count\":6}}").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recurrence.interval").value(1))
+                .andReturn().getResponse().getContentAsString();
+        seriesId = objectMapper.readTree(body).get("taskId").asInt();
+
+        TaskDto plain = new TaskDto();
+        plain.setUserId(userId);
+        plain.setCategoryId(categories.get(1).getCategoryId());
+        plain.setTitle("Standup");
+        plain.setPriority("important");
+        plain.setStatus("pending");
+        plain.setStartTime(LocalDateTime.of(2025, 1, 8, 10, 0));
+        taskService.createTask(plain);
+    }
+
+    @Test
+    void seriesIsStoredOnceAndExpandedInsideTheWindow() throws Exception {
+        assertThat(taskRepository.findByUserUserId(userId)).hasSize(2);
+        assertThat(taskRepository.findById(seriesId).orElseThrow().getRecurrenceEnd())
+                .isEqualTo(LocalDateTime.of(2025, 1, 22, 9, 0));
+
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-06")
+                        .param("to", "2025-01-20").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].occurrenceStart", startsWith("2025-01-06T09:00")))
+                .andExpect(jsonPath("$[1].occurrenceStart", startsWith("2025-01-08T09:00")))
+                .andExpect(jsonPath("$[2].title").value("Standup"))
+                .andExpect(jsonPath("$[2].occurrenceStart").doesNotExist())
+                .andExpect(jsonPath("$[4].startTime", startsWith("2025-01-15T09:00")))
+                // revision cho ETag + task thường + chuỗi lặp + ngoại lệ
+                .andExpect(StatementBudget.atMost(4));
+
+        // Sau lần thứ 6 chuỗi dừng
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-20")
+                        .param("to", "2025-03-01").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void occurrenceExceptionsAreAppliedOnRead() throws Exception {
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-08T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("done"));
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-13T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startTime\":\"2025-01-12T14:00:00\"}").with(token))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-15T09:00:00").with(token))
+                .andExpect(status().isNoContent());
+        assertThat(taskOccurrenceRepository.count()).isGreaterThanOrEqualTo(3);
+
+        mockMvc.perform(get("/schedule-manager/task/by-date")
+                        .param("userId", String.valueOf(userId))
+                        .param("date", "2025-01-08").with(token))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value("done"));
+        // Lần lặp 13/01 đã dời sang 12/01, lần 15/01 bị hủy
+        mockMvc.perform(get("/schedule-manager/task/by-date")
+                        .param("userId", String.valueOf(userId))
+                        .param("date", "2025-01-12").with(token))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].startTime", startsWith("2025-01-12T14:00")))
+                .andExpect(jsonPath("$[0].occurrenceStart", startsWith("2025-01-13T09:00")));
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-13")
+                        .param("to", "2025-01-20").with(token))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void invalidOccurrenceChangesAreRejected() throws Exception {
+        // Không có lần lặp vào thứ Ba
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-07T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isBadRequest());
+        // Không dời ra ngoài khoảng của chuỗi
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-22T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startTime\":\"2025-02-01T09:00:00\"}").with(token))
+                .andExpect(status().isBadRequest());
+        // Dời cả chuỗi bằng PATCH thì mọi lần lặp đổi theo: phải dùng PUT
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startTime\":\"2025-01-07T09:00:00\"}").with(token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rangeIsBoundedInDaysAndOccurrences() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-01")
+                        .param("to", "2026-01-03").with(token))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At most " + TaskService.MAX_RANGE_DAYS + " days per request"));
+
+        // 6 chuỗi hằng ngày không có ngày kết thúc: một năm là hơn 2000 lần lặp
+        int categoryId = taskService.getTasksByUserIdAndDate(userId, "2025-01-06").get(0).getCategoryId();
+        for (int i = 0; i < 6; i++) {
+            mockMvc.perform(post("/schedule-manager/task/create")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"userId\":" + userId + ",\"categoryId\":" + categoryId +
+                                    ",\"title\":\"Daily " + i + "\",\"priority\":\"normal\",\"status\":\"pending\"" +
+                                    ",\"startTime\":\"2025-01-01T0" + i + ":00:00\"" +
+                                    ",\"recurrence\":{\"frequency\":\"daily\"}}").with(token))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-01")
+                        .param("to", "2026-01-01").with(token))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Too many tasks in this range, use a shorter range"));
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-02-01").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6 * 31 + 7)));
+    }
+
+    @Test
+    void changingTheRuleDropsOldExceptions() throws Exception {
+        mockMvc.perform(delete("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-08T09:00:00").with(token))
+                .andExpect(status().isNoContent());
+
+        TaskDto series = taskService.getTasksByUserIdAndDate(userId, "2025-01-06").get(0);
+        series.getRecurrence().setFrequency("daily");
+        series.getRecurrence().setWeekdays(null);
+        series.setOccurrenceStart(null);
+        mockMvc.perform(put("/schedule-manager/task/" + seriesId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(series)).with(token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-06")
+                        .param("to", "2025-01-20").with(token))
+                .andExpect(jsonPath("$", hasSize(7)));
+    }
+
+    @Test
+    void statisticsAndDensityCountOccurrencesInTheWindow() throws Exception {
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-08T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isOk());
+
+        // Không có khoảng: bộ đếm theo dòng, chuỗi tính là một task
+        mockMvc.perform(get("/schedule-manager/task/statistics").param("userId", String.valueOf(userId)).with(token))
+                .andExpect(jsonPath("$.Personal.pending").value(1))
+                .andExpect(jsonPath("$.Work.pending").value(1));
+        mockMvc.perform(get("/schedule-manager/task/statistics")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-06")
+                        .param("to", "2025-01-20").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.Personal.pending").value(3))
+                .andExpect(jsonPath("$.Personal.done").value(1))
+                .andExpect(jsonPath("$.Work.pending").value(1))
+                .andExpect(jsonPath("$['Grocery List'].pending").value(0));
+        mockMvc.perform(get("/schedule-manager/task/statistics")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-06").with(token))
+                .andExpect(status().isBadRequest());
+
+        String body = mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-06")
+                        .param("to", "2025-01-27")
+                        .param("groupBy", "status").with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode counts = objectMapper.readTree(body).get("counts");
+        // keys theo Status.values(): pending, done, in_progress
+        assertThat(counts.get(0).get(0).asInt()).isEqualTo(1);
+        assertThat(counts.get(0).get(2).asInt()).isEqualTo(1);
+        assertThat(counts.get(1).get(2).asInt()).isEqualTo(1);
+        assertThat(counts.get(0).get(16).asInt()).isEqualTo(1);
+        int total = 0;
+        for (JsonNode row : counts) {
+            for (JsonNode day : row) {
+                total += day.asInt();
+            }
+        }
+        assertThat(total).isEqualTo(7);
+    }
+}
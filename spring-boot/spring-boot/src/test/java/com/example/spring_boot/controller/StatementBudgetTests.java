@@ -0,0 +1,110 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.StatementBudget;
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ngân sách câu SQL cho các endpoint đọc: thêm N+1 vào mapper hoặc query sẽ làm test này hỏng.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementBudgetTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private String userId;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        UserEntity user = TestData.createUser(userRepository, "budget");
+        userId = String.valueOf(user.getUserId());
+        token = TestData.token(tokenService, user.getUserId());
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 100);
+    }
+
+    @Test
+    void readEndpointsStayWithinStatementBudget() throws Exception {
+        // Một câu revision cho ETag + một câu dữ liệu; dashboard đọc thêm task trong ngày; sync đọc thêm category.
+        // by-date, range và dashboard đọc thêm các chuỗi lặp trong khoảng
+        expectBudget(2, "/schedule-manager/task", "limit", "20");
+        expectBudget(2, "/schedule-manager/task");
+        expectBudget(3, "/schedule-manager/task/by-date", "date", "2025-01-02");
+        expectBudget(3, "/schedule-manager/task/range", "from", "2025-01-01", "to", "2025-01-08");
+        expectBudget(2, "/schedule-manager/task/count");
+        expectBudget(2, "/schedule-manager/task/statistics");
+        expectBudget(2, "/schedule-manager/category");
+        expectBudget(4, "/schedule-manager/dashboard", "date", "2025-01-02");
+        expectBudget(4, "/schedule-manager/sync");
+    }
+
+    @Test
+    void exceedingTheBudgetFailsWithDetails() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/schedule-manager/task").param("userId", userId).with(token))
+                .andExpect(StatementBudget.atMost(1)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("used 2 SQL statements, budget is 1");
+    }
+
+    @Test
+    void statisticsAreExposedAsHeadersAndMetrics() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task/by-date").param("userId", userId).param("date", "2025-01-02").with(token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-SQL-Statements", "3"))
+                .andExpect(header().exists("X-SQL-Entity-Loads"))
+                .andExpect(header().string("X-SQL-Collection-Fetches", "0"));
+
+        DistributionSummary statements = meterRegistry.find("http.server.sql.statements")
+                .tag("uri", "/schedule-manager/task/by-date").summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isPositive();
+        assertThat(meterRegistry.find("http.server.sql.entity.loads")
+                .tag("uri", "/schedule-manager/task/by-date").summary()).isNotNull();
+    }
+
+    private void expectBudget(int statements, String path, String... params) throws Exception {
+        var request = get(path).param("userId", userId);
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        mockMvc.perform(request.with(token))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(statements))
+                .andExpect(StatementBudget.noCollectionFetches());
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.example.spring_boot.service.SyncService;
+import com.example.spring_boot.service.TaskService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SyncControllerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    SyncService syncService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "sync");
+        token = TestData.token(tokenService, user.getUserId());
+        categories = TestData.createCategories(categoryRepository, user);
+        // Dữ liệu cũ, revision 0
+        TestData.createTasks(taskRepository, user, categories, 50);
+    }
+
+    @Test
+    void firstSyncReturnsEverything() throws Exception {
+        JsonNode sync = sync(null);
+
+        assertThat(sync.get("tasks")).hasSize(50);
+        assertThat(sync.get("categories")).hasSize(3);
+        assertThat(sync.get("deletedTaskIds")).isEmpty();
+    }
+
+    @Test
+    void deltaSyncReturnsOnlyChangesAndTombstones() throws Exception {
+        long revision = sync(null).get("revision").asLong();
+
+        TaskDto created = taskService.createTask(task());
+        Integer patchedId = taskRepository.findByUserUserId(user.getUserId()).get(0).getTaskId();
+        mockMvc.perform(patch("/schedule-manager/task/" + patchedId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isOk());
+        Integer deletedId = taskRepository.findByUserUserId(user.getUserId()).get(1).getTaskId();
+        mockMvc.perform(delete("/schedule-manager/task/" + deletedId).with(token))
+                .andExpect(status().isNoContent());
+
+        JsonNode delta = sync(revision);
+        assertThat(delta.get("tasks")).extracting(task -> task.get("taskId").asInt())
+                .containsExactly(created.getTaskId(), patchedId);
+        assertThat(delta.get("tasks").get(1).get("status").asText()).isEqualTo("done");
+        assertThat(delta.get("categories")).isEmpty();
+        assertThat(delta.get("deletedTaskIds")).extracting(JsonNode::asInt).containsExactly(deletedId);
+        assertThat(delta.get("revision").asLong()).isEqualTo(revision + 3);
+
+        // Không có gì mới kể từ revision mới nhất
+        JsonNode empty = sync(delta.get("revision").asLong());
+        assertThat(empty.get("tasks")).isEmpty();
+        assertThat(empty.get("deletedTaskIds")).isEmpty();
+    }
+
+    @Test
+    void largeSyncIsPagedWithACursor() throws Exception {
+        // Cùng revision 0 với 50 task cũ: trang phải cắt giữa các dòng cùng revision
+        TestData.createTasks(taskRepository, user, categories, SyncService.PAGE_SIZE + 50);
+
+        JsonNode first = sync(null);
+        assertThat(first.get("hasMore").asBoolean()).isTrue();
+        assertThat(first.get("tasks").size() + first.get("categories").size()).isEqualTo(SyncService.PAGE_SIZE);
+        JsonNode second = sync(null, first.get("cursor").asText());
+        assertThat(second.get("hasMore").asBoolean()).isFalse();
+        assertThat(second.get("cursor").isNull()).isTrue();
+
+        Set<Integer> taskIds = new HashSet<>();
+        first.get("tasks").forEach(task -> taskIds.add(task.get("taskId").asInt()));
+        second.get("tasks").forEach(task -> taskIds.add(task.get("taskId").asInt()));
+        assertThat(taskIds).hasSize(SyncService.PAGE_SIZE + 100);
+        assertThat(first.get("categories").size() + second.get("categories").size()).isEqualTo(3);
+    }
+
+    @Test
+    void syncOlderThanTombstoneRetentionRequiresFullResync() throws Exception {
+        long revision = sync(null).get("revision").asLong();
+        Integer deletedId = taskRepository.findByUserUserId(user.getUserId()).get(0).getTaskId();
+        mockMvc.perform(delete("/schedule-manager/task/" + deletedId).with(token))
+                .andExpect(status().isNoContent());
+        long afterDelete = sync(revision).get("revision").asLong();
+
+        syncService.purgeTombstones(LocalDateTime.now().plusSeconds(1));
+
+        JsonNode stale = sync(revision);
+        assertThat(stale.get("fullResyncRequired").asBoolean()).isTrue();
+        assertThat(stale.get("tasks")).isEmpty();
+        // Client đã thấy lần xóa thì vẫn sync tiếp bình thường
+        assertThat(sync(afterDelete).get("fullResyncRequired").asBoolean()).isFalse();
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/schedule-manager/sync").param("userId", String.valueOf(user.getUserId()))
+                        .param("cursor", "abc").with(token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode sync(Long since) throws Exception {
+        return sync(since, null);
+    }
+
+    private JsonNode sync(Long since, String cursor) throws Exception {
+        var request = get("/schedule-manager/sync").param("userId", String.valueOf(user.getUserId()));
+        if (since != null) {
+            request.param("since", String.valueOf(since));
+        }
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String body = mockMvc.perform(request.with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private TaskDto task() {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setUserId(user.getUserId());
+        taskDto.setCategoryId(categories.get(1).getCategoryId());
+        taskDto.setTitle("Synced task");
+        taskDto.setPriority("normal");
+        taskDto.setStatus("pending");
+        taskDto.setStartTime(LocalDateTime.of(2025, 5, 1, 9, 0));
+        return taskDto;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskBatchCreateTests {
+
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "batch");
+        token = TestData.token(tokenService, user.getUserId());
+        categories = TestData.createCategories(categoryRepository, user);
+    }
+
+    @Test
+    void createsWholeBatchWithFewStatements() throws Exception {
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(post("/schedule-manager/task/batch")
+                        .param("userId", String.valueOf(user.getUserId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(tasksJson(categories, BATCH_SIZE)).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(BATCH_SIZE)))
+                .andExpect(jsonPath("$[0].taskId").isNumber());
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(BATCH_SIZE);
+        // 1 kiểm tra category + vài lần lấy sequence + 4 batch INSERT + load tên category
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+        assertThat(taskRepository.findByUserUserId(user.getUserId())).hasSize(BATCH_SIZE);
+    }
+
+    @Test
+    void rejectsCategoryOfAnotherUser() throws Exception {
+        UserEntity other = TestData.createUser(userRepository, "batch-other");
+        List<CategoryEntity> otherCategories = TestData.createCategories(categoryRepository, other);
+
+        mockMvc.perform(post("/schedule-manager/task/batch")
+                        .param("userId", String.valueOf(user.getUserId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(tasksJson(List.of(categories.get(0), otherCategories.get(0)), 2)).with(token))
+                .andExpect(status().isBadRequest());
+
+        assertThat(taskRepository.findByUserUserId(user.getUserId())).isEmpty();
+    }
+
+    private static String tasksJson(List<CategoryEntity> categories, int count) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < count; i++) {
+            json.add("{\"categoryId\":" + categories.get(i % categories.size()).getCategoryId() +
+                    ",\"title\":\"Imported " + i + "\",\"description\":\"\"" +
+                    ",\"priority\":\"normal\",\"status\":\"pending\"" +
+                    ",\"startTime\":\"2025-03-01T09:00:00\"}");
+        }
+        return json.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.StatementBudget;
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskDensityTests {
+
+    // 10 task mỗi ngày từ 2025-01-01 tới 2025-01-20
+    private static final int TASK_COUNT = 200;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private String userId;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        UserEntity user = TestData.createUser(userRepository, "density");
+        userId = String.valueOf(user.getUserId());
+        token = TestData.token(tokenService, user.getUserId());
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, TASK_COUNT);
+    }
+
+    @Test
+    void countsTasksPerDayForAWholeYearInOneQuery() throws Exception {
+        String body = mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", userId)
+                        .param("from", "2025-01-01")
+                        .param("to", "2026-01-01").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupBy").value("none"))
+                .andExpect(jsonPath("$.keys", contains("total")))
+                .andExpect(jsonPath("$.counts[0]", hasSize(365)))
+                // Một câu đọc revision cho ETag + một câu GROUP BY + một câu đọc các chuỗi lặp
+                .andExpect(StatementBudget.atMost(3))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode totals = objectMapper.readTree(body).get("counts").get(0);
+        for (int day = 0; day < 365; day++) {
+            assertThat(totals.get(day).asInt()).isEqualTo(day < 20 ? 10 : 0);
+        }
+    }
+
+    @Test
+    void splitsCountsByStatusAndPriority() throws Exception {
+        String body = mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", userId)
+                        .param("from", "2025-01-02")
+                        .param("to", "2025-01-04")
+                        .param("groupBy", "status").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys", contains("pending", "done", "in_progress")))
+                .andReturn().getResponse().getContentAsString();
+
+        // Task thứ i có status values()[i % 3]; ngày 2025-01-02 là task 10..19, 2025-01-03 là 20..29
+        JsonNode counts = objectMapper.readTree(body).get("counts");
+        assertThat(objectMapper.convertValue(counts, int[][].class))
+                .isEqualTo(new int[][]{{3, 3}, {4, 3}, {3, 4}});
+
+        mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", userId)
+                        .param("from", "2025-01-02")
+                        .param("to", "2025-01-04")
+                        .param("groupBy", "priority").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys", contains("important", "normal")))
+                .andExpect(jsonPath("$.counts[0]", contains(5, 5)))
+                .andExpect(jsonPath("$.counts[1]", contains(5, 5)));
+    }
+
+    @Test
+    void rejectsInvalidRangesAndGroups() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", userId).param("from", "2025-01-01").param("to", "2026-01-03").with(token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", userId).param("from", "2025-01-02").param("to", "2025-01-02").with(token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/schedule-manager/task/density")
+                        .param("userId", userId).param("from", "2025-01-01").param("to", "2025-02-01")
+                        .param("groupBy", "category").with(token))
+                .andExpect(status().isBadRequest());
+    }
+}
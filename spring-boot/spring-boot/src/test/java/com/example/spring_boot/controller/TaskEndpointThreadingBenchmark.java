@@ -0,0 +1,107 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bắn nhiều request đồng thời vào các endpoint đọc task và in throughput, p50, p99.
+ * Lớp con chọn chế độ thread của Tomcat (PlatformThreadBenchmarkTests, VirtualThreadBenchmarkTests trên Java 21+)
+ * để so sánh hai chế độ trên cùng tải; chỉ chạy với {@code mvn -Ploadtest test}.
+ * Chỉnh bằng -Dthreading.requests=N và -Dthreading.concurrency=N.
+ */
+@Tag("loadtest")
+abstract class TaskEndpointThreadingBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("threading.requests", 1000);
+    private static final int CONCURRENCY = Integer.getInteger("threading.concurrency", 300);
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    TokenService tokenService;
+
+    abstract String mode();
+
+    @Test
+    void taskEndpointsUnderConcurrentLoad() throws Exception {
+        UserEntity user = TestData.createUser(userRepository, "threading");
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 300);
+        String[] paths = {
+                "/schedule-manager/task?limit=50&userId=" + user.getUserId(),
+                "/schedule-manager/task/by-date?date=2025-01-03&userId=" + user.getUserId(),
+                "/schedule-manager/task/range?from=2025-01-01&to=2025-01-08&userId=" + user.getUserId(),
+                "/schedule-manager/task/count?userId=" + user.getUserId()
+        };
+
+        String authorization = "Bearer " + tokenService.issue(user.getUserId());
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<Void>> responses = new ArrayList<>();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            long t0 = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + paths[i % paths.length]))
+                    .header(HttpHeaders.AUTHORIZATION, authorization).build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, ex) -> {
+                        inFlight.release();
+                        if (ex != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        } else {
+                            latencies.add(System.nanoTime() - t0);
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        System.out.printf("Task endpoints on %s threads: %d requests, concurrency %d, %.0f req/s, p50 %d ms, p99 %d ms, "
+                        + "%d failed%n", mode(), REQUESTS, CONCURRENCY, REQUESTS * 1000.0 / elapsedMillis,
+                percentileMillis(latencies, 50), percentileMillis(latencies, 99), failures.get());
+        assertThat(failures.get()).isZero();
+    }
+
+    private static long percentileMillis(List<Long> nanos, int percentile) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+}
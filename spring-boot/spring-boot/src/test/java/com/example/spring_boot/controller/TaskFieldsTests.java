@@ -0,0 +1,249 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.StatementBudget;
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskFieldsTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+    private String userId;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "fields");
+        userId = String.valueOf(user.getUserId());
+        token = TestData.token(tokenService, user.getUserId());
+        categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 30);
+    }
+
+    @Test
+    void returnsOnlyTheSelectedFields() throws Exception {
+        String body = mockMvc.perform(get("/schedule-manager/task/by-date")
+                        .param("userId", userId)
+                        .param("date", "2025-01-02")
+                        .param("fields", "title,startTime,category").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)))
+                .andExpect(jsonPath("$[0].title").value("Task 10"))
+                .andExpect(jsonPath("$[0].startTime", startsWith("2025-01-02T08:00")))
+                .andExpect(jsonPath("$[0].category.name").value("Work"))
+                // revision cho ETag + task thường + chuỗi lặp
+                .andExpect(StatementBudget.atMost(3))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode first = objectMapper.readTree(body).get(0);
+        assertThat(first.size()).isEqualTo(3);
+        assertThat(first.get("category").size()).isEqualTo(2);
+
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", userId)
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-03")
+                        .param("fields", "taskId,status").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(20)))
+                .andExpect(jsonPath("$[0].status").value("pending"))
+                .andExpect(jsonPath("$[0].title").doesNotExist());
+    }
+
+    @Test
+    void pagesSparseFieldsWithTheSameCursor() throws Exception {
+        String body = mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", userId)
+                        .param("limit", "20")
+                        .param("fields", "title").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(20)))
+                .andExpect(jsonPath("$.items[19].title").value("Task 19"))
+                .andExpect(StatementBudget.atMost(2))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", userId)
+                        .param("limit", "20")
+                        .param("cursor", cursor)
+                        .param("fields", "title").with(token))
+                .andExpect(jsonPath("$.items", hasSize(10)))
+                .andExpect(jsonPath("$.items[0].title").value("Task 20"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/schedule-manager/task").param("userId", userId).param("fields", "taskId").with(token))
+                .andExpect(jsonPath("$", hasSize(30)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void compactFormatSendsNamesAndCategoriesOnce() throws Exception {
+        mockMvc.perform(post("/schedule-manager/task/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"categoryId\":" + categories.get(0).getCategoryId() +
+                                ",\"title\":\"Gym\",\"priority\":\"normal\",\"status\":\"pending\"" +
+                                ",\"startTime\":\"2025-01-01T07:00:00\"" +
+                                ",\"recurrence\":{\"frequency\":\"daily\",\"count\":2}}").with(token))
+                .andExpect(status().isOk());
+
+        String body = mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", userId)
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-02")
+                        .param("format", "compact").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fields[0]").value("taskId"))
+                .andExpect(jsonPath("$.fields[1]").value("categoryId"))
+                .andExpect(jsonPath("$.categories", hasSize(3)))
+                .andExpect(jsonPath("$.tasks", hasSize(11)))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode compact = objectMapper.readTree(body);
+        List<String> fields = objectMapper.convertValue(compact.get("fields"), new TypeReference<List<String>>() {});
+        JsonNode occurrence = compact.get("tasks").get(0);
+        assertThat(occurrence.get(fields.indexOf("title")).asText()).isEqualTo("Gym");
+        assertThat(occurrence.get(fields.indexOf("recurrence")).get("frequency").asText()).isEqualTo("daily");
+        assertThat(occurrence.get(fields.indexOf("occurrenceStart")).asText()).startsWith("2025-01-01T07:00");
+        assertThat(occurrence.get(fields.indexOf("categoryId")).asInt()).isEqualTo(categories.get(0).getCategoryId());
+        JsonNode plain = compact.get("tasks").get(1);
+        assertThat(plain.size()).isEqualTo(fields.size());
+        assertThat(plain.get(fields.indexOf("occurrenceStart")).isNull()).isTrue();
+    }
+
+    @Test
+    void unknownFieldsAndFormatsAreRejected() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", userId)
+                        .param("fields", "title,password").with(token))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown field: password"));
+        mockMvc.perform(get("/schedule-manager/task/by-date")
+                        .param("userId", userId)
+                        .param("date", "2025-01-02")
+                        .param("format", "xml").with(token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", userId)
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-02")
+                        .param("fields", ",").with(token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/schedule-manager/category")
+                        .param("userId", userId)
+                        .param("fields", "name,tasks").with(token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void categoryFieldsSkipTheCountersUnlessAsked() throws Exception {
+        mockMvc.perform(get("/schedule-manager/category")
+                        .param("userId", userId)
+                        .param("fields", "categoryId,name").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].name").value("Personal"))
+                .andExpect(jsonPath("$[0].pendingCount").doesNotExist())
+                .andExpect(StatementBudget.atMost(2));
+        mockMvc.perform(get("/schedule-manager/category")
+                        .param("userId", userId)
+                        .param("fields", "name,pendingCount").with(token))
+                .andExpect(status().isOk())
+                // Bộ đếm theo category như GET /category đầy đủ
+                .andExpect(jsonPath("$[0].pendingCount").isNumber())
+                .andExpect(jsonPath("$[0].categoryId").doesNotExist());
+    }
+
+    // Kích thước payload cho cùng một trang 1000 task: đầy đủ, chỉ các trường cần cho lịch, compact; trước và sau gzip.
+    // Chỉ chạy với mvn -Ploadtest test
+    @Test
+    @Tag("loadtest")
+    void sparseAndCompactPayloadsAreSmaller() throws Exception {
+        TestData.createTasks(taskRepository, user, categories, 970);
+
+        Payload full = measure(get("/schedule-manager/task").param("userId", userId).param("limit", "1000"));
+        Payload sparse = measure(get("/schedule-manager/task").param("userId", userId).param("limit", "1000")
+                .param("fields", "taskId,title,startTime,status"));
+        Payload compact = measure(get("/schedule-manager/task").param("userId", userId).param("limit", "1000")
+                .param("format", "compact"));
+
+        System.out.printf("task payload, 1000 tasks: full %d B (gzip %d B, %d us) | fields %d B (gzip %d B, %d us) " +
+                        "| compact %d B (gzip %d B, %d us)%n",
+                full.bytes, full.gzipBytes, full.micros, sparse.bytes, sparse.gzipBytes, sparse.micros,
+                compact.bytes, compact.gzipBytes, compact.micros);
+        assertThat(sparse.bytes).isLessThan(full.bytes / 2);
+        assertThat(compact.bytes).isLessThan(full.bytes * 2 / 3);
+        assertThat(compact.gzipBytes).isLessThan(full.gzipBytes);
+    }
+
+    private Payload measure(MockHttpServletRequestBuilder request)
+            throws Exception {
+        // Lần đầu để nạp class và làm nóng JIT, đo lần cuối
+        byte[] body = null;
+        long micros = 0;
+        request.with(token);
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+            micros = (System.nanoTime() - start) / 1000;
+        }
+        return new Payload(body.length, gzip(body).length, micros);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private record Payload(int bytes, int gzipBytes, long micros) {
+    }
+}
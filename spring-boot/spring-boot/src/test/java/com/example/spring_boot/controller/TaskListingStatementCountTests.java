@@ -0,0 +1,178 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.example.spring_boot.service.TaskService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskListingStatementCountTests {
+
+    private static final int TASK_COUNT = 1000;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private int userId;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        UserEntity user = TestData.createUser(userRepository, "listing");
+        userId = user.getUserId();
+        token = TestData.token(tokenService, userId);
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, TASK_COUNT);
+    }
+
+    @Test
+    void listingAllTasksUsesFixedStatementCount() throws Exception {
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(get("/schedule-manager/task").param("userId", String.valueOf(userId)).with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TASK_COUNT)))
+                .andExpect(jsonPath("$[0].category.name").exists());
+
+        // Một câu đọc revision cho ETag + một câu đọc task
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void listingTasksByDateUsesFixedStatementCount() throws Exception {
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(get("/schedule-manager/task/by-date")
+                        .param("userId", String.valueOf(userId))
+                        .param("date", "2025-01-02").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)));
+
+        // Một câu đọc revision cho ETag + một câu đọc task + một câu đọc các chuỗi lặp
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void listingTasksByRangeUsesFixedStatementCount() throws Exception {
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(get("/schedule-manager/task/range")
+                        .param("userId", String.valueOf(userId))
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-08").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(70)));
+
+        // Một câu đọc revision cho ETag + một câu đọc task + một câu đọc các chuỗi lặp
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void rangeBeyondTheUnpagedCapFailsAfterReadingOneRowPastIt() throws Exception {
+        UserEntity dense = TestData.createUser(userRepository, "listing-dense");
+        TestData.createTasks(taskRepository, dense, TestData.createCategories(categoryRepository, dense),
+                TaskService.MAX_UNPAGED_TASKS + 500);
+        RequestPostProcessor denseToken = TestData.token(tokenService, dense.getUserId());
+
+        for (String fields : new String[]{null, "taskId,startTime"}) {
+            Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+            MockHttpServletRequestBuilder request = get("/schedule-manager/task/range")
+                    .param("userId", String.valueOf(dense.getUserId()))
+                    .param("from", "2025-01-01")
+                    .param("to", "2026-01-01");
+            if (fields != null) {
+                request.param("fields", fields);
+            }
+            mockMvc.perform(request.with(denseToken))
+                    .andExpect(status().isBadRequest());
+
+            // Không đọc hết task của khoảng chỉ để báo lỗi
+            assertThat(Arrays.stream(statistics.getQueries())
+                    .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionRowCount()).max().orElseThrow())
+                    .isEqualTo(TaskService.MAX_UNPAGED_TASKS + 1);
+        }
+    }
+
+    @Test
+    void cursorPagingWalksAllTasksInOrderWithFixedStatementsPerPage() throws Exception {
+        Set<Integer> seen = new HashSet<>();
+        String previousStart = "";
+        String cursor = null;
+        int pages = 0;
+        do {
+            Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+            MockHttpServletRequestBuilder request = get("/schedule-manager/task")
+                    .param("userId", String.valueOf(userId))
+                    .param("limit", "300");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request.with(token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            // Một câu đọc revision cho ETag + một câu đọc task
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+            JsonNode page = objectMapper.readTree(body);
+            for (JsonNode task : page.get("items")) {
+                assertThat(seen.add(task.get("taskId").asInt())).isTrue();
+                String start = task.get("startTime").asText();
+                assertThat(start).isGreaterThanOrEqualTo(previousStart);
+                previousStart = start;
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(seen).hasSize(TASK_COUNT);
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", String.valueOf(userId))
+                        .param("cursor", "not-a-cursor").with(token))
+                .andExpect(status().isBadRequest());
+    }
+}
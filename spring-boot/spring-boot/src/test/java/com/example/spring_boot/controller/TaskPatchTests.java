@@ -0,0 +1,152 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.example.spring_boot.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskPatchTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private UserEntity user;
+    private TaskDto task;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "patch");
+        token = TestData.token(tokenService, user.getUserId());
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TaskDto taskDto = new TaskDto();
+        taskDto.setUserId(user.getUserId());
+        taskDto.setCategoryId(categories.get(0).getCategoryId());
+        taskDto.setTitle("Patch me");
+        taskDto.setPriority("normal");
+        taskDto.setStatus("pending");
+        taskDto.setStartTime(LocalDateTime.of(2025, 4, 1, 9, 0));
+        task = taskService.createTask(taskDto);
+    }
+
+    @Test
+    void patchIssuesOneUpdateAndBumpsVersion() throws Exception {
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(patch("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"priority\":\"important\",\"version\":0}").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+
+        // OwnershipGuard đọc chủ sở hữu của task, tăng revision của user (tìm qua task), đọc revision,
+        // rồi một UPDATE task; không đọc cả task trước
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(taskRepository.findById(task.getTaskId()).orElseThrow().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void patchStatusMovesCounters() throws Exception {
+        mockMvc.perform(patch("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isOk());
+
+        assertThat(taskRepository.findById(task.getTaskId()).orElseThrow().getStatus()).isEqualTo(Status.done);
+        assertThat(taskService.getTaskCountByCategoryAndStatus(user.getUserId()).get("Personal"))
+                .containsEntry(Status.pending, 0)
+                .containsEntry(Status.done, 1);
+    }
+
+    @Test
+    void stalePatchReturnsConflict() throws Exception {
+        mockMvc.perform(patch("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\",\"version\":0}").with(token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"in_progress\",\"version\":0}").with(token))
+                .andExpect(status().isConflict());
+
+        assertThat(taskRepository.findById(task.getTaskId()).orElseThrow().getStatus()).isEqualTo(Status.done);
+    }
+
+    @Test
+    void stalePutReturnsConflict() throws Exception {
+        mockMvc.perform(patch("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"priority\":\"important\"}").with(token))
+                .andExpect(status().isOk());
+
+        task.setTitle("Edited offline");
+        mockMvc.perform(put("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(task)).with(token))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void emptyPatchIsRejectedWithoutWriting() throws Exception {
+        long revision = userRepository.findRevisionById(user.getUserId()).orElseThrow();
+
+        mockMvc.perform(patch("/schedule-manager/task/" + task.getTaskId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"version\":0}").with(token))
+                .andExpect(status().isBadRequest());
+
+        assertThat(taskRepository.findById(task.getTaskId()).orElseThrow().getVersion()).isZero();
+        assertThat(userRepository.findRevisionById(user.getUserId())).contains(revision);
+    }
+
+    @Test
+    void patchUnknownTaskReturnsNotFound() throws Exception {
+        mockMvc.perform(patch("/schedule-manager/task/999999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token))
+                .andExpect(status().isNotFound());
+    }
+}
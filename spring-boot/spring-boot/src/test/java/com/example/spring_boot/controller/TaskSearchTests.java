@@ -0,0 +1,141 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.StatementBudget;
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.search.TaskSearchIndex;
+import com.example.spring_boot.security.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskSearchTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    TaskSearchIndex taskSearchIndex;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+    private RequestPostProcessor token;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "search");
+        token = TestData.token(tokenService, user.getUserId());
+        categories = TestData.createCategories(categoryRepository, user);
+    }
+
+    @Test
+    void createdTasksAreSearchableWithoutDiacritics() throws Exception {
+        int meeting = create("Họp nhóm dự án", "Chuẩn bị báo cáo tiến độ");
+        int report = create("Viết báo cáo", "Gửi trưởng phòng");
+        create("Đi chợ", "Mua rau");
+
+        mockMvc.perform(search("bao cao").with(token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].taskId", contains(report, meeting)))
+                .andExpect(jsonPath("$[0].category.name").exists())
+                .andExpect(StatementBudget.atMost(2));
+        mockMvc.perform(search("du a").with(token))
+                .andExpect(jsonPath("$[*].taskId", contains(meeting)));
+    }
+
+    @Test
+    void updateAndDeleteKeepIndexInSync() throws Exception {
+        int taskId = create("Gọi điện cho khách", "");
+
+        mockMvc.perform(put("/schedule-manager/task/" + taskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson("Gửi email cho khách", "")).with(token))
+                .andExpect(status().isOk());
+        mockMvc.perform(search("goi").with(token)).andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(search("email").with(token)).andExpect(jsonPath("$[*].taskId", contains(taskId)));
+
+        mockMvc.perform(delete("/schedule-manager/task/" + taskId).with(token)).andExpect(status().isNoContent());
+        mockMvc.perform(search("email").with(token)).andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void doesNotReturnOtherUsersTasks() throws Exception {
+        create("Đặt vé máy bay", "");
+        UserEntity other = TestData.createUser(userRepository, "search-other");
+
+        mockMvc.perform(get("/schedule-manager/task/search")
+                        .param("userId", String.valueOf(other.getUserId()))
+                        .param("q", "ve may bay").with(TestData.token(tokenService, other.getUserId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void rebuildIndexesTasksWrittenOutsideTheService() throws Exception {
+        TestData.createTasks(taskRepository, user, categories, 30);
+        mockMvc.perform(search("description 2").with(token)).andExpect(jsonPath("$", hasSize(0)));
+
+        taskSearchIndex.rebuild();
+
+        // "2" khớp tiền tố của 2, 20..29
+        mockMvc.perform(search("description 2").with(token)).andExpect(jsonPath("$", hasSize(11)));
+    }
+
+    @Test
+    void rejectsEmptyQuery() throws Exception {
+        mockMvc.perform(search(" ").with(token)).andExpect(status().isBadRequest());
+    }
+
+    private org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder search(String q) {
+        return get("/schedule-manager/task/search")
+                .param("userId", String.valueOf(user.getUserId()))
+                .param("q", q);
+    }
+
+    private int create(String title, String description) throws Exception {
+        String body = mockMvc.perform(post("/schedule-manager/task/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(title, description)).with(token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("taskId").asInt();
+    }
+
+    private String taskJson(String title, String description) {
+        return "{\"categoryId\":" + categories.get(0).getCategoryId() + ",\"userId\":" + user.getUserId() +
+                ",\"title\":\"" + title + "\",\"description\":\"" + description + "\"" +
+                ",\"priority\":\"normal\",\"status\":\"pending\",\"startTime\":\"2025-03-01T09:00:00\"}";
+    }
+}
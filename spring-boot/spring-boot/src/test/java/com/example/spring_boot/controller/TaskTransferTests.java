@@ -0,0 +1,221 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.mapper.TaskCsvMapper;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import com.example.spring_boot.service.TaskTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskTransferTests {
+
+    private static final int TASK_COUNT = 2500;
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    TaskTransferService taskTransferService;
+
+    private UserEntity source;
+    private UserEntity target;
+    private RequestPostProcessor sourceToken;
+    private RequestPostProcessor targetToken;
+
+    @BeforeEach
+    void seed() {
+        source = TestData.createUser(userRepository, "export");
+        sourceToken = TestData.token(tokenService, source.getUserId());
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, source);
+        List<TaskEntity> tasks = TestData.createTasks(taskRepository, source, categories, TASK_COUNT);
+        // Ký tự cần escape trong CSV/JSON
+        tasks.get(0).setDescription("Mua sữa, \"loại tốt\"\nvà bánh mì");
+        taskRepository.save(tasks.get(0));
+
+        target = TestData.createUser(userRepository, "import");
+        targetToken = TestData.token(tokenService, target.getUserId());
+        TestData.createCategories(categoryRepository, target);
+    }
+
+    @Test
+    void ndjsonExportImportsIntoAnotherAccount() throws Exception {
+        String exported = export(TaskTransferService.NDJSON, MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(exported.split("\n")).hasSize(TASK_COUNT);
+
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .content(exported.getBytes(StandardCharsets.UTF_8)).with(targetToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(TASK_COUNT));
+
+        assertSameTasks();
+    }
+
+    @Test
+    void csvExportImportsIntoAnotherAccount() throws Exception {
+        String exported = export(TaskTransferService.CSV, "text/csv;charset=UTF-8");
+        assertThat(exported).startsWith(TaskCsvMapper.HEADER + "\n");
+
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .param("format", TaskTransferService.CSV)
+                        .content(exported.getBytes(StandardCharsets.UTF_8)).with(targetToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(TASK_COUNT));
+
+        assertSameTasks();
+        // Bộ đếm (category, status) được cập nhật theo lô import; task thứ i có category i % 3 và status i % 3
+        mockMvc.perform(get("/schedule-manager/task/count").param("userId", String.valueOf(target.getUserId())).with(targetToken))
+                .andExpect(jsonPath("$.Personal.pending").value(834))
+                .andExpect(jsonPath("$.Work.done").value(833));
+    }
+
+    @Test
+    void importCreatesMissingCategoriesByName() throws Exception {
+        String row = "{\"category\":\"Du lịch\",\"title\":\"Đặt vé\",\"priority\":\"normal\"," +
+                "\"status\":\"pending\",\"startTime\":\"2025-05-01T08:00:00\"}\n";
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .content(row).with(targetToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        assertThat(categoryRepository.findByUserUserId(target.getUserId()))
+                .extracting(CategoryEntity::getName).contains("Du lịch");
+        assertThat(taskRepository.findByUserUserId(target.getUserId()).get(0).getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    void rejectsUnknownFormatAndMalformedRows() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task/export")
+                        .param("userId", String.valueOf(source.getUserId()))
+                        .param("format", "xml").with(sourceToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .content("{\"title\":\"No category\"}\n").with(targetToken))
+                .andExpect(status().isBadRequest());
+        assertThat(taskRepository.findByUserUserId(target.getUserId())).isEmpty();
+    }
+
+    @Test
+    void retryAfterPartialFailureSkipsTasksAlreadyImported() throws Exception {
+        // Lô đầu (1000 dòng) commit, dòng 1200 thiếu category làm lô thứ hai lỗi
+        StringBuilder broken = new StringBuilder();
+        StringBuilder fixed = new StringBuilder();
+        for (int i = 1; i <= 1500; i++) {
+            String row = "{\"taskId\":" + i + ",\"category\":\"Work\",\"title\":\"Task " + i + "\"," +
+                    "\"priority\":\"normal\",\"status\":\"pending\",\"startTime\":\"2025-05-01T08:00:00\"}\n";
+            broken.append(i == 1200 ? row.replace("\"category\":\"Work\",", "") : row);
+            fixed.append(row);
+        }
+        String message = mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .content(broken.toString()).with(targetToken))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(message).startsWith("Imported 1000 tasks before failing");
+        assertThat(taskRepository.findByUserUserId(target.getUserId())).hasSize(1000);
+
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .content(fixed.toString()).with(targetToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(500));
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", String.valueOf(target.getUserId()))
+                        .content(fixed.toString()).with(targetToken))
+                .andExpect(jsonPath("$.imported").value(0));
+        assertThat(taskRepository.findByUserUserId(target.getUserId()))
+                .extracting(TaskEntity::getTitle).doesNotHaveDuplicates().hasSize(1500);
+    }
+
+    @Test
+    void rejectsExportsBeyondTheConcurrencyLimit() throws Exception {
+        // Giữ hết chỗ export (mặc định 4) như khi có 4 client tải chậm
+        List<Runnable> slots = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                slots.add(taskTransferService.reserveExport());
+            }
+            mockMvc.perform(get("/schedule-manager/task/export")
+                            .param("userId", String.valueOf(source.getUserId())).with(sourceToken))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists("Retry-After"));
+        } finally {
+            slots.forEach(Runnable::run);
+        }
+        // Chỗ được trả sau mỗi export nên export tuần tự không bao giờ hết chỗ
+        for (int i = 0; i < 5; i++) {
+            export(TaskTransferService.NDJSON, MediaType.APPLICATION_NDJSON_VALUE);
+        }
+    }
+
+    private String export(String format, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get("/schedule-manager/task/export")
+                        .param("userId", String.valueOf(source.getUserId()))
+                        .param("format", format).with(sourceToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"tasks-" + source.getUserId() + "." + format + "\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private void assertSameTasks() {
+        Comparator<TaskEntity> order = Comparator.comparing(TaskEntity::getStartTime).thenComparing(TaskEntity::getTitle);
+        List<TaskEntity> expected = taskRepository.findByUserUserId(source.getUserId());
+        List<TaskEntity> actual = taskRepository.findByUserUserId(target.getUserId());
+        expected.sort(order);
+        actual.sort(order);
+        assertThat(actual).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getTitle()).isEqualTo(expected.get(i).getTitle());
+            assertThat(actual.get(i).getDescription()).isEqualTo(expected.get(i).getDescription());
+            assertThat(actual.get(i).getStatus()).isEqualTo(expected.get(i).getStatus());
+            assertThat(actual.get(i).getPriority()).isEqualTo(expected.get(i).getPriority());
+            assertThat(actual.get(i).getCreatedAt()).isEqualTo(expected.get(i).getCreatedAt());
+            assertThat(actual.get(i).getCategory().getName()).isEqualTo(expected.get(i).getCategory().getName());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.spring_boot.controller;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserRegistrationTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void registrationInsertsUserAndDefaultCategoriesInOneBatch() throws Exception {
+        // Lần đăng ký đầu khởi tạo bộ sinh id pooled (gọi sequence hai lần), không tính vào phép đo
+        String warmUp = "signup-warmup-" + System.nanoTime();
+        register(warmUp, warmUp + "@example.com").andExpect(status().isOk());
+        String userName = "signup-" + System.nanoTime();
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        register(userName, userName + "@example.com").andExpect(status().isOk());
+
+        // INSERT user + (có thể) lấy block id từ sequence + một batch INSERT category; không còn exists/findById
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        UserEntity user = userRepository.findByUserName(userName).orElseThrow();
+        List<CategoryEntity> categories = categoryRepository.findByUserUserId(user.getUserId());
+        assertThat(categories).extracting(CategoryEntity::getName).containsExactlyInAnyOrder(TestData.CATEGORY_NAMES);
+        assertThat(categories).allSatisfy(category -> assertThat(category.getRevision()).isEqualTo(user.getRevision()));
+    }
+
+    @Test
+    void duplicateUserNameOrEmailIsRejectedByUniqueConstraint() throws Exception {
+        String userName = "signup-dup-" + System.nanoTime();
+        register(userName, userName + "@example.com").andExpect(status().isOk());
+
+        register(userName, "other-" + userName + "@example.com")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Username already taken!"));
+        register("other-" + userName, userName + "@example.com")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Email already registered!"));
+        assertThat(userRepository.findByUserName("other-" + userName)).isEmpty();
+    }
+
+    @Test
+    void duplicateIsReportedWhenConstraintsHaveLegacyNames() throws Exception {
+        String userName = "signup-legacy-" + System.nanoTime();
+        register(userName, userName + "@example.com").andExpect(status().isOk());
+
+        // Như database MySQL cũ, nơi unique key có tên tự sinh. H2 báo lỗi theo tên index của constraint
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("ALTER TABLE user RENAME CONSTRAINT uk_user_user_name TO ukjx1f4bq2n1r8c7");
+        jdbcTemplate.execute("ALTER TABLE user RENAME CONSTRAINT uk_user_email TO uk6dotkott2kjsp8v");
+        List<String> indexes = jdbcTemplate.queryForList("SELECT index_name FROM information_schema.indexes " +
+                "WHERE table_name = 'user' AND index_name LIKE 'uk_user_%'", String.class);
+        for (int i = 0; i < indexes.size(); i++) {
+            jdbcTemplate.execute("ALTER INDEX \"" + indexes.get(i) + "\" RENAME TO legacy_index_" + i);
+        }
+        try {
+            register(userName, "other-" + userName + "@example.com")
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Username already taken!"));
+            register("other-" + userName, userName + "@example.com")
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("Email already registered!"));
+        } finally {
+            for (int i = 0; i < indexes.size(); i++) {
+                jdbcTemplate.execute("ALTER INDEX legacy_index_" + i + " RENAME TO \"" + indexes.get(i) + "\"");
+            }
+            jdbcTemplate.execute("ALTER TABLE user RENAME CONSTRAINT ukjx1f4bq2n1r8c7 TO uk_user_user_name");
+            jdbcTemplate.execute("ALTER TABLE user RENAME CONSTRAINT uk6dotkott2kjsp8v TO uk_user_email");
+        }
+    }
+
+    private ResultActions register(String userName, String email) throws Exception {
+        return mockMvc.perform(post("/schedule-manager/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        Map.of("userName", userName, "email", email, "password", "secret"))));
+    }
+}
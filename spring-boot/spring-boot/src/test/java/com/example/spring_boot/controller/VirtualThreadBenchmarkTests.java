@@ -0,0 +1,17 @@
+package com.example.spring_boot.controller;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Virtual thread cần Java 21+; trên JDK cũ hơn test này bị bỏ qua
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadBenchmarkTests extends TaskEndpointThreadingBenchmark {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.spring_boot.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSubscriberTests {
+
+    // Executor giữ lại task để test quyết định khi nào "mạng" gửi được
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private final Executor manualExecutor = pending::add;
+
+    @Test
+    void deliversEventsInOrderWhenConsumerKeepsUp() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        EventSubscriber subscriber = new EventSubscriber(1, emitter, 8, manualExecutor);
+
+        for (int revision = 1; revision <= 3; revision++) {
+            subscriber.offer(event(revision));
+        }
+        runPending();
+
+        assertThat(emitter.sent).hasSize(3);
+        assertThat(emitter.sent).allMatch(frame -> frame.contains("event:change"));
+        assertThat(emitter.sent.get(2)).contains("\"revision\":3");
+    }
+
+    @Test
+    void slowConsumerGetsSingleResyncInsteadOfUnboundedQueue() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        EventSubscriber subscriber = new EventSubscriber(1, emitter, 8, manualExecutor);
+
+        for (int revision = 1; revision <= 1000; revision++) {
+            subscriber.offer(event(revision));
+        }
+        // Hàng đợi không vượt quá capacity, và chỉ có một lần drain được lên lịch
+        assertThat(subscriber.pending()).isLessThanOrEqualTo(8);
+        assertThat(pending).hasSize(1);
+
+        runPending();
+
+        assertThat(emitter.sent).hasSize(1);
+        assertThat(emitter.sent.get(0)).contains("event:resync").contains("\"revision\":1000");
+    }
+
+    @Test
+    void failedSendClosesSubscriber() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        EventSubscriber subscriber = new EventSubscriber(1, emitter, 8, manualExecutor);
+
+        subscriber.offer(event(1));
+        runPending();
+
+        assertThat(subscriber.isClosed()).isTrue();
+    }
+
+    @Test
+    void heartbeatsAreBatchedInsteadOfOneTaskPerConnection() {
+        ChangeEventBroadcaster broadcaster = new ChangeEventBroadcaster(manualExecutor, 8, 60_000, 4);
+        for (int userId = 1; userId <= 100; userId++) {
+            broadcaster.subscribe(userId);
+        }
+
+        broadcaster.heartbeat();
+
+        assertThat(pending).hasSize(4);
+        runPending();
+        assertThat(broadcaster.getConnectionCount()).isEqualTo(100);
+    }
+
+    private void runPending() {
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static ChangeEvent event(long revision) {
+        return new ChangeEvent("task", ChangeEvent.UPDATED, 10, 1, revision);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws java.io.IOException {
+            if (failing) {
+                throw new java.io.IOException("Broken pipe");
+            }
+            StringBuilder frame = new StringBuilder();
+            builder.build().forEach(part -> frame.append(part.getData() instanceof String text
+                    ? text : new com.fasterxml.jackson.databind.ObjectMapper().valueToTree(part.getData()).toString()));
+            sent.add(frame.toString());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.spring_boot.event;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.security.TokenService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mở nhiều kết nối SSE thật tới server và kiểm tra event vẫn tới đủ mà số thread không tăng theo
+ * số kết nối. Số kết nối chỉnh bằng -Dsse.connections=N (mặc định 2000); phép đo tải chỉ chạy với
+ * {@code mvn -Ploadtest test}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SseConnectionLoadTests {
+
+    private static final int CONNECTIONS = Integer.getInteger("sse.connections", 2000);
+    private static final int BASE_USER_ID = 1_000_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    ChangeEventBroadcaster broadcaster;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TokenService tokenService;
+
+    @Test
+    @Tag("loadtest")
+    void sustainsManyIdleConnectionsWithoutThreadPerConnection() throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4, SseConnectionLoadTests::daemon);
+        HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        int connectionsBefore = broadcaster.getConnectionCount();
+
+        CountDownLatch received = new CountDownLatch(CONNECTIONS);
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            HttpRequest request = events(BASE_USER_ID + i);
+            responses.add(client.sendAsync(request,
+                    HttpResponse.BodyHandlers.fromLineSubscriber(new MarkerSubscriber("\"action\":\"updated\"", received))));
+        }
+        waitFor(() -> broadcaster.getConnectionCount() - connectionsBefore >= CONNECTIONS, Duration.ofSeconds(120));
+        int threadsConnected = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            broadcaster.publish(new ChangeEvent("task", ChangeEvent.UPDATED, i, BASE_USER_ID + i, 1));
+        }
+        boolean allDelivered = received.await(60, TimeUnit.SECONDS);
+        long fanOutMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        System.out.printf("SSE load: %d connections, threads %d -> %d, fan-out %d ms%n",
+                CONNECTIONS, threadsBefore, threadsConnected, fanOutMillis);
+        assertThat(allDelivered).isTrue();
+        // Kết nối rảnh không giữ thread: số thread chỉ tăng tới mức pool worker của Tomcat (200) lúc kết nối dồn dập,
+        // không tăng theo số kết nối
+        assertThat(threadsConnected - threadsBefore).isLessThan(TOMCAT_MAX_THREADS + 50);
+
+        responses.forEach(response -> response.cancel(true));
+        clientExecutor.shutdownNow();
+    }
+
+    @Test
+    void committedTaskWriteIsPushedToSubscriber() throws Exception {
+        UserEntity user = TestData.createUser(userRepository, "sse");
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(2, SseConnectionLoadTests::daemon);
+        HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+        CountDownLatch received = new CountDownLatch(1);
+        int connectionsBefore = broadcaster.getConnectionCount();
+        CompletableFuture<HttpResponse<Void>> response = client.sendAsync(
+                events(user.getUserId()),
+                HttpResponse.BodyHandlers.fromLineSubscriber(new MarkerSubscriber("\"action\":\"created\"", received)));
+        waitFor(() -> broadcaster.getConnectionCount() > connectionsBefore, Duration.ofSeconds(10));
+
+        String task = "{\"userId\":" + user.getUserId() + ",\"categoryId\":" + categories.get(0).getCategoryId() +
+                ",\"title\":\"Pushed\",\"priority\":\"normal\",\"status\":\"pending\",\"startTime\":\"2025-06-01T09:00:00\"}";
+        HttpResponse<String> created = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/schedule-manager/task/create"))
+                .header("Content-Type", "application/json")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(user.getUserId()))
+                .POST(HttpRequest.BodyPublishers.ofString(task)).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(created.statusCode()).isEqualTo(200);
+        assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+        response.cancel(true);
+        clientExecutor.shutdownNow();
+    }
+
+    private HttpRequest events(int userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/schedule-manager/events?userId=" + userId))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(userId))
+                .build();
+    }
+
+    private static Thread daemon(Runnable runnable) {
+        Thread thread = new Thread(runnable, "sse-load-client");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for condition");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static class MarkerSubscriber implements Flow.Subscriber<String> {
+        private final String marker;
+        private final CountDownLatch latch;
+        private boolean seen;
+
+        MarkerSubscriber(String marker, CountDownLatch latch) {
+            this.marker = marker;
+            this.latch = latch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!seen && line.contains(marker)) {
+                seen = true;
+                latch.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.spring_boot.loadtest;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.job.TaskCounterRepairJob;
+import com.example.spring_boot.search.TaskSearchIndex;
+import com.example.spring_boot.security.TokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test đầu-cuối: khởi động ứng dụng thật trên H2 (chế độ MySQL), sinh dữ liệu lớn rồi chạy lần lượt mọi
+ * endpoint với số worker cố định, in p50/p95/p99, throughput và số câu SQL mỗi request.
+ * Không chạy trong build thường; chạy bằng: mvn -Ploadtest test
+ * Tùy chọn (-D): loadtest.users, loadtest.tasks, loadtest.heavy-users, loadtest.heavy-tasks, loadtest.seed,
+ * loadtest.concurrency, loadtest.requests, loadtest.warmup, loadtest.heavy-share,
+ * loadtest.export-requests, loadtest.baseline=đường dẫn CSV lần chạy trước,
+ * loadtest.tolerance (mặc định 0.2 = p99 chậm hơn 20% là hỏng).
+ * Đọc có cả fields= và format=compact, /density, /search; export chạy với số worker bằng số chỗ export
+ * (export.max-concurrent) để không đo các lần bị từ chối 503; import, PATCH/DELETE lần lặp chạy trên các chuỗi
+ * lặp do chính load test tạo. /events (SSE) là kết nối dài nên được đo riêng trong SseConnectionLoadTests.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EndToEndLoadTest {
+
+    private static final String BASE = "/schedule-manager";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+    @Autowired
+    TaskCounterRepairJob taskCounterRepairJob;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    TaskSearchIndex taskSearchIndex;
+    @Value("${export.max-concurrent:4}")
+    int exportSlots;
+
+    private LoadTestDataset dataset;
+    private double heavyShare;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Test
+    void driveAllEndpoints() throws Exception {
+        dataset = LoadTestDataset.fromSystemProperties();
+        heavyShare = Double.parseDouble(System.getProperty("loadtest.heavy-share", "0.1"));
+        int requests = Integer.getInteger("loadtest.requests", 2000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+
+        long seedStarted = System.nanoTime();
+        dataset.seed(jdbcTemplate, passwordEncoder.encode(LoadTestDataset.PASSWORD));
+        taskCounterRepairJob.repair();
+        // Dữ liệu chèn thẳng bằng JDBC nên chỉ mục tìm kiếm phải dựng lại
+        taskSearchIndex.rebuild();
+        System.out.printf("Seeded %d users, %d tasks (%d heavy users x %d) in %d s%n", dataset.users,
+                dataset.totalTasks, dataset.heavyUsers, dataset.heavyTasks,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStarted));
+
+        LoadDriver driver = new LoadDriver(TestData.clearedStatistics(entityManagerFactory), concurrency,
+                Integer.getInteger("loadtest.warmup", 200), requests, dataset.seed);
+        LoadReport report = new LoadReport();
+
+        // Đọc
+        report.add(driver.run("task.page", r -> get(user(r), "/task?limit=50")));
+        report.add(driver.run("task.all", r -> get(user(r), "/task")));
+        report.add(driver.run("task.by-date", r -> get(user(r), "/task/by-date?date=" + day(r))));
+        report.add(driver.run("task.range", r -> {
+            LocalDate from = LocalDate.parse(day(r));
+            return get(user(r), "/task/range?from=" + from + "&to=" + from.plusDays(7));
+        }));
+        report.add(driver.run("task.count", r -> get(user(r), "/task/count")));
+        report.add(driver.run("task.statistics", r -> get(user(r), "/task/statistics")));
+        report.add(driver.run("category.list", r -> get(user(r), "/category")));
+        report.add(driver.run("dashboard", r -> get(user(r), "/dashboard?date=" + day(r))));
+        report.add(driver.run("sync.delta", r -> get(user(r), "/sync?since=0")));
+        report.add(driver.run("task.page.fields",
+                r -> get(user(r), "/task?limit=50&fields=taskId,title,startTime,status")));
+        report.add(driver.run("task.page.compact", r -> get(user(r), "/task?limit=50&format=compact")));
+        report.add(driver.run("task.range.compact", r -> {
+            LocalDate from = LocalDate.parse(day(r));
+            return get(user(r), "/task/range?format=compact&from=" + from + "&to=" + from.plusDays(7));
+        }));
+        report.add(driver.run("task.density", r -> {
+            LocalDate from = LocalDate.parse(day(r));
+            return get(user(r), "/task/density?from=" + from + "&to=" + from.plusDays(30));
+        }));
+        report.add(driver.run("task.search", r -> get(user(r), "/task/search?q=load+test")));
+
+        // Export đọc cả tài khoản nên ít request hơn; import ghi 10 dòng NDJSON mỗi request
+        LoadDriver exportDriver = new LoadDriver(TestData.clearedStatistics(entityManagerFactory),
+                Math.min(concurrency, exportSlots), 0, requests, dataset.seed);
+        report.add(exportDriver.run("task.export", Integer.getInteger("loadtest.export-requests",
+                Math.max(1, requests / 10)), r -> get(user(r), "/task/export"), (body, r) -> {
+        }));
+        report.add(driver.run("task.import", r -> {
+            int userId = user(r);
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                String category = LoadTestDataset.CATEGORY_NAMES[r.nextInt(LoadTestDataset.CATEGORY_NAMES.length)];
+                body.append("{\"category\":\"").append(category)
+                        .append("\",\"title\":\"Imported\",\"priority\":\"normal\",\"status\":\"pending\",")
+                        .append("\"startTime\":\"").append(day(r)).append("T10:00:00\"}\n");
+            }
+            return request(userId, "/task/import?userId=" + userId)
+                    .setHeader("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+        }));
+
+        // Ghi: task tạo ra được dùng lại cho PUT, PATCH rồi DELETE, mỗi task chỉ một worker đụng tới trong mỗi pha
+        Queue<JsonNode> created = new ConcurrentLinkedQueue<>();
+        Queue<JsonNode> updated = new ConcurrentLinkedQueue<>();
+        Queue<JsonNode> patched = new ConcurrentLinkedQueue<>();
+        report.add(driver.run("task.create", requests, r -> {
+            int userId = user(r);
+            return post(userId, "/task/create", taskJson(userId, r));
+        },
+                (body, r) -> created.add(readTree(body))));
+        report.add(driver.run("task.batch", requests, r -> {
+            int userId = user(r);
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < 10; i++) {
+                body.append(i == 0 ? "" : ",").append(taskJson(userId, r));
+            }
+            return post(userId, "/task/batch?userId=" + userId, body.append(']').toString());
+        }, (body, r) -> {
+        }));
+        report.add(driver.run("task.put", requests, r -> takeAndMove(created, updated, task -> {
+            ObjectNode changed = ((ObjectNode) task.deepCopy()).put("title", "Updated " + task.get("taskId").asInt());
+            changed.remove("version");
+            return request(task.get("userId").asInt(), "/task/" + task.get("taskId").asInt())
+                    .PUT(HttpRequest.BodyPublishers.ofString(changed.toString())).build();
+        }), (body, r) -> {
+        }));
+        report.add(driver.run("task.patch", requests, r -> takeAndMove(updated, patched, task ->
+                request(task.get("userId").asInt(), "/task/" + task.get("taskId").asInt())
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"done\"}")).build()),
+                (body, r) -> {
+                }));
+        report.add(driver.run("task.delete", requests, r -> takeAndMove(patched, null, task ->
+                request(task.get("userId").asInt(), "/task/" + task.get("taskId").asInt()).DELETE().build()), (body, r) -> {
+        }));
+
+        // Lần lặp: mỗi chuỗi hằng ngày được PATCH lần đầu rồi DELETE lần thứ hai
+        Queue<JsonNode> series = new ConcurrentLinkedQueue<>();
+        Queue<JsonNode> seriesPatched = new ConcurrentLinkedQueue<>();
+        report.add(driver.run("task.create.series", requests, r -> {
+            int userId = user(r);
+            String json = taskJson(userId, r);
+            return post(userId, "/task/create", json.substring(0, json.length() - 1) +
+                    ",\"recurrence\":{\"frequency\":\"daily\",\"count\":5}}");
+        }, (body, r) -> series.add(readTree(body))));
+        report.add(driver.run("occurrence.patch", requests, r -> takeAndMove(series, seriesPatched, task ->
+                request(task.get("userId").asInt(), "/task/" + task.get("taskId").asInt() +
+                        "/occurrence?start=" + task.get("startTime").asText())
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"done\"}")).build()),
+                (body, r) -> {
+                }));
+        report.add(driver.run("occurrence.delete", requests, r -> takeAndMove(seriesPatched, null, task ->
+                request(task.get("userId").asInt(), "/task/" + task.get("taskId").asInt() + "/occurrence?start=" +
+                        LocalDateTime.parse(task.get("startTime").asText()).plusDays(1))
+                        .DELETE().build()), (body, r) -> {
+        }));
+        report.add(driver.run("category.create", r -> {
+            int userId = user(r);
+            return post(userId, "/category/create",
+                    "{\"userId\":" + userId + ",\"name\":\"Load " + sequence.incrementAndGet() + "\"}");
+        }));
+
+        // Xác thực: BCrypt tốn CPU nên mặc định ít request hơn
+        int authRequests = Integer.getInteger("loadtest.auth-requests", Math.max(1, requests / 10));
+        report.add(driver.run("auth.login", authRequests, r -> post("/auth/login",
+                "{\"userName\":\"load-" + user(r) + "\",\"password\":\"" + LoadTestDataset.PASSWORD + "\"}"),
+                (body, r) -> {
+                }));
+        report.add(driver.run("auth.register", authRequests, r -> {
+            String name = "reg-" + sequence.incrementAndGet();
+            return post("/auth/register",
+                    "{\"userName\":\"" + name + "\",\"email\":\"" + name + "@example.com\",\"password\":\"secret\"}");
+        }, (body, r) -> {
+        }));
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = Path.of("target", "loadtest", "report-" + stamp + ".csv");
+        report.writeCsv(csv);
+        report.writeCsv(Path.of("target", "loadtest", "latest.csv"));
+        System.out.print(report.table(String.format("Load test: %d users, %d tasks, concurrency %d, %d requests/endpoint",
+                dataset.users, dataset.totalTasks, concurrency, requests)));
+        System.out.println("Report written to " + csv.toAbsolutePath());
+
+        for (EndpointResult result : report.results()) {
+            assertThat(result.errors()).as(result.endpoint() + " errors").isZero();
+        }
+        String baseline = System.getProperty("loadtest.baseline");
+        if (baseline != null && !baseline.isBlank()) {
+            Map<String, EndpointResult> before = LoadReport.readCsv(Path.of(baseline));
+            List<String> regressions = report.regressionsAgainst(before,
+                    Double.parseDouble(System.getProperty("loadtest.tolerance", "0.2")));
+            assertThat(regressions).as("regressions against " + baseline).isEmpty();
+        }
+    }
+
+    // Phần lớn request đến từ user thường (đuôi dài), heavyShare đến từ các user nặng
+    private int user(SplittableRandom random) {
+        if (dataset.heavyUsers > 0 && (dataset.heavyUsers == dataset.users || random.nextDouble() < heavyShare)) {
+            return 1 + random.nextInt(dataset.heavyUsers);
+        }
+        return dataset.heavyUsers + 1 + random.nextInt(dataset.users - dataset.heavyUsers);
+    }
+
+    private static String day(SplittableRandom random) {
+        return LoadTestDataset.FIRST_DAY.plusDays(random.nextInt(LoadTestDataset.DAYS)).format(DAY);
+    }
+
+    private String taskJson(int userId, SplittableRandom random) {
+        int categoryId = LoadTestDataset.categoryId(userId, random.nextInt(LoadTestDataset.CATEGORY_NAMES.length));
+        return "{\"userId\":" + userId + ",\"categoryId\":" + categoryId + ",\"title\":\"Load task\"," +
+                "\"description\":\"created by load test\",\"priority\":\"normal\",\"status\":\"pending\"," +
+                "\"startTime\":\"" + day(random) + "T09:00:00\"}";
+    }
+
+    private static HttpRequest takeAndMove(Queue<JsonNode> from, Queue<JsonNode> to,
+                                           Function<JsonNode, HttpRequest> toRequest) {
+        JsonNode task = from.poll();
+        if (task == null) {
+            throw new IllegalStateException("No task left for this phase");
+        }
+        if (to != null) {
+            to.add(task);
+        }
+        return toRequest.apply(task);
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private HttpRequest get(int userId, String path) {
+        return request(userId, path + (path.contains("?") ? "&" : "?") + "userId=" + userId).GET().build();
+    }
+
+    private HttpRequest post(int userId, String path, String json) {
+        return request(userId, path).POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    // /auth/* không cần token
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + BASE + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    // Token ký bằng HMAC, không chạm database nên không làm lệch số câu SQL mỗi request
+    private HttpRequest.Builder request(int userId, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + BASE + path))
+                .header("Content-Type", "application/json")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(userId));
+    }
+}
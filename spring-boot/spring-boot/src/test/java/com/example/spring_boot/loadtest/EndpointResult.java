@@ -0,0 +1,41 @@
+package com.example.spring_boot.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Kết quả một endpoint trong một lần chạy: độ trễ theo phân vị, throughput và số câu SQL trung bình mỗi request
+record EndpointResult(String endpoint, int requests, int errors, double throughput,
+                      double p50Millis, double p95Millis, double p99Millis, double statementsPerRequest) {
+
+    static final String CSV_HEADER = "endpoint,requests,errors,throughput_rps,p50_ms,p95_ms,p99_ms,statements_per_request";
+
+    static EndpointResult of(String endpoint, long[] latencyNanos, int errors, long elapsedNanos, long statements) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        int requests = sorted.length;
+        return new EndpointResult(endpoint, requests, errors,
+                requests / Math.max(1e-9, elapsedNanos / 1e9),
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                requests == 0 ? 0 : (double) statements / requests);
+    }
+
+    static EndpointResult parse(String csvLine) {
+        String[] f = csvLine.split(",");
+        return new EndpointResult(f[0], Integer.parseInt(f[1]), Integer.parseInt(f[2]), Double.parseDouble(f[3]),
+                Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]), Double.parseDouble(f[7]));
+    }
+
+    String toCsv() {
+        return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f", endpoint, requests, errors, throughput,
+                p50Millis, p95Millis, p99Millis, statementsPerRequest);
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.spring_boot.loadtest;
+
+import org.hibernate.stat.Statistics;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Chạy từng endpoint riêng với số worker cố định: mỗi worker gửi request tuần tự (closed loop) tới khi đủ số
+ * request. Chạy lần lượt từng endpoint để số câu SQL đếm bằng Hibernate Statistics thuộc về đúng endpoint đó.
+ */
+class LoadDriver {
+    private final HttpClient client;
+    private final Statistics statistics;
+    private final int concurrency;
+    private final int warmupRequests;
+    private final int requests;
+    private final long seed;
+
+    LoadDriver(Statistics statistics, int concurrency, int warmupRequests, int requests, long seed) {
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.statistics = statistics;
+        this.concurrency = concurrency;
+        this.warmupRequests = warmupRequests;
+        this.requests = requests;
+        this.seed = seed;
+    }
+
+    EndpointResult run(String endpoint, Function<SplittableRandom, HttpRequest> requestFactory) throws Exception {
+        return run(endpoint, requests, requestFactory, (response, random) -> {
+        });
+    }
+
+    // onSuccess nhận body response 2xx, ví dụ để giữ lại id task vừa tạo cho các endpoint sau
+    EndpointResult run(String endpoint, int count, Function<SplittableRandom, HttpRequest> requestFactory,
+                       BiConsumer<String, SplittableRandom> onSuccess) throws Exception {
+        drive(Math.min(warmupRequests, count), requestFactory, onSuccess, new long[0]);
+        statistics.clear();
+        long[] latencies = new long[count];
+        long started = System.nanoTime();
+        int errors = drive(count, requestFactory, onSuccess, latencies);
+        long elapsed = System.nanoTime() - started;
+        return EndpointResult.of(endpoint, latencies, errors, elapsed, statistics.getPrepareStatementCount());
+    }
+
+    private int drive(int count, Function<SplittableRandom, HttpRequest> requestFactory,
+                      BiConsumer<String, SplittableRandom> onSuccess, long[] latencies) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                SplittableRandom random = new SplittableRandom(seed * 31 + w);
+                futures.add(workers.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                        HttpRequest request = requestFactory.apply(random);
+                        long t0 = System.nanoTime();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        long latency = System.nanoTime() - t0;
+                        if (i < latencies.length) {
+                            latencies[i] = latency;
+                        }
+                        if (response.statusCode() / 100 == 2) {
+                            onSuccess.accept(response.body(), random);
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.MINUTES);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return errors.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.spring_boot.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In bảng kết quả, ghi CSV, và so sánh với một lần chạy trước (baseline) để dùng làm cổng trước/sau.
+ */
+class LoadReport {
+    private final List<EndpointResult> results = new ArrayList<>();
+
+    void add(EndpointResult result) {
+        results.add(result);
+    }
+
+    List<EndpointResult> results() {
+        return results;
+    }
+
+    String table(String title) {
+        StringBuilder out = new StringBuilder(title).append('\n');
+        out.append(String.format(Locale.ROOT, "%-22s %8s %6s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "sql/req"));
+        for (EndpointResult r : results) {
+            out.append(String.format(Locale.ROOT, "%-22s %8d %6d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.endpoint(), r.requests(), r.errors(), r.throughput(), r.p50Millis(), r.p95Millis(),
+                    r.p99Millis(), r.statementsPerRequest()));
+        }
+        return out.toString();
+    }
+
+    void writeCsv(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(EndpointResult.CSV_HEADER);
+        for (EndpointResult r : results) {
+            lines.add(r.toCsv());
+        }
+        Files.write(file, lines);
+    }
+
+    static Map<String, EndpointResult> readCsv(Path file) throws IOException {
+        Map<String, EndpointResult> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            if (!line.isBlank() && !line.startsWith("endpoint,")) {
+                EndpointResult result = EndpointResult.parse(line);
+                baseline.put(result.endpoint(), result);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Trả về danh sách endpoint bị chậm hơn baseline: p99 tăng quá tolerance (vd. 0.2 = 20%)
+     * hoặc số câu SQL mỗi request tăng thêm hơn 0.5.
+     */
+    List<String> regressionsAgainst(Map<String, EndpointResult> baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (EndpointResult current : results) {
+            EndpointResult before = baseline.get(current.endpoint());
+            if (before == null) {
+                continue;
+            }
+            if (current.p99Millis() > before.p99Millis() * (1 + tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s p99 %.2f ms -> %.2f ms",
+                        current.endpoint(), before.p99Millis(), current.p99Millis()));
+            }
+            if (current.statementsPerRequest() > before.statementsPerRequest() + 0.5) {
+                regressions.add(String.format(Locale.ROOT, "%s sql/req %.2f -> %.2f",
+                        current.endpoint(), before.statementsPerRequest(), current.statementsPerRequest()));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.spring_boot.loadtest;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sinh dữ liệu lớn cho load test bằng JDBC batch (nhanh hơn nhiều so với đi qua JPA).
+ * Vài user "nặng" có heavyTasks task mỗi người; số task còn lại chia cho các user khác theo phân phối Zipf
+ * (đuôi dài: ít user có nhiều task, đa số có rất ít). Cùng seed thì cùng dữ liệu, để so sánh trước/sau.
+ */
+class LoadTestDataset {
+    static final String PASSWORD = "secret";
+    static final String[] CATEGORY_NAMES = {"Personal", "Work", "Grocery List"};
+    static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    static final int DAYS = 365;
+
+    private static final int CHUNK = 5000;
+    private static final String[] STATUSES = {"pending", "done", "in_progress"};
+    private static final String[] PRIORITIES = {"important", "normal"};
+
+    final int users;
+    final int heavyUsers;
+    final int heavyTasks;
+    final long totalTasks;
+    final long seed;
+    private final int[] taskCounts;
+
+    LoadTestDataset(int users, long totalTasks, int heavyUsers, int heavyTasks, long seed) {
+        this.users = users;
+        this.totalTasks = totalTasks;
+        this.heavyUsers = Math.min(heavyUsers, users);
+        this.heavyTasks = heavyTasks;
+        this.seed = seed;
+        this.taskCounts = distribute();
+    }
+
+    static LoadTestDataset fromSystemProperties() {
+        return new LoadTestDataset(
+                Integer.getInteger("loadtest.users", 10_000),
+                Long.getLong("loadtest.tasks", 1_000_000L),
+                Integer.getInteger("loadtest.heavy-users", 3),
+                Integer.getInteger("loadtest.heavy-tasks", 100_000),
+                Long.getLong("loadtest.seed", 42L));
+    }
+
+    // userId bắt đầu từ 1; các user nặng là 1..heavyUsers
+    int taskCount(int userId) {
+        return taskCounts[userId - 1];
+    }
+
+    boolean isHeavy(int userId) {
+        return userId <= heavyUsers;
+    }
+
+    static int categoryId(int userId, int index) {
+        return (userId - 1) * CATEGORY_NAMES.length + index + 1;
+    }
+
+    private int[] distribute() {
+        int[] counts = new int[users];
+        long remaining = totalTasks;
+        for (int i = 0; i < heavyUsers; i++) {
+            counts[i] = (int) Math.min(heavyTasks, remaining);
+            remaining -= counts[i];
+        }
+        int normalUsers = users - heavyUsers;
+        if (normalUsers == 0 || remaining <= 0) {
+            return counts;
+        }
+        double[] weights = new double[normalUsers];
+        double sum = 0;
+        for (int i = 0; i < normalUsers; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, 1.1);
+            sum += weights[i];
+        }
+        long assigned = 0;
+        for (int i = 0; i < normalUsers; i++) {
+            counts[heavyUsers + i] = (int) (remaining * weights[i] / sum);
+            assigned += counts[heavyUsers + i];
+        }
+        // Phần dư do làm tròn chia đều từ đầu danh sách
+        for (int i = 0; assigned < remaining; i = (i + 1) % normalUsers, assigned++) {
+            counts[heavyUsers + i]++;
+        }
+        return counts;
+    }
+
+    void seed(JdbcTemplate jdbcTemplate, String passwordHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp created = Timestamp.valueOf(now);
+
+        insertInChunks(jdbcTemplate, "INSERT INTO user (user_id, user_name, password, email, created_at, revision) " +
+                "VALUES (?, ?, ?, ?, ?, 0)", users, (ps, i) -> {
+            int userId = i + 1;
+            ps.setInt(1, userId);
+            ps.setString(2, "load-" + userId);
+            ps.setString(3, passwordHash);
+            ps.setString(4, "load-" + userId + "@example.com");
+            ps.setTimestamp(5, created);
+        });
+
+        insertInChunks(jdbcTemplate, "INSERT INTO category (category_id, name, user_id, created_at, revision) " +
+                "VALUES (?, ?, ?, ?, 0)", users * CATEGORY_NAMES.length, (ps, i) -> {
+            int userId = i / CATEGORY_NAMES.length + 1;
+            int index = i % CATEGORY_NAMES.length;
+            ps.setInt(1, categoryId(userId, index));
+            ps.setString(2, CATEGORY_NAMES[index]);
+            ps.setInt(3, userId);
+            ps.setTimestamp(4, created);
+        });
+
+        Random random = new Random(seed);
+        List<Object[]> chunk = new ArrayList<>(CHUNK);
+        int taskId = 0;
+        String taskSql = "INSERT INTO task (task_id, title, description, priority, status, start_time, created_at, " +
+                "category_id, user_id, version, revision) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+        for (int userId = 1; userId <= users; userId++) {
+            for (int t = 0; t < taskCount(userId); t++) {
+                taskId++;
+                LocalDateTime start = FIRST_DAY.atStartOfDay()
+                        .plusDays(random.nextInt(DAYS)).plusMinutes(6 * 60 + random.nextInt(16 * 60));
+                chunk.add(new Object[]{taskId, "Task " + taskId, "Load test task",
+                        PRIORITIES[random.nextInt(PRIORITIES.length)], STATUSES[random.nextInt(STATUSES.length)],
+                        Timestamp.valueOf(start), created, categoryId(userId, random.nextInt(CATEGORY_NAMES.length)),
+                        userId});
+                if (chunk.size() == CHUNK) {
+                    jdbcTemplate.batchUpdate(taskSql, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            jdbcTemplate.batchUpdate(taskSql, chunk);
+        }
+
+        // Id tiếp theo của ứng dụng phải nằm trên dữ liệu vừa chèn (H2)
+        jdbcTemplate.execute("ALTER TABLE user ALTER COLUMN user_id RESTART WITH " + (users + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE category_seq RESTART WITH " + (users * CATEGORY_NAMES.length + 51));
+        jdbcTemplate.execute("ALTER SEQUENCE task_seq RESTART WITH " + (taskId + 51));
+    }
+
+    private interface RowSetter {
+        void set(PreparedStatement ps, int index) throws SQLException;
+    }
+
+    private static void insertInChunks(JdbcTemplate jdbcTemplate, String sql, int rows, RowSetter setter) {
+        for (int from = 0; from < rows; from += CHUNK) {
+            int start = from;
+            int size = Math.min(CHUNK, rows - from);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setter.set(ps, start + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.spring_boot.recurrence;
+
+import com.example.spring_boot.entity.Frequency;
+import com.example.spring_boot.entity.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceExpanderTests {
+
+    // Thứ Hai
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+    @Test
+    void expandsDailyWithIntervalInsideWindow() {
+        RecurrenceRule rule = rule(Frequency.daily, 2, null, null, null);
+
+        assertThat(RecurrenceExpander.expand(rule, START, null,
+                LocalDateTime.of(2025, 1, 9, 0, 0), LocalDateTime.of(2025, 1, 15, 0, 0)))
+                .containsExactly(
+                        LocalDateTime.of(2025, 1, 10, 9, 0),
+                        LocalDateTime.of(2025, 1, 12, 9, 0),
+                        LocalDateTime.of(2025, 1, 14, 9, 0));
+        // Không có lần lặp trước lần đầu
+        assertThat(RecurrenceExpander.expand(rule, START, null,
+                LocalDateTime.of(2024, 12, 1, 0, 0), LocalDateTime.of(2025, 1, 7, 0, 0)))
+                .containsExactly(START);
+    }
+
+    @Test
+    void expandsWeeklyOnGivenWeekdays() {
+        // Thứ Hai, thứ Tư, thứ Sáu; mỗi hai tuần
+        RecurrenceRule rule = rule(Frequency.weekly, 2, RecurrenceExpander.toWeekdayMask(List.of(1, 3, 5)), null, null);
+
+        assertThat(RecurrenceExpander.expand(rule, START, null,
+                LocalDateTime.of(2025, 1, 6, 0, 0), LocalDateTime.of(2025, 1, 27, 0, 0)))
+                .containsExactly(
+                        LocalDateTime.of(2025, 1, 6, 9, 0),
+                        LocalDateTime.of(2025, 1, 8, 9, 0),
+                        LocalDateTime.of(2025, 1, 10, 9, 0),
+                        LocalDateTime.of(2025, 1, 20, 9, 0),
+                        LocalDateTime.of(2025, 1, 22, 9, 0),
+                        LocalDateTime.of(2025, 1, 24, 9, 0));
+    }
+
+    @Test
+    void weeklyWithoutWeekdaysRepeatsOnTheFirstDay() {
+        RecurrenceRule rule = rule(Frequency.weekly, null, null, null, null);
+        RecurrenceExpander.normalize(rule, START);
+
+        assertThat(rule.getInterval()).isEqualTo(1);
+        assertThat(RecurrenceExpander.toWeekdayList(rule.getWeekdays())).containsExactly(1);
+        assertThat(RecurrenceExpander.expand(rule, START, null,
+                LocalDateTime.of(2025, 1, 7, 0, 0), LocalDateTime.of(2025, 1, 21, 0, 0)))
+                .containsExactly(LocalDateTime.of(2025, 1, 13, 9, 0), LocalDateTime.of(2025, 1, 20, 9, 0));
+    }
+
+    @Test
+    void monthlyClampsToTheLastDayOfShorterMonths() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 18, 0);
+        RecurrenceRule rule = rule(Frequency.monthly, 1, null, null, null);
+
+        assertThat(RecurrenceExpander.expand(rule, start, null,
+                LocalDateTime.of(2025, 2, 1, 0, 0), LocalDateTime.of(2025, 5, 1, 0, 0)))
+                .containsExactly(
+                        LocalDateTime.of(2025, 2, 28, 18, 0),
+                        LocalDateTime.of(2025, 3, 31, 18, 0),
+                        LocalDateTime.of(2025, 4, 30, 18, 0));
+    }
+
+    @Test
+    void countAndUntilLimitTheSeries() {
+        RecurrenceRule counted = rule(Frequency.daily, 1, null, null, 3);
+        LocalDateTime last = RecurrenceExpander.lastOccurrence(counted, START);
+        assertThat(last).isEqualTo(LocalDateTime.of(2025, 1, 8, 9, 0));
+        assertThat(RecurrenceExpander.expand(counted, START, last, START, START.plusDays(30))).hasSize(3);
+
+        RecurrenceRule until = rule(Frequency.weekly, 1, RecurrenceExpander.toWeekdayMask(List.of(1, 5)),
+                LocalDate.of(2025, 1, 17), null);
+        LocalDateTime untilEnd = RecurrenceExpander.lastOccurrence(until, START);
+        assertThat(untilEnd).isEqualTo(LocalDate.of(2025, 1, 17).atTime(LocalTime.MAX));
+        assertThat(RecurrenceExpander.expand(until, START, untilEnd, START, START.plusDays(30)))
+                .containsExactly(
+                        LocalDateTime.of(2025, 1, 6, 9, 0),
+                        LocalDateTime.of(2025, 1, 10, 9, 0),
+                        LocalDateTime.of(2025, 1, 13, 9, 0),
+                        LocalDateTime.of(2025, 1, 17, 9, 0));
+    }
+
+    @Test
+    void isOccurrenceChecksTheExactInstant() {
+        RecurrenceRule rule = rule(Frequency.daily, 3, null, null, null);
+
+        assertThat(RecurrenceExpander.isOccurrence(rule, START, null, START.plusDays(300))).isTrue();
+        assertThat(RecurrenceExpander.isOccurrence(rule, START, null, START.plusDays(301))).isFalse();
+        assertThat(RecurrenceExpander.isOccurrence(rule, START, null, START.plusDays(300).plusMinutes(1))).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThatThrownBy(() -> RecurrenceExpander.normalize(rule(Frequency.daily, 0, null, null, null), START))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceExpander.normalize(
+                rule(Frequency.daily, 1, null, null, RecurrenceExpander.MAX_COUNT + 1), START))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceExpander.normalize(
+                rule(Frequency.daily, 1, null, LocalDate.of(2024, 12, 31), null), START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void expansionCostDependsOnTheWindowNotOnTheSeriesAge() {
+        RecurrenceRule rule = rule(Frequency.weekly, 1, RecurrenceExpander.toWeekdayMask(List.of(2, 4)), null, null);
+        LocalDateTime farFrom = LocalDateTime.of(3025, 1, 1, 0, 0);
+
+        long start = System.nanoTime();
+        List<LocalDateTime> occurrences = List.of();
+        for (int i = 0; i < 10_000; i++) {
+            occurrences = RecurrenceExpander.expand(rule, START, null, farFrom, farFrom.plusDays(7));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Một nghìn năm sau lần đầu: vẫn chỉ sinh hai lần lặp của tuần được hỏi
+        assertThat(occurrences).hasSize(2);
+        assertThat(occurrences).allSatisfy(t -> assertThat(t.toLocalTime()).isEqualTo(LocalTime.of(9, 0)));
+        assertThat(elapsedMillis).isLessThan(2000);
+    }
+
+    private static RecurrenceRule rule(Frequency frequency, Integer interval, Integer weekdays,
+                                       LocalDate until, Integer count) {
+        return new RecurrenceRule(frequency, interval, weekdays, until, count);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.spring_boot.reminder;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReminderQueueTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Test
+    void pollsDueRemindersInTimeOrder() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.schedule(reminder(1, NOW.plusMinutes(5)));
+        queue.schedule(reminder(2, NOW.minusMinutes(1)));
+        queue.schedule(reminder(3, NOW));
+
+        assertThat(queue.pollDue(NOW, 10)).extracting(Reminder::getTaskId).containsExactly(2, 3);
+        assertThat(queue.pollDue(NOW, 10)).isEmpty();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.pollDue(NOW.plusMinutes(5), 10)).extracting(Reminder::getTaskId).containsExactly(1);
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceTheEntryOfATask() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.schedule(reminder(1, NOW.minusMinutes(1)));
+        queue.schedule(reminder(2, NOW.minusMinutes(1)));
+        // Dời task 1 ra sau, hủy task 2: bản cũ trong heap không được trả về
+        queue.schedule(reminder(1, NOW.plusMinutes(30)));
+        assertThat(queue.cancel(2)).isTrue();
+
+        assertThat(queue.pollDue(NOW, 10)).isEmpty();
+        assertThat(queue.size()).isEqualTo(1);
+        List<Reminder> later = queue.pollDue(NOW.plusHours(1), 10);
+        assertThat(later).hasSize(1);
+        assertThat(later.get(0).getRemindAt()).isEqualTo(NOW.plusMinutes(30));
+    }
+
+    @Test
+    void pollRespectsTheBatchSize() {
+        ReminderQueue queue = new ReminderQueue();
+        for (int taskId = 0; taskId < 25; taskId++) {
+            queue.schedule(reminder(taskId, NOW.minusSeconds(taskId)));
+        }
+        assertThat(queue.pollDue(NOW, 10)).hasSize(10);
+        assertThat(queue.pollDue(NOW, 10)).hasSize(10);
+        assertThat(queue.pollDue(NOW, 10)).hasSize(5);
+    }
+
+    @Test
+    void occurrencesOfASeriesAreQueuedSeparately() {
+        ReminderQueue queue = new ReminderQueue();
+        queue.schedule(new Reminder(1, 1, NOW.plusMinutes(10), NOW, NOW.plusMinutes(10)));
+        queue.schedule(new Reminder(1, 1, NOW.plusDays(1).plusMinutes(10), NOW.plusDays(1), NOW.plusDays(1).plusMinutes(10)));
+        // Lần lặp hôm nay bị dời: thay bản cũ của chính lần lặp đó
+        queue.schedule(new Reminder(1, 1, NOW.plusMinutes(40), NOW.plusMinutes(30), NOW.plusMinutes(10)));
+        assertThat(queue.size()).isEqualTo(2);
+
+        assertThat(queue.pollDue(NOW, 10)).isEmpty();
+        assertThat(queue.pollDue(NOW.plusMinutes(30), 10)).extracting(Reminder::getStartTime)
+                .containsExactly(NOW.plusMinutes(40));
+        assertThat(queue.cancel(1)).isTrue();
+        assertThat(queue.size()).isZero();
+        assertThat(queue.pollDue(NOW.plusDays(2), 10)).isEmpty();
+    }
+
+    // Phép đo với 1M lần nhắc, chỉ chạy với mvn -Ploadtest test
+    @Test
+    @Tag("loadtest")
+    void tickCpuStaysSteadyWithOneMillionScheduledTasks() {
+        int tasks = Integer.getInteger("reminder.tasks", 1_000_000);
+        int ticks = 3600;
+        ReminderQueue queue = new ReminderQueue();
+        // 1M lần nhắc rải đều trong một giờ, mỗi giây một tick như ReminderJob
+        for (int taskId = 0; taskId < tasks; taskId++) {
+            queue.schedule(reminder(taskId, NOW.plusNanos((long) taskId * ticks * 1_000_000_000L / tasks)));
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long[] tickCpu = new long[ticks];
+        int polled = 0;
+        int updates = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            LocalDateTime now = NOW.plusSeconds(tick);
+            long start = threads.getCurrentThreadCpuTime();
+            // Mỗi tick có thêm 50 lần dời giờ như khi người dùng sửa startTime
+            for (int i = 0; i < 50; i++) {
+                int taskId = (tick * 7919 + i * 104_729) % tasks;
+                queue.schedule(reminder(taskId, now.plusMinutes(30 + i % 30)));
+                updates++;
+            }
+            List<Reminder> due;
+            while (!(due = queue.pollDue(now, 500)).isEmpty()) {
+                polled += due.size();
+            }
+            tickCpu[tick] = threads.getCurrentThreadCpuTime() - start;
+        }
+
+        long first = averageMicros(tickCpu, 60, 660);
+        long last = averageMicros(tickCpu, ticks - 600, ticks);
+        long idleStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < 10_000; i++) {
+            queue.pollDue(NOW.minusDays(1), 500);
+        }
+        long idleNanos = (threads.getCurrentThreadCpuTime() - idleStart) / 10_000;
+        System.out.printf("reminder queue: %d tasks, %d polled, %d updates, tick cpu first %d us, last %d us, idle %d ns%n",
+                tasks, polled, updates, first, last, idleNanos);
+
+        assertThat(polled).isGreaterThan(tasks * 9 / 10);
+        // Chi phí một tick theo số lần đến hạn, không tăng hay giảm theo kích thước hàng đợi
+        assertThat(last).isLessThan(first * 3 + 200);
+        assertThat(idleNanos).isLessThan(50_000);
+    }
+
+    private static long averageMicros(long[] nanos, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += nanos[i];
+        }
+        return total / (to - from) / 1000;
+    }
+
+    private static Reminder reminder(int taskId, LocalDateTime remindAt) {
+        return new Reminder(taskId, 1, remindAt.plusMinutes(10), remindAt, null);
+    }
+}
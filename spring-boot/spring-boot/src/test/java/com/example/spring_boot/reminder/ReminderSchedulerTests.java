@@ -0,0 +1,254 @@
+package com.example.spring_boot.reminder;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.dto.RecurrenceDto;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.dto.TaskOccurrenceDto;
+import com.example.spring_boot.dto.TaskPatchDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.NotificationOutboxEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.NotificationOutboxRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.example.spring_boot.service.RecurrenceService;
+import com.example.spring_boot.service.TaskService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ReminderJob tắt trong test (reminder.enabled=false); test gọi reload/tick với thời điểm cố định
+@SpringBootTest
+class ReminderSchedulerTests {
+
+    // Xa các task mẫu của những test khác (2025); mỗi test một tuần riêng để cửa sổ chỉ chứa task của test đó
+    private static final LocalDateTime BASE = LocalDateTime.now().plusYears(20).withNano(0);
+    private static final AtomicInteger DAYS = new AtomicInteger();
+
+    @Autowired
+    ReminderScheduler reminderScheduler;
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    RecurrenceService recurrenceService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    NotificationOutboxRepository notificationOutboxRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    AutowireCapableBeanFactory beanFactory;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private LocalDateTime now;
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+
+    @BeforeEach
+    void seed() {
+        now = BASE.plusDays(7L * DAYS.getAndIncrement());
+        // Chuỗi lặp không giới hạn của các test khác (và của test trước) không kéo tới tuần của test này
+        jdbcTemplate.update("UPDATE task SET recurrence_end = ? WHERE repeat_frequency IS NOT NULL " +
+                "AND (recurrence_end IS NULL OR recurrence_end > ?)", now.minusDays(3), now.minusDays(3));
+        user = TestData.createUser(userRepository, "reminder");
+        categories = TestData.createCategories(categoryRepository, user);
+    }
+
+    @Test
+    void dueRemindersGoToTheOutboxOnce() {
+        TaskDto soon = createTask("Soon", now.plusMinutes(5));
+        TaskDto later = createTask("Later", now.plusMinutes(30));
+        createTask("Tomorrow", now.plusDays(1));
+
+        reminderScheduler.reload(now);
+        // Cửa sổ mặc định: lead-time 10 phút + 1 giờ
+        assertThat(reminderScheduler.size()).isEqualTo(2);
+
+        assertThat(reminderScheduler.tick(now)).isEqualTo(1);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getTaskId).containsExactly(soon.getTaskId());
+
+        // Khởi động lại: nạp lại cửa sổ nhưng không nhắc lại task đã nhắc
+        reminderScheduler.reload(now);
+        assertThat(reminderScheduler.tick(now)).isZero();
+        assertThat(reminderScheduler.tick(now.plusMinutes(20))).isEqualTo(1);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getTaskId)
+                .containsExactly(soon.getTaskId(), later.getTaskId());
+        assertThat(outbox().get(1).getStartTime()).isEqualTo(now.plusMinutes(30));
+    }
+
+    @Test
+    void twoInstancesWriteEachReminderOnce() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            createTask("Shared " + i, now.plusMinutes(1 + i % 9));
+        }
+        // Instance thứ hai với hàng đợi riêng trên cùng database, như hai bản của ứng dụng sau load balancer
+        ReminderScheduler other = beanFactory.createBean(ReminderScheduler.class);
+        reminderScheduler.reload(now);
+        other.reload(now);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<Integer> first = executor.submit(() -> {
+                start.await();
+                return reminderScheduler.tick(now.plusMinutes(10));
+            });
+            Future<Integer> second = executor.submit(() -> {
+                start.await();
+                return other.tick(now.plusMinutes(10));
+            });
+            start.countDown();
+            // Lần nhắc instance kia đã ghi được tính là đã có trong outbox, không làm tick lỗi
+            assertThat(first.get() + second.get()).isEqualTo(200);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(outbox()).hasSize(200);
+    }
+
+    @Test
+    void writesUpdateTheQueueIncrementally() {
+        reminderScheduler.reload(now);
+        TaskDto moved = createTask("Moved", now.plusMinutes(50));
+        TaskDto patched = createTask("Patched", now.plusMinutes(45));
+        TaskDto deleted = createTask("Deleted", now.plusMinutes(5));
+        TaskDto outOfWindow = createTask("Out of window", now.plusMinutes(20));
+        assertThat(reminderScheduler.size()).isEqualTo(4);
+
+        moved.setStartTime(now.plusMinutes(8));
+        taskService.updateTask(moved.getTaskId(), moved);
+        TaskPatchDto patch = new TaskPatchDto();
+        patch.setStartTime(now.plusMinutes(9));
+        taskService.patchTask(patched.getTaskId(), patch);
+        taskService.deleteTask(deleted.getTaskId());
+        outOfWindow.setStartTime(now.plusDays(2));
+        taskService.updateTask(outOfWindow.getTaskId(), outOfWindow);
+        assertThat(reminderScheduler.size()).isEqualTo(2);
+
+        assertThat(reminderScheduler.tick(now)).isEqualTo(2);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getTaskId)
+                .containsExactlyInAnyOrder(moved.getTaskId(), patched.getTaskId());
+    }
+
+    @Test
+    void windowMovesForwardWithTime() {
+        TaskDto farTask = createTask("Far", now.plusHours(3));
+        reminderScheduler.reload(now);
+        assertThat(reminderScheduler.tick(now)).isZero();
+
+        // Tick tiếp theo nạp đoạn cửa sổ mới bằng query theo khoảng start_time
+        assertThat(reminderScheduler.tick(now.plusHours(2))).isZero();
+        assertThat(reminderScheduler.size()).isEqualTo(1);
+        assertThat(reminderScheduler.tick(now.plusHours(3).minusMinutes(10))).isEqualTo(1);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getTaskId).containsExactly(farTask.getTaskId());
+    }
+
+    @Test
+    void everyOccurrenceOfASeriesIsReminded() {
+        // Chuỗi hằng ngày bắt đầu từ hai ngày trước, lần lặp hôm nay rơi vào cửa sổ
+        TaskDto series = createSeries("Daily", now.minusDays(2).plusMinutes(20));
+        reminderScheduler.reload(now);
+        assertThat(reminderScheduler.size()).isEqualTo(1);
+
+        assertThat(reminderScheduler.tick(now.plusMinutes(10))).isEqualTo(1);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getStartTime).containsExactly(now.plusMinutes(20));
+
+        // Lần lặp hôm sau được nạp khi cửa sổ tới, như task thường
+        assertThat(reminderScheduler.tick(now.plusDays(1))).isZero();
+        assertThat(reminderScheduler.tick(now.plusDays(1).plusMinutes(10))).isEqualTo(1);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getTaskId)
+                .containsExactly(series.getTaskId(), series.getTaskId());
+    }
+
+    @Test
+    void seriesOfManyUsersAreLoadedWithoutAQueryPerUser() {
+        createSeries("Daily", now.minusDays(2).plusMinutes(20));
+        for (int i = 0; i < 5; i++) {
+            UserEntity other = TestData.createUser(userRepository, "reminder-series");
+            createSeries(other, TestData.createCategories(categoryRepository, other).get(0), "Daily",
+                    now.minusDays(2).plusMinutes(30 + i));
+        }
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        reminderScheduler.reload(now);
+
+        assertThat(reminderScheduler.size()).isEqualTo(6);
+        // Trang task thường, mọi chuỗi của cửa sổ, ngoại lệ của các chuỗi đó: không phụ thuộc số user
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void movingOrCancellingAnOccurrenceUpdatesItsReminder() {
+        reminderScheduler.reload(now);
+        TaskDto series = createSeries("Daily", now.minusDays(2).plusMinutes(20));
+        // Event của chuỗi chỉ đánh dấu; tick sinh lại lần lặp trong cửa sổ
+        assertThat(reminderScheduler.size()).isZero();
+        assertThat(reminderScheduler.tick(now)).isZero();
+        assertThat(reminderScheduler.size()).isEqualTo(1);
+
+        TaskOccurrenceDto move = new TaskOccurrenceDto();
+        move.setStartTime(now.plusMinutes(50));
+        recurrenceService.updateOccurrence(series.getTaskId(), now.plusMinutes(20), move);
+        assertThat(reminderScheduler.tick(now.plusMinutes(10))).isZero();
+        assertThat(reminderScheduler.tick(now.plusMinutes(40))).isEqualTo(1);
+        assertThat(outbox()).extracting(NotificationOutboxEntity::getStartTime).containsExactly(now.plusMinutes(50));
+
+        TaskDto tomorrow = createSeries("Tomorrow", now.minusDays(1).plusMinutes(60));
+        reminderScheduler.tick(now.plusMinutes(40));
+        recurrenceService.cancelOccurrence(tomorrow.getTaskId(), now.plusMinutes(60));
+        assertThat(reminderScheduler.tick(now.plusMinutes(55))).isZero();
+        assertThat(reminderScheduler.size()).isZero();
+    }
+
+    private TaskDto createSeries(String title, LocalDateTime startTime) {
+        return createSeries(user, categories.get(0), title, startTime);
+    }
+
+    private TaskDto createSeries(UserEntity owner, CategoryEntity category, String title, LocalDateTime startTime) {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setUserId(owner.getUserId());
+        taskDto.setCategoryId(category.getCategoryId());
+        taskDto.setTitle(title);
+        taskDto.setPriority("normal");
+        taskDto.setStatus("pending");
+        taskDto.setStartTime(startTime);
+        RecurrenceDto recurrence = new RecurrenceDto();
+        recurrence.setFrequency("daily");
+        taskDto.setRecurrence(recurrence);
+        return taskService.createTask(taskDto);
+    }
+
+    private TaskDto createTask(String title, LocalDateTime startTime) {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setUserId(user.getUserId());
+        taskDto.setCategoryId(categories.get(0).getCategoryId());
+        taskDto.setTitle(title);
+        taskDto.setPriority("normal");
+        taskDto.setStatus("pending");
+        taskDto.setStartTime(startTime);
+        return taskService.createTask(taskDto);
+    }
+
+    private List<NotificationOutboxEntity> outbox() {
+        return notificationOutboxRepository.findByUserIdOrderByOutboxId(user.getUserId());
+    }
+}
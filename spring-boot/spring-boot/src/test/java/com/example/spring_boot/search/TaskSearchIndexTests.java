@@ -0,0 +1,125 @@
+package com.example.spring_boot.search;
+
+import com.example.spring_boot.dto.TaskTextDto;
+import com.example.spring_boot.repository.TaskRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskSearchIndexTests {
+
+    @Test
+    void normalizesVietnameseDiacritics() {
+        assertThat(TextNormalizer.tokenize("Họp nhóm: Đặt vé máy bay!"))
+                .containsExactly("hop", "nhom", "dat", "ve", "may", "bay");
+    }
+
+    @Test
+    void matchesPrefixesAndIgnoresDiacritics() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(1, "Mua sữa", "Siêu thị gần nhà");
+        index.put(2, "Họp nhóm", "Chuẩn bị slide");
+        index.put(3, "Đi chợ", null);
+
+        assertThat(index.search(TextNormalizer.tokenize("sua"), 10)).containsExactly(1);
+        assertThat(index.search(TextNormalizer.tokenize("chuân"), 10)).containsExactly(2);
+        assertThat(index.search(TextNormalizer.tokenize("đi ch"), 10)).containsExactly(3);
+        assertThat(index.search(TextNormalizer.tokenize("hop slide"), 10)).containsExactly(2);
+        assertThat(index.search(TextNormalizer.tokenize("hop sua"), 10)).isEmpty();
+    }
+
+    @Test
+    void ranksTitleAndExactMatchesFirst() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(1, "Review code", "báo cáo tuần");
+        index.put(2, "Viết báo cáo", "gửi sếp");
+        index.put(3, "Báo giá", "cho khách");
+
+        // "bao" khớp nguyên vẹn ở title của 2 và 3, chỉ ở description của 1
+        assertThat(index.search(TextNormalizer.tokenize("bao"), 10)).containsExactly(2, 3, 1);
+        // "cao" chỉ có trong 1 và 2, title thắng description
+        assertThat(index.search(TextNormalizer.tokenize("bao cao"), 10)).containsExactly(2, 1);
+        assertThat(index.search(TextNormalizer.tokenize("bao"), 1)).containsExactly(2);
+    }
+
+    @Test
+    void reindexingReplacesOldTermsAndRemoveDropsTask() {
+        UserSearchIndex index = new UserSearchIndex();
+        index.put(1, "Gọi điện", "cho mẹ");
+        index.put(1, "Nhắn tin", "cho bố");
+
+        assertThat(index.search(TextNormalizer.tokenize("goi"), 10)).isEmpty();
+        assertThat(index.search(TextNormalizer.tokenize("nhan"), 10)).containsExactly(1);
+
+        index.remove(1);
+        assertThat(index.search(TextNormalizer.tokenize("nhan"), 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void changesCommittedDuringRebuildAreKept() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        index.rebuildBatchSize = 2;
+        List<List<TaskTextDto>> batches = List.of(
+                List.of(new TaskTextDto(1, 1, "Mua sữa", null), new TaskTextDto(2, 1, "Họp nhóm", null)),
+                List.of(new TaskTextDto(3, 1, "Đi chợ", null)));
+        // Giữa hai lô: task 1 được đổi tên, task 2 bị xóa, task 4 được tạo (lô 1 đã đọc xong, lô 2 chỉ tới task 3)
+        index.taskRepository = (TaskRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TaskRepository.class}, (proxy, method, args) -> {
+                    int afterTaskId = (Integer) args[0];
+                    if (afterTaskId == 2) {
+                        index.onTaskChange(new TaskIndexEvent(1, 1, "Mua bánh", null));
+                        index.onTaskChange(TaskIndexEvent.removed(2, 1));
+                        index.onTaskChange(new TaskIndexEvent(4, 1, "Gọi điện", null));
+                    }
+                    return afterTaskId == 0 ? batches.get(0) : batches.get(1);
+                });
+
+        index.rebuild();
+
+        assertThat(index.search(1, "banh", 10)).containsExactly(1);
+        assertThat(index.search(1, "sua", 10)).isEmpty();
+        assertThat(index.search(1, "hop", 10)).isEmpty();
+        assertThat(index.search(1, "goi", 10)).containsExactly(4);
+        assertThat(index.search(1, "cho", 10)).containsExactly(3);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    // Phép đo với 100k task, chỉ chạy với mvn -Ploadtest test
+    @Test
+    @Tag("loadtest")
+    void searchCostDoesNotGrowWithOtherUsersTasks() {
+        TaskSearchIndex index = new TaskSearchIndex();
+        for (int taskId = 1; taskId <= 1000; taskId++) {
+            index.put(1, taskId, "Task " + taskId, "Mô tả công việc số " + taskId);
+        }
+        long small = timeSearches(index);
+
+        // Thêm 100 lần số task cho user khác: chỉ mục của user 1 không đổi
+        for (int taskId = 1001; taskId <= 101_000; taskId++) {
+            index.put(2 + taskId % 100, taskId, "Task " + taskId, "Mô tả công việc số " + taskId);
+        }
+        long large = timeSearches(index);
+
+        System.out.printf("search: 1k tasks %d us, +100k other tasks %d us%n", small / 1000, large / 1000);
+        assertThat(index.size()).isEqualTo(101_000);
+        assertThat(index.search(1, "cong viec 99", 5)).hasSize(5);
+        assertThat(large).isLessThan(small * 5);
+    }
+
+    private static long timeSearches(TaskSearchIndex index) {
+        for (int i = 0; i < 200; i++) {
+            index.search(1, "viec 5", 20);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            List<Integer> result = index.search(1, "viec 5", 20);
+            assertThat(result).isNotEmpty();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.spring_boot.security;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Đo throughput và p99 của /auth/login khi nhiều client đăng nhập cùng lúc, đồng thời đo p99 của một
+ * endpoint đọc thường để thấy BCrypt không làm nghẽn các request khác.
+ * Chỉnh bằng -Dlogin.requests=N và -Dlogin.concurrency=N; phép đo chỉ chạy với {@code mvn -Ploadtest test}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoginThroughputBenchmarkTests {
+
+    private static final int REQUESTS = Integer.getInteger("login.requests", 200);
+    private static final int CONCURRENCY = Integer.getInteger("login.concurrency", 32);
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Test
+    @Tag("loadtest")
+    void loginThroughputAndTailLatencyUnderContention() throws Exception {
+        UserEntity user = TestData.createUser(userRepository, "bench-login");
+        user.setPassword(passwordEncoder.encode("secret"));
+        userRepository.save(user);
+        String body = "{\"userName\":\"" + user.getUserName() + "\",\"password\":\"secret\"}";
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY + 1, LoginThroughputBenchmarkTests::daemon);
+        HttpClient client = HttpClient.newBuilder().executor(clients).build();
+        List<Long> loginNanos = Collections.synchronizedList(new ArrayList<>());
+        List<Long> probeNanos = new ArrayList<>();
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int w = 0; w < CONCURRENCY; w++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                while (next.getAndIncrement() < REQUESTS) {
+                    long t0 = System.nanoTime();
+                    HttpResponse<String> response = send(client, HttpRequest.newBuilder(uri("/schedule-manager/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build());
+                    if (response.statusCode() == 200) {
+                        loginNanos.add(System.nanoTime() - t0);
+                        ok.incrementAndGet();
+                    } else {
+                        assertThat(response.statusCode()).isEqualTo(503);
+                        assertThat(response.headers().firstValue("Retry-After")).isPresent();
+                        rejected.incrementAndGet();
+                    }
+                }
+            }, clients));
+        }
+        CompletableFuture<Void> allLogins = CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new));
+        // Trong lúc login dồn dập, đo một request đọc rẻ để xem nó có bị xếp hàng sau BCrypt không
+        while (!allLogins.isDone()) {
+            long t0 = System.nanoTime();
+            HttpResponse<String> probe = send(client, HttpRequest.newBuilder(
+                    uri("/schedule-manager/task/count?userId=" + user.getUserId())).build());
+            assertThat(probe.statusCode()).isEqualTo(200);
+            probeNanos.add(System.nanoTime() - t0);
+        }
+        allLogins.get(5, TimeUnit.MINUTES);
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        clients.shutdownNow();
+
+        System.out.printf("Login benchmark: %d requests, concurrency %d, %d ok, %d rejected (503), "
+                        + "%.1f logins/s, login p50 %d ms, p99 %d ms, other endpoint p99 %d ms%n",
+                REQUESTS, CONCURRENCY, ok.get(), rejected.get(), ok.get() * 1000.0 / elapsedMillis,
+                percentileMillis(loginNanos, 50), percentileMillis(loginNanos, 99), percentileMillis(probeNanos, 99));
+        assertThat(ok.get()).isPositive();
+        assertThat(ok.get() + rejected.get()).isEqualTo(REQUESTS);
+    }
+
+    @Test
+    void saturatedPoolRejectsImmediately() {
+        PasswordVerifier verifier = new PasswordVerifier(passwordEncoder, 1, 1);
+        String hash = passwordEncoder.encode("secret");
+        try {
+            // Một đang chạy + một trong hàng đợi, cái thứ ba bị từ chối ngay thay vì chờ
+            verifier.matches("secret", hash);
+            verifier.matches("secret", hash);
+            assertThatThrownBy(() -> verifier.matches("secret", hash)).isInstanceOf(RejectedExecutionException.class);
+        } finally {
+            verifier.shutdown();
+        }
+    }
+
+    private HttpResponse<String> send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long percentileMillis(List<Long> nanos, int percentile) {
+        if (nanos.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+
+    private static Thread daemon(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
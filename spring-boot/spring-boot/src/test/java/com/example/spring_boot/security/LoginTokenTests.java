@@ -0,0 +1,124 @@
+package com.example.spring_boot.security;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoginTokenTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    PasswordEncoder passwordEncoder;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "login");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user = userRepository.save(user);
+        List<CategoryEntity> categories = TestData.createCategories(categoryRepository, user);
+        TestData.createTasks(taskRepository, user, categories, 20);
+    }
+
+    @Test
+    void loginReturnsSignedTokenWithoutPasswordHash() throws Exception {
+        JsonNode body = login("secret", 200);
+
+        assertThat(body.get("userId").asInt()).isEqualTo(user.getUserId());
+        assertThat(body.get("password").isNull()).isTrue();
+        assertThat(body.get("accessToken").asText()).startsWith(user.getUserId() + ".");
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+        login("wrong", 401);
+    }
+
+    @Test
+    void tokenIsCheckedWithoutExtraStatements() throws Exception {
+        String token = login("secret", 200).get("accessToken").asText();
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+
+        mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", String.valueOf(user.getUserId()))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // Vẫn chỉ revision + task như khi không có token: kiểm tra token không chạm database
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidTokenIsRejected() throws Exception {
+        String token = login("secret", 200).get("accessToken").asText();
+
+        mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", String.valueOf(user.getUserId()))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tokenForAnotherUserIsForbidden() throws Exception {
+        String token = login("secret", 200).get("accessToken").asText();
+
+        mockMvc.perform(get("/schedule-manager/task")
+                        .param("userId", String.valueOf(user.getUserId() + 1))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    private JsonNode login(String password, int expectedStatus) throws Exception {
+        MvcResult started = mockMvc.perform(post("/schedule-manager/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("userName", user.getUserName(), "password", password))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return expectedStatus == 200 ? objectMapper.readTree(body) : null;
+    }
+}
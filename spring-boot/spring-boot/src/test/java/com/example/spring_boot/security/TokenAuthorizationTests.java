@@ -0,0 +1,150 @@
+package com.example.spring_boot.security;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.TaskEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenAuthorizationTests {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+
+    private UserEntity owner;
+    private UserEntity other;
+    private CategoryEntity otherCategory;
+    private TaskEntity otherTask;
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        owner = TestData.createUser(userRepository, "owner");
+        TestData.createCategories(categoryRepository, owner);
+        other = TestData.createUser(userRepository, "other");
+        List<CategoryEntity> otherCategories = TestData.createCategories(categoryRepository, other);
+        otherCategory = otherCategories.get(0);
+        otherTask = TestData.createTasks(taskRepository, other, otherCategories, 1).get(0);
+        token = tokenService.issue(owner.getUserId());
+    }
+
+    @Test
+    void apiWithoutTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/schedule-manager/task").param("userId", String.valueOf(owner.getUserId())))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/schedule-manager/task/{taskId}", otherTask.getTaskId()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tasksOfAnotherUserCannotBeChanged() throws Exception {
+        int taskId = otherTask.getTaskId();
+        mockMvc.perform(authorized(put("/schedule-manager/task/{taskId}", taskId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(owner.getUserId(), otherCategory.getCategoryId())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(patch("/schedule-manager/task/{taskId}", taskId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(patch("/schedule-manager/task/{taskId}/occurrence", taskId))
+                        .param("start", "2025-01-01T08:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(delete("/schedule-manager/task/{taskId}/occurrence", taskId))
+                        .param("start", "2025-01-01T08:00:00"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(delete("/schedule-manager/task/{taskId}", taskId)))
+                .andExpect(status().isForbidden());
+
+        assertThat(taskRepository.findById(taskId)).get()
+                .extracting(TaskEntity::getStatus).isEqualTo(otherTask.getStatus());
+    }
+
+    @Test
+    void bodyMustBelongToTheTokenUser() throws Exception {
+        // userId của người khác trong body
+        mockMvc.perform(authorized(post("/schedule-manager/task/create"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(other.getUserId(), otherCategory.getCategoryId())))
+                .andExpect(status().isForbidden());
+        // userId đúng nhưng gắn vào category của người khác
+        mockMvc.perform(authorized(post("/schedule-manager/task/create"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(owner.getUserId(), otherCategory.getCategoryId())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(post("/schedule-manager/category/create"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + other.getUserId() + ",\"name\":\"Stolen\"}"))
+                .andExpect(status().isForbidden());
+        assertThat(categoryRepository.existsByUserUserIdAndName(other.getUserId(), "Stolen")).isFalse();
+    }
+
+    @Test
+    void ownDataIsAllowed() throws Exception {
+        CategoryEntity category = categoryRepository.findByUserUserId(owner.getUserId()).get(0);
+        mockMvc.perform(authorized(post("/schedule-manager/task/create"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(owner.getUserId(), category.getCategoryId())))
+                .andExpect(status().isOk());
+        mockMvc.perform(authorized(post("/schedule-manager/category/create"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + owner.getUserId() + ",\"name\":\"Mine\"}"))
+                .andExpect(status().isOk());
+        // Task không tồn tại vẫn là 404, không phải 403
+        mockMvc.perform(authorized(delete("/schedule-manager/task/{taskId}", Integer.MAX_VALUE)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void requiredTokenWithoutSecretFailsStartup() {
+        assertThatThrownBy(() -> new TokenService("", true, 60))
+                .isInstanceOf(IllegalStateException.class);
+        // Tắt bắt buộc token thì vẫn chạy được với khóa ngẫu nhiên
+        TokenService relaxed = new TokenService("", false, 60);
+        assertThat(relaxed.verify(relaxed.issue(7))).isEqualTo(7);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private static String taskJson(int userId, int categoryId) {
+        return "{\"userId\":" + userId + ",\"categoryId\":" + categoryId +
+                ",\"title\":\"Task\",\"priority\":\"normal\",\"status\":\"pending\"" +
+                ",\"startTime\":\"2025-01-01T08:00:00\"}";
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.spring_boot.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenServiceTests {
+
+    private static final Clock NOW = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void issuedTokenVerifiesToUserId() {
+        TokenService tokens = new TokenService("secret", 60, NOW);
+
+        assertThat(tokens.verify(tokens.issue(42))).isEqualTo(42);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = new TokenService("secret", 60, NOW).issue(42);
+        TokenService later = new TokenService("secret", 60, Clock.offset(NOW, Duration.ofSeconds(61)));
+
+        assertThat(later.verify(token)).isNull();
+    }
+
+    @Test
+    void tamperedOrForeignTokenIsRejected() {
+        TokenService tokens = new TokenService("secret", 60, NOW);
+        String token = tokens.issue(42);
+
+        assertThat(tokens.verify(token.replaceFirst("^42\\.", "43."))).isNull();
+        assertThat(new TokenService("other", 60, NOW).verify(token)).isNull();
+        assertThat(tokens.verify("garbage")).isNull();
+        assertThat(tokens.verify("1.2.%%%")).isNull();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.dto.CategoryDto;
+import com.example.spring_boot.dto.UserDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.mapper.CategoryMapper;
+import com.example.spring_boot.mapper.UserMapper;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh đăng ký kiểu cũ (exists + save từng bước, mỗi category một findById) với đăng ký một transaction
+ * hiện tại, khi nhiều người đăng ký cùng lúc. BCrypt được hạ cost để phép đo phản ánh phần database.
+ * Chỉnh bằng -Dsignup.requests=N và -Dsignup.concurrency=N; chỉ chạy với {@code mvn -Ploadtest test}.
+ */
+@SpringBootTest
+@Tag("loadtest")
+class RegistrationBenchmarkTests {
+
+    private static final int REQUESTS = Integer.getInteger("signup.requests", 300);
+    private static final int CONCURRENCY = Integer.getInteger("signup.concurrency", 16);
+    private static final String[] DEFAULT_CATEGORIES = {"Personal", "Work", "Grocery List"};
+
+    @TestConfiguration
+    static class CheapPasswordEncoder {
+        @Bean
+        @Primary
+        PasswordEncoder cheapPasswordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    UserMapper userMapper;
+    @Autowired
+    CategoryMapper categoryMapper;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void signUpBurstOldVersusNewPath() throws Exception {
+        // Làm nóng cả hai đường (JIT, pool kết nối, bộ sinh id)
+        legacyRegister(user("warm-legacy"));
+        userService.register(user("warm-new"));
+
+        double legacyStatements = statementsPerSignUp(this::legacyRegister, "stmt-legacy");
+        double newStatements = statementsPerSignUp(userService::register, "stmt-new");
+        long legacyMillis = burst(this::legacyRegister, "legacy");
+        long newMillis = burst(userService::register, "new");
+
+        System.out.printf("Sign-up benchmark: %d sign-ups, concurrency %d | old path %.1f statements, %d ms "
+                        + "(%.0f/s) | new path %.1f statements, %d ms (%.0f/s)%n",
+                REQUESTS, CONCURRENCY, legacyStatements, legacyMillis, REQUESTS * 1000.0 / legacyMillis,
+                newStatements, newMillis, REQUESTS * 1000.0 / newMillis);
+        assertThat(newStatements).isLessThan(legacyStatements);
+    }
+
+    private double statementsPerSignUp(Consumer<UserDto> register, String prefix) {
+        int samples = 20;
+        Statistics statistics = TestData.clearedStatistics(entityManagerFactory);
+        for (int i = 0; i < samples; i++) {
+            register.accept(user(prefix));
+        }
+        return (double) statistics.getPrepareStatementCount() / samples;
+    }
+
+    private long burst(Consumer<UserDto> register, String prefix) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicInteger next = new AtomicInteger();
+        long started = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = 0; w < CONCURRENCY; w++) {
+            workers.add(executor.submit(() -> {
+                while (next.getAndIncrement() < REQUESTS) {
+                    register.accept(user(prefix));
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Cách đăng ký trước đây: kiểm tra trùng trước, lưu user, rồi lưu từng category với findById user
+    private void legacyRegister(UserDto userDto) {
+        if (userRepository.existsByUserName(userDto.getUserName())) {
+            throw new RuntimeException("Username already taken!");
+        }
+        if (userRepository.existsByEmail(userDto.getEmail())) {
+            throw new RuntimeException("Email already registered!");
+        }
+        UserEntity userEntity = userRepository.save(userMapper.toEntity(userDto));
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.incrementRevision(userEntity.getUserId());
+            long revision = userRepository.findRevisionById(userEntity.getUserId()).orElse(0L);
+            for (String name : DEFAULT_CATEGORIES) {
+                CategoryDto categoryDto = new CategoryDto();
+                categoryDto.setUserId(userEntity.getUserId());
+                categoryDto.setName(name);
+                CategoryEntity category = categoryMapper.toEntity(categoryDto);
+                category.setRevision(revision);
+                categoryRepository.save(category);
+            }
+        });
+    }
+
+    private static UserDto user(String prefix) {
+        String userName = prefix + "-" + System.nanoTime() + "-" + Thread.currentThread().getId();
+        return new UserDto(0, userName, "secret", userName + "@example.com", null);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.dto.CategoryDto;
+import com.example.spring_boot.dto.TaskDto;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.Status;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.job.TaskCounterRepairJob;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TaskCounterTests {
+
+    @Autowired
+    TaskService taskService;
+    @Autowired
+    CategoryService categoryService;
+    @Autowired
+    TaskCounterRepairJob taskCounterRepairJob;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    DataSource dataSource;
+
+    private UserEntity user;
+    private List<CategoryEntity> categories;
+
+    @BeforeEach
+    void seed() {
+        user = TestData.createUser(userRepository, "counter");
+        categories = TestData.createCategories(categoryRepository, user);
+    }
+
+    @Test
+    void countersFollowCreateUpdateAndDelete() {
+        CategoryEntity personal = categories.get(0);
+        CategoryEntity work = categories.get(1);
+        TaskDto first = taskService.createTask(task(personal, "pending"));
+        TaskDto second = taskService.createTask(task(personal, "pending"));
+
+        assertThat(counts().get("Personal")).containsEntry(Status.pending, 2).containsEntry(Status.done, 0);
+        assertThat(counts().get("Work")).containsEntry(Status.pending, 0);
+
+        // Đổi status
+        first.setStatus("done");
+        taskService.updateTask(first.getTaskId(), first);
+        assertThat(counts().get("Personal")).containsEntry(Status.pending, 1).containsEntry(Status.done, 1);
+
+        // Chuyển sang category khác
+        second.setCategoryId(work.getCategoryId());
+        second.setStatus("in_progress");
+        taskService.updateTask(second.getTaskId(), second);
+        assertThat(counts().get("Personal")).containsEntry(Status.pending, 0);
+        assertThat(counts().get("Work")).containsEntry(Status.in_progress, 1);
+
+        taskService.deleteTask(first.getTaskId());
+        assertThat(counts().get("Personal")).containsEntry(Status.done, 0);
+
+        CategoryDto workDto = categoryService.getCategory(user.getUserId()).stream()
+                .filter(category -> category.getName().equals("Work"))
+                .findFirst().orElseThrow();
+        assertThat(workDto.getInprogressCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildRepairsCountersFromTaskTable() {
+        // Ghi thẳng qua repository, bỏ qua bộ đếm
+        TestData.createTasks(taskRepository, user, categories, 30);
+        assertThat(counts().get("Personal")).containsEntry(Status.pending, 0);
+
+        taskCounterRepairJob.repair();
+
+        Map<String, Map<Status, Integer>> counts = counts();
+        int total = 0;
+        for (Map<Status, Integer> statusMap : counts.values()) {
+            total += statusMap.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        assertThat(total).isEqualTo(30);
+        assertThat(counts.get("Personal")).containsEntry(Status.pending, 10);
+    }
+
+    @Test
+    void repairBumpsTheRevisionOnlyWhenCountersChange() {
+        TestData.createTasks(taskRepository, user, categories, 6);
+        long before = revision();
+
+        taskCounterRepairJob.repair();
+        assertThat(revision()).isEqualTo(before + 1);
+        assertThat(counts().get("Personal")).containsEntry(Status.pending, 2);
+
+        // Bộ đếm đã đúng: không ghi lại và ETag của client vẫn còn hiệu lực
+        taskCounterRepairJob.repair();
+        assertThat(revision()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void startupRebuildsCountersWhenTheTableIsEmpty() {
+        TestData.createTasks(taskRepository, user, categories, 9);
+        // Như database nâng cấp từ bản chưa có bảng task_count
+        new JdbcTemplate(dataSource).update("DELETE FROM task_count");
+
+        taskCounterRepairJob.rebuildOnStartup();
+
+        assertThat(counts().get("Personal")).containsEntry(Status.pending, 3);
+        assertThat(counts().get("Work")).containsEntry(Status.done, 3);
+    }
+
+    private long revision() {
+        return userRepository.findRevisionById(user.getUserId()).orElseThrow();
+    }
+
+    private Map<String, Map<Status, Integer>> counts() {
+        return taskService.getTaskCountByCategoryAndStatus(user.getUserId());
+    }
+
+    private TaskDto task(CategoryEntity category, String status) {
+        TaskDto taskDto = new TaskDto();
+        taskDto.setUserId(user.getUserId());
+        taskDto.setCategoryId(category.getCategoryId());
+        taskDto.setTitle("Counter task");
+        taskDto.setPriority("normal");
+        taskDto.setStatus(status);
+        taskDto.setStartTime(LocalDateTime.of(2025, 2, 1, 9, 0));
+        return taskDto;
+    }
+}
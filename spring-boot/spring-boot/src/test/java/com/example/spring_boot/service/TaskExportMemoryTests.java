@@ -0,0 +1,153 @@
+package com.example.spring_boot.service;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.entity.CategoryEntity;
+import com.example.spring_boot.entity.UserEntity;
+import com.example.spring_boot.repository.CategoryRepository;
+import com.example.spring_boot.repository.TaskRepository;
+import com.example.spring_boot.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export 1M task qua Stream + StreamingResponseBody: heap đo sau GC trong lúc export phải nằm trong một
+ * ngân sách cố định và không tăng theo số dòng đã ghi. Số dòng chỉnh bằng -Dexport.rows.
+ * Chỉ chạy với {@code mvn -Ploadtest test}.
+ */
+// Context riêng và đóng lại sau class: create-drop xóa bảng 1M dòng thay vì DELETE từng dòng
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("loadtest")
+class TaskExportMemoryTests {
+
+    private static final int ROWS = Integer.getInteger("export.rows", 1_000_000);
+    private static final int SAMPLE_EVERY = ROWS / 10;
+    private static final int SEED_CHUNK = 100_000;
+    // Buffer ghi, cửa sổ fetch và buffer kết quả của chính H2 (chạy chung JVM); không phụ thuộc số dòng.
+    // Gom 1M TaskDto vào List sẽ cần hơn 500 MB
+    private static final long MAX_HEAP_GROWTH = 96L * 1024 * 1024;
+    // Từ mẫu đầu (10% số dòng) tới mẫu cuối heap không được tăng theo số dòng đã ghi
+    private static final long MAX_HEAP_DRIFT = 8L * 1024 * 1024;
+
+    @Autowired
+    TaskTransferService taskTransferService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    TaskRepository taskRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private int userId;
+    private int warmUpUserId;
+
+    @BeforeAll
+    void seed() {
+        UserEntity user = TestData.createUser(userRepository, "export");
+        userId = user.getUserId();
+        CategoryEntity category = TestData.createCategories(categoryRepository, user).get(0);
+        // Sinh dữ liệu ngay trong H2 bằng INSERT ... SELECT, id nằm ngoài khoảng của sequence.
+        // Mỗi câu 100k dòng để undo log của H2 (nằm trong heap của JVM test) không giữ cả 1M dòng
+        for (int first = 1; first <= ROWS; first += SEED_CHUNK) {
+            jdbcTemplate.update("INSERT INTO task (task_id, category_id, user_id, title, description, priority, status, " +
+                            "start_time, created_at, version, revision) " +
+                            "SELECT 100000000 + n, ?, ?, CONCAT('Task ', n), CONCAT('Mô tả, \"chi tiết\" ', n), " +
+                            "CASE MOD(n, 2) WHEN 0 THEN 'important' ELSE 'normal' END, 'pending', " +
+                            "DATEADD('MINUTE', n, TIMESTAMP '2020-01-01 00:00:00'), CURRENT_TIMESTAMP, 0, 0 " +
+                            "FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(?, ?))",
+                    category.getCategoryId(), userId, first, Math.min(ROWS, first + SEED_CHUNK - 1));
+        }
+
+        UserEntity warmUpUser = TestData.createUser(userRepository, "export-warm-up");
+        warmUpUserId = warmUpUser.getUserId();
+        TestData.createTasks(taskRepository, warmUpUser, TestData.createCategories(categoryRepository, warmUpUser), 100);
+    }
+
+    @Test
+    void ndjsonExportRunsInConstantHeap() throws Exception {
+        assertConstantHeap(TaskTransferService.NDJSON);
+    }
+
+    @Test
+    void csvExportRunsInConstantHeap() throws Exception {
+        assertConstantHeap(TaskTransferService.CSV);
+    }
+
+    private void assertConstantHeap(String format) throws Exception {
+        // Khởi tạo một lần (plan của query, serializer của Jackson...) không tính vào phần tăng thêm
+        taskTransferService.exportTasks(warmUpUserId, format, OutputStream.nullOutputStream());
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(memory);
+
+        long start = System.nanoTime();
+        taskTransferService.exportTasks(userId, format, out);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        int expectedLines = TaskTransferService.CSV.equals(format) ? ROWS + 1 : ROWS;
+        System.out.printf("export %s: %d rows, %d MB in %d ms, heap baseline %d MB, peak growth %d KB, " +
+                        "first sample %d KB, last sample %d KB%n",
+                format, ROWS, out.bytes / (1024 * 1024), millis, baseline / (1024 * 1024),
+                (out.peakHeap - baseline) / 1024, (out.firstHeap - baseline) / 1024, (out.lastHeap - baseline) / 1024);
+        assertThat(out.lines).isEqualTo(expectedLines);
+        assertThat(out.samples).isGreaterThanOrEqualTo(9);
+        assertThat(out.peakHeap - baseline).isLessThan(MAX_HEAP_GROWTH);
+        assertThat(out.lastHeap - out.firstHeap).isLessThan(MAX_HEAP_DRIFT);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    // Đếm dòng và cứ SAMPLE_EVERY dòng lại đo heap sau GC, tức là phần bộ nhớ export đang thực sự giữ
+    private static class HeapSamplingOutputStream extends OutputStream {
+        private final MemoryMXBean memory;
+        long bytes;
+        int lines;
+        int samples;
+        long firstHeap;
+        long lastHeap;
+        long peakHeap;
+
+        HeapSamplingOutputStream(MemoryMXBean memory) {
+            this.memory = memory;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                    samples++;
+                    long used = usedHeapAfterGc(memory);
+                    if (samples == 1) {
+                        firstHeap = used;
+                    }
+                    lastHeap = used;
+                    peakHeap = Math.max(peakHeap, used);
+                }
+            }
+        }
+    }
+}
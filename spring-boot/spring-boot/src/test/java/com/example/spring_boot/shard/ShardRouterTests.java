@@ -0,0 +1,105 @@
+package com.example.spring_boot.shard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tìm shard của task theo id: hỏi shard sở hữu khoảng id trước, các shard khác chỉ khi không thấy,
+ * kết quả được cache. Mỗi shard là một H2 riêng, đếm số connection đã mở thay cho số câu đã hỏi.
+ */
+class ShardRouterTests {
+
+    private static final long ID_RANGE = 1000;
+
+    private CountingDataSource shard0;
+    private CountingDataSource shard1;
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        shard0 = shard();
+        shard1 = shard();
+        router = new ShardRouter(List.of(shard0, shard1), new ConsistentHashRing(2, 16), ID_RANGE, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void idInsideItsShardRangeNeedsOneProbe() {
+        insertTask(shard1, 1005);
+
+        assertThat(router.shardOfTask(1005)).isEqualTo(1);
+        assertThat(shard0.connections).isZero();
+        assertThat(shard1.connections).isEqualTo(1);
+    }
+
+    @Test
+    void idOutsideItsShardRangeFallsBackAndIsCached() {
+        // Optimizer pooled dùng chung nên id của shard 0 có thể nằm trong khoảng của shard 1
+        insertTask(shard0, 1007);
+
+        assertThat(router.shardOfTask(1007)).isEqualTo(0);
+        assertThat(router.shardOfTask(1007)).isEqualTo(0);
+        assertThat(shard1.connections).isEqualTo(1);
+        assertThat(shard0.connections).isEqualTo(1);
+    }
+
+    @Test
+    void missingIdIsNotCached() {
+        assertThat(router.shardOfTask(5)).isNull();
+        insertTask(shard0, 5);
+
+        assertThat(router.shardOfTask(5)).isEqualTo(0);
+    }
+
+    @Test
+    void movingAUserDropsTheCachedLocations() {
+        new JdbcTemplate(shard0).execute("CREATE TABLE user_shard (user_id INT PRIMARY KEY, user_name VARCHAR(50), " +
+                "email VARCHAR(50), shard INT)");
+        insertTask(shard0, 9);
+        assertThat(router.shardOfTask(9)).isEqualTo(0);
+
+        new JdbcTemplate(shard0).update("DELETE FROM task WHERE task_id = 9");
+        insertTask(shard1, 9);
+        router.assign(1, "moved", "moved@example.com", 1);
+
+        assertThat(router.shardOfTask(9)).isEqualTo(1);
+    }
+
+    private static CountingDataSource shard() {
+        CountingDataSource dataSource = new CountingDataSource(new DriverManagerDataSource(
+                "jdbc:h2:mem:router-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        new JdbcTemplate(dataSource).execute("CREATE TABLE task (task_id INT PRIMARY KEY)");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE category (category_id INT PRIMARY KEY)");
+        dataSource.connections = 0;
+        return dataSource;
+    }
+
+    private static void insertTask(CountingDataSource dataSource, int taskId) {
+        new JdbcTemplate(dataSource).update("INSERT INTO task (task_id) VALUES (?)", taskId);
+        dataSource.connections--;
+    }
+
+    private static class CountingDataSource extends DelegatingDataSource {
+        int connections;
+
+        CountingDataSource(DriverManagerDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections++;
+            return super.getConnection();
+        }
+    }
+}
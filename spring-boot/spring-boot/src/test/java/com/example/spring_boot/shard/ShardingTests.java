@@ -0,0 +1,451 @@
+package com.example.spring_boot.shard;
+
+import com.example.spring_boot.TestData;
+import com.example.spring_boot.job.TaskCounterRepairJob;
+import com.example.spring_boot.search.TaskSearchIndex;
+import com.example.spring_boot.security.TokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ba database H2 trong bộ nhớ: shard 0 là spring.datasource, shard 1 và 2 trong sharding.urls.
+ * Schema của shard 1, 2 do ShardInitializer tạo. User được đặt theo consistent hashing trên userName.
+ */
+@SpringBootTest(properties = {
+        "sharding.urls=jdbc:h2:mem:shard1-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1," +
+                "jdbc:h2:mem:shard2-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "management.endpoints.web.exposure.include=shards"
+})
+@AutoConfigureMockMvc
+class ShardingTests {
+    private static final String[] TABLES = {"user", "category", "task", "task_occurrence", "tombstone"};
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    TaskSearchIndex taskSearchIndex;
+    @Autowired
+    TaskCounterRepairJob taskCounterRepairJob;
+    @Autowired
+    TokenService tokenService;
+
+    @Test
+    void usersArePlacedOnEveryShardAndStayUniqueAcrossShards() throws Exception {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            int userId = register("spread-" + i + "-" + System.nanoTime());
+            int shard = shardRouter.lookup(userId);
+            used.add(shard);
+            assertThat(rows(shard, "user", userId)).isEqualTo(1);
+            assertThat(rows(shard, "category", userId)).isEqualTo(3);
+        }
+        assertThat(used).containsExactlyInAnyOrder(0, 1, 2);
+
+        // Email trùng với user ở shard khác: bảng user của từng shard không thấy, directory thì có
+        String userName = "unique-" + System.nanoTime();
+        int userId = register(userName);
+        String otherName = userNameOnOtherShard(shardRouter.lookup(userId));
+        mockMvc.perform(post("/schedule-manager/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("userName", otherName, "email", userName + "@example.com", "password", "secret"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Email already registered!"));
+        mockMvc.perform(post("/schedule-manager/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("userName", userName, "email", otherName + "@example.com", "password", "secret"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Username already taken!"));
+        // Lần đăng ký lỗi không để lại gì trong directory
+        assertThat(shardRouter.shardOfUserName(otherName)).isNull();
+    }
+
+    @Test
+    void everyEndpointWorksForUsersOnEachShard() throws Exception {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            String userName = userNameOnShard(shard);
+            int userId = register(userName);
+            assertThat(shardRouter.lookup(userId)).isEqualTo(shard);
+            exerciseEndpoints(userName, userId, shard);
+
+            for (int other = 0; other < shardRouter.shardCount(); other++) {
+                if (other != shard) {
+                    for (String table : TABLES) {
+                        assertThat(rows(other, table, userId)).as(table + " on shard " + other).isZero();
+                    }
+                }
+            }
+        }
+        // Mỗi shard cấp id trong khoảng riêng nên id không trùng giữa các shard
+        for (String[] table : new String[][]{{"task", "task_id"}, {"category", "category_id"}, {"user", "user_id"}}) {
+            List<Long> ids = new ArrayList<>();
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                ids.addAll(new JdbcTemplate(shardRouter.dataSource(shard))
+                        .queryForList("SELECT " + table[1] + " FROM " + table[0], Long.class));
+            }
+            assertThat(ids).as(table[0]).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void globalJobsReadEveryShard() throws Exception {
+        List<Integer> userIds = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int userId = register(userNameOnShard(shard));
+            createTask(userId, categoryIds(userId).get(0), "Quarterly report", "2025-01-01T09:00:00");
+            userIds.add(userId);
+        }
+
+        taskSearchIndex.rebuild();
+        taskCounterRepairJob.repair();
+
+        for (int userId : userIds) {
+            mockMvc.perform(get("/schedule-manager/task/search").param("userId", String.valueOf(userId)).param("q", "quarterly").with(token(userId)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)));
+            mockMvc.perform(get("/schedule-manager/category").param("userId", String.valueOf(userId)).with(token(userId)))
+                    .andExpect(jsonPath("$[0].pendingCount").value(1));
+        }
+    }
+
+    @Test
+    void movingAUserKeepsDataIdsAndEtag() throws Exception {
+        String userName = userNameOnShard(0);
+        int userId = register(userName);
+        List<Integer> categoryIds = categoryIds(userId);
+        List<Integer> taskIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            taskIds.add(createTask(userId, categoryIds.get(i % 3), "Moved " + i, "2025-01-0" + (i + 1) + "T09:00:00"));
+        }
+        int seriesId = createRecurringTask(userId, categoryIds.get(0));
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-08T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/schedule-manager/task/" + taskIds.remove(4)).with(token(userId))).andExpect(status().isNoContent());
+        String sync = sync(userId);
+        String etag = etag(userId);
+        String categories = categories(userId);
+
+        // Công cụ chuyển shard không mở cho người ngoài
+        mockMvc.perform(post("/actuator/shards/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shard\":2}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/shards/" + userId))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(admin(post("/actuator/shards/" + userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shard\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value(0))
+                .andExpect(jsonPath("$.rows.task").value(5))
+                .andExpect(jsonPath("$.rows.task_occurrence").value(1))
+                .andExpect(jsonPath("$.rows.tombstone").value(1));
+        mockMvc.perform(admin(get("/actuator/shards/" + userId)))
+                .andExpect(jsonPath("$.shard").value(2));
+        for (String table : TABLES) {
+            assertThat(rows(0, table, userId)).as(table).isZero();
+        }
+
+        // Cùng dữ liệu, cùng revision nên client không phải tải lại
+        assertThat(sync(userId)).isEqualTo(sync);
+        assertThat(etag(userId)).isEqualTo(etag);
+        mockMvc.perform(get("/schedule-manager/task/by-date").param("userId", String.valueOf(userId)).param("date", "2025-01-08").with(token(userId)))
+                .andExpect(jsonPath("$[0].status").value("done"));
+        assertThat(categories(userId)).isEqualTo(categories);
+
+        // Id cũ vẫn tìm được ở shard mới
+        mockMvc.perform(patch("/schedule-manager/task/" + taskIds.get(0))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token(userId)))
+                .andExpect(status().isOk());
+        int newTaskId = createTask(userId, categoryIds.get(1), "After move", "2025-01-10T09:00:00");
+        assertThat(taskIds).doesNotContain(newTaskId);
+        assertThat(rows(2, "task", userId)).isEqualTo(6);
+
+        // Chuyển ngược lại
+        mockMvc.perform(admin(post("/actuator/shards/" + userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shard\":0}"))
+                .andExpect(status().isOk());
+        assertThat(rows(0, "task", userId)).isEqualTo(6);
+        assertThat(rows(2, "task", userId)).isZero();
+        mockMvc.perform(get("/schedule-manager/task").param("userId", String.valueOf(userId)).with(token(userId)))
+                .andExpect(jsonPath("$", hasSize(6)));
+        login(userName);
+    }
+
+    @Test
+    void writesDuringAMoveAreEitherMovedOrRejected() throws Exception {
+        int userId = register(userNameOnShard(1));
+        int categoryId = categoryIds(userId).get(0);
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        Future<Integer> created = writer.submit(() -> {
+            int succeeded = 0;
+            while (!stop.get()) {
+                int status = mockMvc.perform(post("/schedule-manager/task/create")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(taskJson(userId, categoryId, "Concurrent", "2025-02-01T09:00:00")).with(token(userId)))
+                        .andReturn().getResponse().getStatus();
+                if (status == 200) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        });
+        try {
+            Thread.sleep(200);
+            mockMvc.perform(admin(post("/actuator/shards/" + userId))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"shard\":2}"))
+                    .andExpect(status().isOk());
+            Thread.sleep(200);
+        } finally {
+            stop.set(true);
+            writer.shutdown();
+        }
+
+        int succeeded = created.get();
+        assertThat(succeeded).isPositive();
+        assertThat(rows(2, "task", userId)).isEqualTo(succeeded);
+        assertThat(rows(1, "task", userId)).isZero();
+        mockMvc.perform(get("/schedule-manager/task/count").param("userId", String.valueOf(userId)).with(token(userId)))
+                .andExpect(jsonPath("$.Personal.pending").value(succeeded));
+    }
+
+    private void exerciseEndpoints(String userName, int userId, int shard) throws Exception {
+        String id = String.valueOf(userId);
+        mockMvc.perform(post("/schedule-manager/category/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Study\",\"userId\":" + userId + "}").with(token(userId)))
+                .andExpect(status().isOk());
+        List<Integer> categoryIds = categoryIds(userId);
+        assertThat(categoryIds).hasSize(4);
+
+        int taskId = createTask(userId, categoryIds.get(0), "Sharded report", "2025-01-01T09:00:00");
+        mockMvc.perform(post("/schedule-manager/task/batch")
+                        .param("userId", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + taskJson(userId, categoryIds.get(1), "Batch 1", "2025-01-01T10:00:00") + "," +
+                                taskJson(userId, categoryIds.get(3), "Batch 2", "2025-01-01T11:00:00") + "]").with(token(userId)))
+                .andExpect(status().isOk());
+        int seriesId = createRecurringTask(userId, categoryIds.get(2));
+
+        mockMvc.perform(get("/schedule-manager/task").param("userId", id).with(token(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)));
+        mockMvc.perform(get("/schedule-manager/task/by-date").param("userId", id).param("date", "2025-01-01").with(token(userId)))
+                .andExpect(jsonPath("$", hasSize(3)));
+        mockMvc.perform(get("/schedule-manager/task/range").param("userId", id)
+                        .param("from", "2025-01-01").param("to", "2025-01-15").with(token(userId)))
+                .andExpect(jsonPath("$", hasSize(6)));
+        mockMvc.perform(get("/schedule-manager/task/density").param("userId", id)
+                        .param("from", "2025-01-01").param("to", "2025-01-07").with(token(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/schedule-manager/task/count").param("userId", id).with(token(userId)))
+                .andExpect(jsonPath("$.Personal.pending").value(1));
+        mockMvc.perform(get("/schedule-manager/task/statistics").param("userId", id).with(token(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/schedule-manager/task/search").param("userId", id).param("q", "sharded").with(token(userId)))
+                .andExpect(jsonPath("$[*].taskId", hasItem(taskId)));
+        mockMvc.perform(get("/schedule-manager/dashboard").param("userId", id).param("date", "2025-01-01").with(token(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks", hasSize(3)));
+
+        mockMvc.perform(patch("/schedule-manager/task/" + taskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/schedule-manager/task/" + taskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(userId, categoryIds.get(0), "Sharded report v2", "2025-01-01T09:30:00")).with(token(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Sharded report v2"));
+        mockMvc.perform(patch("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-08T09:00:00")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"done\"}").with(token(userId)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/schedule-manager/task/" + seriesId + "/occurrence")
+                        .param("start", "2025-01-13T09:00:00").with(token(userId)))
+                .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(delete("/schedule-manager/task/" + taskId).with(token(userId))).andExpect(status().isNoContent());
+
+        JsonNode sync = objectMapper.readTree(sync(userId));
+        assertThat(sync.get("tasks")).hasSize(3);
+        assertThat(sync.get("categories")).hasSize(4);
+        assertThat(sync.get("tasks")).extracting(task -> task.get("taskId").asInt()).doesNotContain(taskId);
+        assertThat(rows(shard, "tombstone", userId)).isEqualTo(1);
+
+        MvcResult export = mockMvc.perform(get("/schedule-manager/task/export").param("userId", id).with(token(userId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(exported.split("\n")).hasSize(3);
+        mockMvc.perform(post("/schedule-manager/task/import")
+                        .param("userId", id)
+                        .content(exported.getBytes(StandardCharsets.UTF_8)).with(token(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3));
+        assertThat(rows(shard, "task", userId)).isEqualTo(6);
+
+        login(userName);
+    }
+
+    // Actuator ngoài /health cần tài khoản ADMIN (test application.properties)
+    private static MockHttpServletRequestBuilder admin(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Basic " +
+                Base64.getEncoder().encodeToString("admin:admin-secret".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private RequestPostProcessor token(int userId) {
+        return TestData.token(tokenService, userId);
+    }
+
+    private int register(String userName) throws Exception {
+        String body = mockMvc.perform(post("/schedule-manager/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("userName", userName, "email", userName + "@example.com", "password", "secret"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("userId").asInt();
+    }
+
+    private void login(String userName) throws Exception {
+        MvcResult started = mockMvc.perform(post("/schedule-manager/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("userName", userName, "password", "secret"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty());
+    }
+
+    private List<Integer> categoryIds(int userId) throws Exception {
+        String body = mockMvc.perform(get("/schedule-manager/category").param("userId", String.valueOf(userId)).with(token(userId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(body).forEach(category -> ids.add(category.get("categoryId").asInt()));
+        return ids;
+    }
+
+    private int createTask(int userId, int categoryId, String title, String startTime) throws Exception {
+        String body = mockMvc.perform(post("/schedule-manager/task/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(taskJson(userId, categoryId, title, startTime)).with(token(userId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("taskId").asInt();
+    }
+
+    // Thứ 2 và thứ 4 lúc 9:00 từ 6/01, 6 lần
+    private int createRecurringTask(int userId, int categoryId) throws Exception {
+        String body = mockMvc.perform(post("/schedule-manager/task/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"categoryId\":" + categoryId +
+                                ",\"title\":\"Gym\",\"priority\":\"normal\",\"status\":\"pending\"" +
+                                ",\"startTime\":\"2025-01-06T09:00:00\"" +
+                                ",\"recurrence\":{\"frequency\":\"weekly\",\"weekdays\":[1,3],\"count\":6}}").with(token(userId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("taskId").asInt();
+    }
+
+    private static String taskJson(int userId, int categoryId, String title, String startTime) {
+        return "{\"userId\":" + userId + ",\"categoryId\":" + categoryId + ",\"title\":\"" + title + "\"" +
+                ",\"priority\":\"normal\",\"status\":\"pending\",\"startTime\":\"" + startTime + "\"}";
+    }
+
+    private String sync(int userId) throws Exception {
+        return mockMvc.perform(get("/schedule-manager/sync").param("userId", String.valueOf(userId)).with(token(userId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String categories(int userId) throws Exception {
+        return mockMvc.perform(get("/schedule-manager/category").param("userId", String.valueOf(userId)).with(token(userId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String etag(int userId) throws Exception {
+        return mockMvc.perform(get("/schedule-manager/task").param("userId", String.valueOf(userId)).with(token(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(header().string(HttpHeaders.ETAG, containsString(userId + "-")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String userNameOnShard(int shard) {
+        String userName;
+        do {
+            userName = "shard" + shard + "-" + System.nanoTime();
+        } while (shardRouter.placement(userName) != shard);
+        return userName;
+    }
+
+    private String userNameOnOtherShard(int shard) {
+        String userName;
+        do {
+            userName = "other-" + System.nanoTime();
+        } while (shardRouter.placement(userName) == shard);
+        return userName;
+    }
+
+    private long rows(int shard, String table, int userId) {
+        return new JdbcTemplate(shardRouter.dataSource(shard))
+                .queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Long.class, userId);
+    }
+}